@@ -27,10 +27,15 @@ import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
  * Updates a state tree based on changes in JSON format.
+ * <p>
+ * Changes can be encoded either as JSON objects with named keys or as compact
+ * JSON arrays where the values are identified by their position, see
+ * {@link JsonConstants#COMPACT_CHANGE_NODE}.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -62,13 +67,21 @@ public class TreeChangeProcessor {
             // Then process all non-attach changes
             int length = changes.length();
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (!isAttach(change)) {
-                    final StateNode value = processChange(tree, change);
-                    if (value != null) {
-                        nodes.add(value);
+                StateNode value = null;
+                if (isCompact(changes.get(i))) {
+                    JsonArray change = changes.getArray(i);
+                    if (!isCompactAttach(change)) {
+                        value = processCompactChange(tree, change);
+                    }
+                } else {
+                    JsonObject change = changes.getObject(i);
+                    if (!isAttach(change)) {
+                        value = processChange(tree, change);
                     }
                 }
+                if (value != null) {
+                    nodes.add(value);
+                }
             }
             return nodes;
         } finally {
@@ -82,20 +95,40 @@ public class TreeChangeProcessor {
         JsSet<StateNode> nodes = JsCollections.set();
         int length = changes.length();
         for (int i = 0; i < length; i++) {
-            JsonObject change = changes.getObject(i);
-            if (isAttach(change)) {
-                int nodeId = (int) change.getNumber(JsonConstants.CHANGE_NODE);
-
-                if (nodeId != tree.getRootNode().getId()) {
-                    StateNode node = new StateNode(nodeId, tree);
-                    tree.registerNode(node);
-                    nodes.add(node);
+            int nodeId;
+            if (isCompact(changes.get(i))) {
+                JsonArray change = changes.getArray(i);
+                if (!isCompactAttach(change)) {
+                    continue;
                 }
+                nodeId = (int) change
+                        .getNumber(JsonConstants.COMPACT_CHANGE_NODE);
+            } else {
+                JsonObject change = changes.getObject(i);
+                if (!isAttach(change)) {
+                    continue;
+                }
+                nodeId = (int) change.getNumber(JsonConstants.CHANGE_NODE);
+            }
+
+            if (nodeId != tree.getRootNode().getId()) {
+                StateNode node = new StateNode(nodeId, tree);
+                tree.registerNode(node);
+                nodes.add(node);
             }
         }
         return nodes;
     }
 
+    private static boolean isCompact(JsonValue change) {
+        return change.getType() == JsonType.ARRAY;
+    }
+
+    private static boolean isCompactAttach(JsonArray change) {
+        int type = (int) change.getNumber(JsonConstants.COMPACT_CHANGE_TYPE);
+        return type == JsonConstants.COMPACT_CHANGE_TYPE_ATTACH;
+    }
+
     private static boolean isAttach(JsonObject change) {
         return JsonConstants.CHANGE_TYPE_ATTACH
                 .equals(change.getString(JsonConstants.CHANGE_TYPE));
@@ -147,6 +180,78 @@ public class TreeChangeProcessor {
         return node;
     }
 
+    /**
+     * Update a state tree based on a change encoded as a compact JSON array,
+     * see {@link JsonConstants#COMPACT_CHANGE_NODE}. The values are read by
+     * their position without creating the corresponding JSON object.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the compact JSON change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    private static StateNode processCompactChange(StateTree tree,
+            JsonArray change) {
+        int type = (int) change.getNumber(JsonConstants.COMPACT_CHANGE_TYPE);
+        int nodeId = (int) change.getNumber(JsonConstants.COMPACT_CHANGE_NODE);
+
+        StateNode node = tree.getNode(nodeId);
+        if (node == null && tree.isResync()) {
+            // Resync should not stop handling changes
+            return node;
+        }
+        assert node != null : "No attached node found";
+
+        if (type == JsonConstants.COMPACT_CHANGE_TYPE_DETACH) {
+            processDetachChange(node);
+            return node;
+        }
+
+        int featureId = (int) change
+                .getNumber(JsonConstants.COMPACT_CHANGE_FEATURE);
+        int next = JsonConstants.COMPACT_CHANGE_FEATURE + 1;
+
+        switch (type) {
+        case JsonConstants.COMPACT_CHANGE_TYPE_NOOP:
+            populateFeature(node, featureId, change.getBoolean(next));
+            break;
+        case JsonConstants.COMPACT_CHANGE_TYPE_PUT:
+            putValue(node.getMap(featureId).getProperty(change.getString(next)),
+                    change.get(next + 1));
+            break;
+        case JsonConstants.COMPACT_CHANGE_TYPE_PUT_NODE:
+            putNode(node,
+                    node.getMap(featureId).getProperty(change.getString(next)),
+                    (int) change.getNumber(next + 1));
+            break;
+        case JsonConstants.COMPACT_CHANGE_TYPE_REMOVE:
+            node.getMap(featureId).getProperty(change.getString(next))
+                    .removeValue();
+            break;
+        case JsonConstants.COMPACT_CHANGE_TYPE_CLEAR:
+            node.getList(featureId).clear();
+            break;
+        case JsonConstants.COMPACT_CHANGE_TYPE_SPLICE:
+        case JsonConstants.COMPACT_CHANGE_TYPE_SPLICE_NODES:
+            NodeList list = node.getList(featureId);
+            int index = (int) change.getNumber(next);
+            int remove = (int) change.getNumber(next + 1);
+            if (change.length() <= next + 2) {
+                list.splice(index, remove);
+            } else if (type == JsonConstants.COMPACT_CHANGE_TYPE_SPLICE) {
+                spliceValues(list, index, remove, change.getArray(next + 2));
+            } else {
+                spliceNodes(node, list, index, remove,
+                        change.getArray(next + 2));
+            }
+            break;
+        default:
+            assert false : "Unsupported compact change type: " + type;
+        }
+        return node;
+    }
+
     private static void processDetachChange(StateNode node) {
         node.getTree().unregisterNode(node);
         node.setParent(null);
@@ -156,7 +261,13 @@ public class TreeChangeProcessor {
         assert change.hasKey(JsonConstants.CHANGE_FEATURE_TYPE)
                 : "Change doesn't contain feature type. Don't know how to populate feature";
         int featureId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        if (change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE)) {
+        populateFeature(node, featureId,
+                change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE));
+    }
+
+    private static void populateFeature(StateNode node, int featureId,
+            boolean isList) {
+        if (isList) {
             // list feature
             node.getList(featureId);
         } else {
@@ -168,17 +279,10 @@ public class TreeChangeProcessor {
         MapProperty property = findProperty(change, node);
 
         if (change.hasKey(JsonConstants.CHANGE_PUT_VALUE)) {
-            JsonValue jsonValue = change.get(JsonConstants.CHANGE_PUT_VALUE);
-            Object value = ClientJsonCodec.decodeWithoutTypeInfo(jsonValue);
-            property.setValue(value);
+            putValue(property, change.get(JsonConstants.CHANGE_PUT_VALUE));
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
-            int childId = (int) change
-                    .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            putNode(node, property, (int) change
+                    .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE));
         } else {
             assert false
                     : "Change should have either value or nodeValue property: "
@@ -186,6 +290,20 @@ public class TreeChangeProcessor {
         }
     }
 
+    private static void putValue(MapProperty property, JsonValue jsonValue) {
+        Object value = ClientJsonCodec.decodeWithoutTypeInfo(jsonValue);
+        property.setValue(value);
+    }
+
+    private static void putNode(StateNode node, MapProperty property,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
     private static void processRemoveChange(JsonObject change, StateNode node) {
         MapProperty property = findProperty(change, node);
 
@@ -214,33 +332,40 @@ public class TreeChangeProcessor {
         }
 
         if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD)) {
-            JsonArray addJson = change
-                    .getArray(JsonConstants.CHANGE_SPLICE_ADD);
+            spliceValues(list, index, remove,
+                    change.getArray(JsonConstants.CHANGE_SPLICE_ADD));
+        } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
+            spliceNodes(node, list, index, remove,
+                    change.getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES));
+        } else {
+            list.splice(index, remove);
+        }
+    }
 
-            JsArray<Object> add = ClientJsonCodec.jsonArrayAsJsArray(addJson);
+    private static void spliceValues(NodeList list, int index, int remove,
+            JsonArray addJson) {
+        JsArray<Object> add = ClientJsonCodec.jsonArrayAsJsArray(addJson);
 
-            list.splice(index, remove, add);
-        } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
-            JsonArray addNodes = change
-                    .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
+        list.splice(index, remove, add);
+    }
 
-            JsArray<StateNode> add = JsCollections.array();
+    private static void spliceNodes(StateNode node, NodeList list, int index,
+            int remove, JsonArray addNodes) {
+        int length = addNodes.length();
 
-            StateTree tree = node.getTree();
-            for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
-                StateNode child = tree.getNode(childId);
-                assert child != null : "No child node found with id " + childId;
-                child.setParent(node);
+        JsArray<StateNode> add = JsCollections.array();
 
-                add.set(i, child);
-            }
+        StateTree tree = node.getTree();
+        for (int i = 0; i < length; i++) {
+            int childId = (int) addNodes.getNumber(i);
+            StateNode child = tree.getNode(childId);
+            assert child != null : "No child node found with id " + childId;
+            child.setParent(node);
 
-            list.splice(index, remove, add);
-        } else {
-            list.splice(index, remove);
+            add.set(i, child);
         }
+
+        list.splice(index, remove, add);
     }
 
     private static void processClearChange(JsonObject change, StateNode node) {
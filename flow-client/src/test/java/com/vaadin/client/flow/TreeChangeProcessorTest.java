@@ -202,6 +202,39 @@ public class TreeChangeProcessorTest {
         Assert.assertTrue(updatedNodes.has(tree.getNode(nodeId)));
     }
 
+    @Test
+    public void testCompactChanges() {
+        int nodeId = 2;
+        int childId = 3;
+        JsonArray changes = toArray(toArray(Json.create(nodeId),
+                Json.create(JsonConstants.COMPACT_CHANGE_TYPE_PUT),
+                Json.create(ns), Json.create(myKey), Json.create(myValue)),
+                toArray(Json.create(nodeId),
+                        Json.create(
+                                JsonConstants.COMPACT_CHANGE_TYPE_SPLICE_NODES),
+                        Json.create(NodeFeatures.ELEMENT_CHILDREN),
+                        Json.create(0), Json.create(0),
+                        toArray(Json.create(childId))),
+                toArray(Json.create(childId),
+                        Json.create(JsonConstants.COMPACT_CHANGE_TYPE_ATTACH)),
+                toArray(Json.create(nodeId),
+                        Json.create(JsonConstants.COMPACT_CHANGE_TYPE_ATTACH)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
+                changes);
+
+        StateNode node = tree.getNode(nodeId);
+        StateNode child = tree.getNode(childId);
+        Assert.assertEquals(myValue,
+                node.getMap(ns).getProperty(myKey).getValue());
+        NodeList children = node.getList(NodeFeatures.ELEMENT_CHILDREN);
+        Assert.assertEquals(1, children.length());
+        Assert.assertSame(child, children.get(0));
+        Assert.assertSame(node, child.getParent());
+
+        Assert.assertEquals(2, updatedNodes.size());
+    }
+
     @Test
     public void testDetachRemovesNode() {
         AtomicInteger unregisterCount = new AtomicInteger(0);
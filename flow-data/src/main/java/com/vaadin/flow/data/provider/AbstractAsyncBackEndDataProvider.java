@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * Abstract base class for implementing asynchronous back end data providers.
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ * @author Vaadin Ltd
+ * @since
+ */
+public abstract class AbstractAsyncBackEndDataProvider<T, F>
+        extends AbstractBackEndDataProvider<T, F>
+        implements AsyncBackEndDataProvider<T, F> {
+
+    @Override
+    public CompletionStage<Stream<T>> fetchAsync(Query<T, F> query) {
+        return fetchFromBackEndAsync(mixInSortOrders(query));
+    }
+
+    @Override
+    public CompletionStage<Integer> sizeAsync(Query<T, F> query) {
+        return sizeInBackEndAsync(mixInSortOrders(query));
+    }
+
+    @Override
+    protected Stream<T> fetchFromBackEnd(Query<T, F> query) {
+        return join(fetchFromBackEndAsync(query));
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<T, F> query) {
+        return join(sizeInBackEndAsync(query));
+    }
+
+    /**
+     * Fetches data from the back end asynchronously using the given query.
+     *
+     * @param query
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the data
+     * @return a stage completed with a stream of items matching the query
+     */
+    protected abstract CompletionStage<Stream<T>> fetchFromBackEndAsync(
+            Query<T, F> query);
+
+    /**
+     * Counts the number of items available in the back end asynchronously.
+     *
+     * @param query
+     *            the query that defines filtering to be used for counting the
+     *            number of items
+     * @return a stage completed with the number of available items
+     */
+    protected abstract CompletionStage<Integer> sizeInBackEndAsync(
+            Query<T, F> query);
+
+    /**
+     * Waits for the given stage to complete and returns its result. If the
+     * stage completed exceptionally, the exception it was completed with is
+     * thrown as is instead of being wrapped in a
+     * {@link CompletionException}.
+     *
+     * @param <R>
+     *            the result type
+     * @param stage
+     *            the stage to wait for
+     * @return the result of the stage
+     */
+    static <R> R join(CompletionStage<R> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
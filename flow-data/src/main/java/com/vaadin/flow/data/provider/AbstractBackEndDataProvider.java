@@ -18,6 +18,7 @@ package com.vaadin.flow.data.provider;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,7 +37,7 @@ public abstract class AbstractBackEndDataProvider<T, F> extends
 
     private List<QuerySortOrder> sortOrders = new ArrayList<>();
 
-    private Query<T, F> mixInSortOrders(Query<T, F> query) {
+    Query<T, F> mixInSortOrders(Query<T, F> query) {
         if (sortOrders.isEmpty()) {
             return query;
         }
@@ -66,6 +67,11 @@ public abstract class AbstractBackEndDataProvider<T, F> extends
         return sizeInBackEnd(mixInSortOrders(query));
     }
 
+    @Override
+    public Optional<ItemsWithCount<T>> fetchWithCount(Query<T, F> query) {
+        return fetchWithCountFromBackEnd(mixInSortOrders(query));
+    }
+
     /**
      * Fetches data from the back end using the given query.
      *
@@ -86,6 +92,23 @@ public abstract class AbstractBackEndDataProvider<T, F> extends
      */
     protected abstract int sizeInBackEnd(Query<T, F> query);
 
+    /**
+     * Fetches data and counts the number of available items in the back end
+     * using one query. The default implementation returns an empty optional,
+     * meaning that combined queries are not supported.
+     *
+     * @param query
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the data, and filtering for counting the items
+     * @return the fetched items and the total count, or an empty optional if
+     *         combined queries are not supported
+     * @see DataProvider#fetchWithCount(Query)
+     */
+    protected Optional<ItemsWithCount<T>> fetchWithCountFromBackEnd(
+            Query<T, F> query) {
+        return Optional.empty();
+    }
+
     @Override
     public void setSortOrders(List<QuerySortOrder> sortOrders) {
         this.sortOrders = Objects.requireNonNull(sortOrders,
@@ -209,7 +209,7 @@ public abstract class AbstractListDataView<T> extends AbstractDataView<T>
         final ListDataProvider<T> dataProvider = getDataProvider();
         if (!contains(item)) {
             dataProvider.getItems().add(item);
-            dataProvider.refreshAll();
+            dataProvider.refreshAdded(item);
         }
         return this;
     }
@@ -269,7 +269,7 @@ public abstract class AbstractListDataView<T> extends AbstractDataView<T>
     public AbstractListDataView<T> removeItem(T item) {
         final ListDataProvider<T> dataProvider = getDataProvider();
         removeItemIfPresent(item, dataProvider);
-        dataProvider.refreshAll();
+        dataProvider.refreshRemoved(item);
         return this;
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * A data provider that lazy loads items from a back end without blocking the
+ * calling thread.
+ * <p>
+ * {@link DataCommunicator} starts the queries of this data provider, also when
+ * it is wrapped using for example {@link #withConfigurableFilter()}, while
+ * holding the session lock, releases the lock while they are running and
+ * applies the results to the component through {@code UI.access}, so Push
+ * needs to be enabled with {@code PushMode.AUTOMATIC}. The returned stages may
+ * be completed in any thread.
+ * <p>
+ * The synchronous {@link #fetch(Query)} and {@link #size(Query)} methods wait
+ * for the asynchronous ones by default and throw the exception that the stage
+ * was completed with. They are used by components that don't support
+ * asynchronous data providers, and by {@link DataCommunicator} when it is not
+ * attached or needs to recheck the item count.
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ * @author Vaadin Ltd
+ * @since
+ */
+public interface AsyncBackEndDataProvider<T, F>
+        extends BackEndDataProvider<T, F> {
+
+    /**
+     * Fetches data from this data provider asynchronously using the given
+     * query.
+     *
+     * @param query
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the data
+     * @return a stage completed with a stream of items matching the query
+     */
+    CompletionStage<Stream<T>> fetchAsync(Query<T, F> query);
+
+    /**
+     * Gets the number of items that match the given query asynchronously.
+     *
+     * @param query
+     *            the query that defines filtering to be used for counting the
+     *            number of items
+     * @return a stage completed with the number of available items
+     */
+    CompletionStage<Integer> sizeAsync(Query<T, F> query);
+
+    @Override
+    default Stream<T> fetch(Query<T, F> query) {
+        return AbstractAsyncBackEndDataProvider.join(fetchAsync(query));
+    }
+
+    @Override
+    default int size(Query<T, F> query) {
+        return AbstractAsyncBackEndDataProvider.join(sizeAsync(query));
+    }
+}
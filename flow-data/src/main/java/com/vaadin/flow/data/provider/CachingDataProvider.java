@@ -0,0 +1,306 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Data provider wrapper that caches the results of size and fetch queries, so
+ * that identical queries from several components, for example the same grid
+ * opened by many users, only reach the wrapped data provider once.
+ * <p>
+ * Fetch queries are considered identical if they have the same offset, limit,
+ * back end sort orders and an equal filter, and, if the wrapped data provider
+ * is in-memory, the same in-memory sorting comparator instance. Size queries are considered identical if they have an equal filter.
+ * Combined fetch and count queries, see {@link #fetchWithCount(Query)}, are
+ * answered from the cache when both results are cached, and their results are
+ * cached as a fetch and a size query result. When the wrapped data provider is
+ * an {@link AsyncBackEndDataProvider}, components query it asynchronously
+ * through this wrapper and the results are cached when they complete.
+ * <p>
+ * The cache holds at most the given number of query results and evicts the
+ * least recently used result when full. It is cleared on
+ * {@link #refreshAll()} and whenever the wrapped data provider fires a data
+ * change event, including refreshes of single items.
+ * <p>
+ * An instance is meant to be shared, for example as an application scoped
+ * bean, and can be used concurrently from several sessions. The cached items
+ * are shared as well, so they should not be modified by the components
+ * showing them.
+ *
+ * @author Vaadin Ltd
+ * @since
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            query filter type
+ */
+public class CachingDataProvider<T, F> extends DataProviderWrapper<T, F, F> {
+
+    private final int maximumSize;
+
+    private transient Map<List<Object>, Object> cache;
+
+    private long hitCount;
+
+    private long missCount;
+
+    // Incremented on invalidation so that results of queries that were
+    // running at the time are not cached
+    private long generation;
+
+    /**
+     * Creates a new caching data provider wrapping the given data provider.
+     *
+     * @param dataProvider
+     *            the data provider to wrap, not <code>null</code>
+     * @param maximumSize
+     *            the maximum number of size and fetch query results to cache,
+     *            at least 1
+     */
+    public CachingDataProvider(DataProvider<T, F> dataProvider,
+            int maximumSize) {
+        super(dataProvider);
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Maximum size cannot be less than 1, got %d",
+                    maximumSize));
+        }
+        this.maximumSize = maximumSize;
+        dataProvider.addDataProviderListener(event -> invalidate());
+    }
+
+    @Override
+    public int size(Query<T, F> query) {
+        List<Object> key = createKey(query, false);
+        long queryGeneration = getGeneration();
+        Integer size = (Integer) getCached(key);
+        if (size == null) {
+            size = super.size(query);
+            putCached(key, size, queryGeneration);
+        }
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> fetch(Query<T, F> query) {
+        List<Object> key = createKey(query, true);
+        long queryGeneration = getGeneration();
+        List<T> items = (List<T>) getCached(key);
+        if (items == null) {
+            try (Stream<T> stream = super.fetch(query)) {
+                items = stream.collect(Collectors.toList());
+            }
+            putCached(key, items, queryGeneration);
+        }
+        return items.stream();
+    }
+
+    @Override
+    CompletionStage<Integer> sizeAsync(Query<T, F> query) {
+        List<Object> key = createKey(query, false);
+        long queryGeneration = getGeneration();
+        Integer size = (Integer) getCached(key);
+        if (size != null) {
+            return CompletableFuture.completedFuture(size);
+        }
+        return cacheWhenComplete(super.sizeAsync(query), result -> {
+            putCached(key, result, queryGeneration);
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    CompletionStage<Stream<T>> fetchAsync(Query<T, F> query) {
+        List<Object> key = createKey(query, true);
+        long queryGeneration = getGeneration();
+        List<T> items = (List<T>) getCached(key);
+        if (items != null) {
+            return CompletableFuture.completedFuture(items.stream());
+        }
+        return cacheWhenComplete(super.fetchAsync(query), stream -> {
+            List<T> result;
+            try (Stream<T> fetched = stream) {
+                result = fetched.collect(Collectors.toList());
+            }
+            putCached(key, result, queryGeneration);
+            return result.stream();
+        });
+    }
+
+    private static <R> CompletionStage<R> cacheWhenComplete(
+            CompletionStage<R> query, Function<R, R> cacher) {
+        CompletableFuture<R> source = query.toCompletableFuture();
+        CompletableFuture<R> result = source.thenApply(cacher);
+        // Pass cancellation of an outdated query on to the wrapped provider
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<ItemsWithCount<T>> fetchWithCount(Query<T, F> query) {
+        List<Object> fetchKey = createKey(query, true);
+        List<Object> sizeKey = createKey(query, false);
+        long queryGeneration;
+        List<T> items;
+        Integer size;
+        synchronized (this) {
+            queryGeneration = generation;
+            items = cache == null ? null : (List<T>) cache.get(fetchKey);
+            size = cache == null ? null : (Integer) cache.get(sizeKey);
+            if (items != null && size != null) {
+                hitCount++;
+                return Optional
+                        .of(new ItemsWithCount<>(items.stream(), size));
+            }
+        }
+        Optional<ItemsWithCount<T>> result = super.fetchWithCount(query);
+        if (!result.isPresent()) {
+            // Not counted as a miss, the separate size and fetch queries that
+            // are used instead are
+            return result;
+        }
+        synchronized (this) {
+            missCount++;
+        }
+        try (Stream<T> stream = result.get().getItems()) {
+            items = stream.collect(Collectors.toList());
+        }
+        size = result.get().getCount();
+        putCached(fetchKey, items, queryGeneration);
+        putCached(sizeKey, size, queryGeneration);
+        return Optional.of(new ItemsWithCount<>(items.stream(), size));
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidate();
+        super.refreshAll();
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    /**
+     * Removes all cached query results.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of queries answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of queries passed on to the wrapped data provider.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of currently cached query results.
+     *
+     * @return the number of cached results
+     */
+    public synchronized int getCachedCount() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    private List<Object> createKey(Query<T, F> query, boolean fetch) {
+        if (!fetch) {
+            // The size only depends on the filter
+            return Arrays.asList(false, query.getFilter().orElse(null));
+        }
+        List<Object> sortOrders = query.getSortOrders() == null ? null
+                : query.getSortOrders().stream()
+                        .map(order -> Arrays.asList(order.getSorted(),
+                                order.getDirection()))
+                        .collect(Collectors.toList());
+        // Components set their own in-memory sorting comparator instance,
+        // which only affects the result if the wrapped provider uses it
+        Object inMemorySorting = isInMemory() ? query.getInMemorySorting()
+                : null;
+        return Arrays.asList(true, query.getOffset(), query.getLimit(),
+                sortOrders, inMemorySorting, query.getFilter().orElse(null));
+    }
+
+    private synchronized Object getCached(List<Object> key) {
+        Object value = cache == null ? null : cache.get(key);
+        if (value == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized void putCached(List<Object> key, Object value,
+            long queryGeneration) {
+        if (queryGeneration != generation) {
+            return;
+        }
+        if (cache == null) {
+            cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, Object> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+        cache.put(key, value);
+    }
+
+    @Override
+    public String toString() {
+        return "CachingDataProvider(" + dataProvider + ')';
+    }
+}
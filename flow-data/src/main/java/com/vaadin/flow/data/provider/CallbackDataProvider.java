@@ -17,6 +17,7 @@ package com.vaadin.flow.data.provider;
 
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.function.ValueProvider;
@@ -87,9 +88,35 @@ public class CallbackDataProvider<T, F>
         int count(Query<T, F> query);
     }
 
+    /**
+     * Callback interface for fetching a stream of items and counting the
+     * number of items in a backend with one query.
+     *
+     * @param <T>
+     *            the type of the items to fetch
+     * @param <F>
+     *            the type of the optional filter in the query,
+     *            <code>Void</code> if filtering is not supported
+     */
+    @FunctionalInterface
+    public interface FetchWithCountCallback<T, F> extends Serializable {
+        /**
+         * Fetches a stream of items based on a query, like
+         * {@link FetchCallback#fetch(Query)}, and counts the number of items
+         * matching the filter of the query regardless of its paging, like
+         * {@link CountCallback#count(Query)}.
+         *
+         * @param query
+         *            the query that defines which items to fetch and count
+         * @return the fetched items and the total count
+         */
+        ItemsWithCount<T> fetchWithCount(Query<T, F> query);
+    }
+
     private final FetchCallback<T, F> fetchCallback;
     private final CountCallback<T, F> countCallback;
     private final ValueProvider<T, Object> idGetter;
+    private final FetchWithCountCallback<T, F> fetchWithCountCallback;
 
     /**
      * Constructs a new DataProvider to request data using callbacks for
@@ -123,12 +150,37 @@ public class CallbackDataProvider<T, F>
     public CallbackDataProvider(FetchCallback<T, F> fetchCallBack,
             CountCallback<T, F> countCallback,
             ValueProvider<T, Object> identifierGetter) {
+        this(fetchCallBack, countCallback, null, identifierGetter);
+    }
+
+    /**
+     * Constructs a new DataProvider to request data using callbacks for
+     * fetching and counting items in the back end, and optionally a callback
+     * for doing both in one query. The combined callback is used when both the
+     * items and their count are needed at the same time.
+     *
+     * @param fetchCallBack
+     *            function that requests data from back end based on query
+     * @param countCallback
+     *            function that returns the amount of data in back end for query
+     * @param fetchWithCountCallback
+     *            function that requests data and returns the amount of data in
+     *            back end for query, or <code>null</code> to always use the
+     *            separate callbacks
+     * @param identifierGetter
+     *            function that returns the identifier for a given item
+     */
+    public CallbackDataProvider(FetchCallback<T, F> fetchCallBack,
+            CountCallback<T, F> countCallback,
+            FetchWithCountCallback<T, F> fetchWithCountCallback,
+            ValueProvider<T, Object> identifierGetter) {
         Objects.requireNonNull(fetchCallBack, "Request function can't be null");
         Objects.requireNonNull(countCallback, "Count callback can't be null");
         Objects.requireNonNull(identifierGetter,
                 "Identifier getter function can't be null");
         this.fetchCallback = fetchCallBack;
         this.countCallback = countCallback;
+        this.fetchWithCountCallback = fetchWithCountCallback;
         this.idGetter = identifierGetter;
     }
 
@@ -142,6 +194,15 @@ public class CallbackDataProvider<T, F>
         return countCallback.count(query);
     }
 
+    @Override
+    protected Optional<ItemsWithCount<T>> fetchWithCountFromBackEnd(
+            Query<T, F> query) {
+        if (fetchWithCountCallback == null) {
+            return Optional.empty();
+        }
+        return Optional.of(fetchWithCountCallback.fetchWithCount(query));
+    }
+
     @Override
     public Object getId(T item) {
         Object itemId = idGetter.apply(item);
@@ -21,11 +21,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
@@ -41,6 +44,7 @@ import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalDataProvider;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.function.SerializableComparator;
 import com.vaadin.flow.function.SerializableConsumer;
@@ -52,6 +56,7 @@ import com.vaadin.flow.internal.NullOwner;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.shared.communication.PushMode;
 
@@ -136,8 +141,23 @@ public class DataCommunicator<T> implements Serializable {
     private boolean fetchEnabled;
 
     private transient Executor executor = null;
+    private boolean pushUpdatesWithServiceExecutor;
     private transient CompletableFuture<Activation> future;
 
+    private int readAheadPages;
+    private int readAheadDirection;
+    private transient Executor readAheadExecutor;
+    private transient Map<Integer, CompletableFuture<List<T>>> readAheadCache;
+
+    // Items fetched ahead of the current flush, with the item count or
+    // asynchronously
+    private transient List<PrefetchedItems<T>> prefetchedItems;
+
+    // Running queries of an asynchronous data provider and their result
+    private transient CompletableFuture<AsyncQueryResult<T>> asyncQuery;
+    private transient List<CompletableFuture<?>> asyncProviderQueries;
+    private transient AsyncQueryResult<T> asyncQueryResult;
+
     /**
      * In-memory data provider with no items.
      * <p>
@@ -332,7 +352,10 @@ public class DataCommunicator<T> implements Serializable {
      *            the end of the requested range
      */
     public void setRequestedRange(int start, int length) {
+        int previousStart = requestedRange.getStart();
         requestedRange = computeRequestedRange(start, length);
+        readAheadDirection = Integer
+                .signum(requestedRange.getStart() - previousStart);
         requestFlush();
     }
 
@@ -366,16 +389,93 @@ public class DataCommunicator<T> implements Serializable {
      * <p>
      * Note: This works only with Grid component. If set to true, Push needs to
      * be enabled and set to PushMode.AUTOMATIC in order this to work.
+     * <p>
+     * Use {@link #enablePushUpdates()} to use the executor provided by
+     * {@link com.vaadin.flow.server.VaadinService#getExecutor()} instead of a
+     * custom one.
      *
      * @param executor
      *            The Executor used for async updates.
      */
     public void enablePushUpdates(Executor executor) {
-        if (this.executor != null && future != null) {
+        if (future != null) {
             future.cancel(true);
             future = null;
         }
         this.executor = executor;
+        pushUpdatesWithServiceExecutor = false;
+    }
+
+    /**
+     * Makes DataCommunicator push data updates to the component asynchronously
+     * using the executor of the
+     * {@link com.vaadin.flow.server.VaadinService#getExecutor() service}, which
+     * runs the data provider queries in virtual threads where available.
+     * <p>
+     * Note: This works only with Grid component. Push needs to be enabled and
+     * set to PushMode.AUTOMATIC in order this to work.
+     *
+     * @see #enablePushUpdates(Executor)
+     */
+    public void enablePushUpdates() {
+        enablePushUpdates(null);
+        pushUpdatesWithServiceExecutor = true;
+    }
+
+    /**
+     * Sets the number of pages to fetch ahead of the requested range. The
+     * scroll direction is predicted from consecutive requested ranges, and
+     * after each update the given number of pages following the requested
+     * range in that direction are fetched asynchronously. The fetched pages
+     * are kept in a small cache and used instead of querying the data provider
+     * if a later requested range is covered by them.
+     * <p>
+     * Pages are only read ahead if paged queries are enabled. They are read
+     * with the executor set with {@link #setReadAheadExecutor(Executor)}, the
+     * one used for push updates, or by default the executor of the
+     * {@link com.vaadin.flow.server.VaadinService#getExecutor() service}. The
+     * data provider must support being queried from the executor threads,
+     * without the session lock.
+     * <p>
+     * By default it is <code>0</code>, which disables reading ahead.
+     *
+     * @param readAheadPages
+     *            the number of pages to read ahead, or <code>0</code> to
+     *            disable reading ahead
+     */
+    public void setReadAheadPages(int readAheadPages) {
+        if (readAheadPages < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Read-ahead pages cannot be negative, got %d",
+                    readAheadPages));
+        }
+        this.readAheadPages = readAheadPages;
+        clearReadAheadCache();
+    }
+
+    /**
+     * Gets the number of pages to fetch ahead of the requested range.
+     *
+     * @return the number of pages to read ahead, or <code>0</code> if reading
+     *         ahead is disabled
+     * @see #setReadAheadPages(int)
+     */
+    public int getReadAheadPages() {
+        return readAheadPages;
+    }
+
+    /**
+     * Sets the executor used to read pages ahead of the requested range.
+     * Setting to null uses the executor used for push updates if they are
+     * enabled, or otherwise the executor of the service.
+     *
+     * @param readAheadExecutor
+     *            the executor for reading ahead, or <code>null</code> to use
+     *            the default executor
+     * @see #setReadAheadPages(int)
+     */
+    public void setReadAheadExecutor(Executor readAheadExecutor) {
+        this.readAheadExecutor = readAheadExecutor;
     }
 
     /**
@@ -389,6 +489,7 @@ public class DataCommunicator<T> implements Serializable {
         resendEntireRange = true;
         dataGenerator.destroyAllData();
         updatedData.clear();
+        clearReadAheadCache();
         requestFlush();
     }
 
@@ -404,6 +505,7 @@ public class DataCommunicator<T> implements Serializable {
         getKeyMapper().refresh(data);
         dataGenerator.refreshData(data);
         updatedData.add(data);
+        clearReadAheadCache();
         requestFlushUpdatedData();
     }
 
@@ -644,6 +746,7 @@ public class DataCommunicator<T> implements Serializable {
                     "Page size cannot be less than 1, got %d", pageSize));
         }
         this.pageSize = pageSize;
+        clearReadAheadCache();
     }
 
     /**
@@ -1054,8 +1157,192 @@ public class DataCommunicator<T> implements Serializable {
         return stream.peek(verifier);
     }
 
+    /**
+     * Gets the size of the data provider and, if it supports
+     * {@link DataProvider#fetchWithCount(Query)}, fetches the first page of the
+     * requested range in the same query. The fetched items are used by the
+     * next fetch of the same range during this flush.
+     *
+     * @return the size of data provider with current filter
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private int fetchWithCount() {
+        prefetchedItems = null;
+        DataProvider<T, ?> dataProvider = getDataProvider();
+        if (countCallback != null || requestedRange.isEmpty()
+                || dataProvider.isInMemory()
+                || dataProvider instanceof HierarchicalDataProvider) {
+            return getDataProviderSize();
+        }
+        int offset = requestedRange.getStart();
+        // Same page as the first fetch of fetchFromProvider
+        int limit = pagingEnabled
+                ? Math.min(requestedRange.length(), pageSize)
+                : requestedRange.length();
+        QueryTrace query = new QueryTrace(offset, limit, backEndSorting,
+                inMemorySorting, getFilter());
+        Optional<ItemsWithCount<T>> result = ((DataProvider) dataProvider)
+                .fetchWithCount(query);
+        if (!result.isPresent()) {
+            return getDataProviderSize();
+        }
+        verifyQueryContract(query);
+        try (Stream<T> items = result.get().getItems()) {
+            prefetchedItems = Collections.singletonList(new PrefetchedItems<>(
+                    offset, limit, items.collect(Collectors.toList())));
+        }
+        return result.get().getCount();
+    }
+
+    /**
+     * Starts querying an {@link AsyncBackEndDataProvider}, or a data provider
+     * wrapping one, for the item count and the items that the next flush
+     * needs. When the queries complete, the
+     * results are stored and a new flush is requested through
+     * {@link UI#access(com.vaadin.flow.server.Command)}, which then uses them
+     * instead of querying the data provider.
+     *
+     * @return <code>true</code> if queries were started, <code>false</code> if
+     *         the flush should continue synchronously
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private boolean startAsyncQuery() {
+        UI ui = getUI();
+        DataProvider<T, ?> dataProvider = getDataProvider();
+        if (ui == null || !DataProviderWrapper.isAsync(dataProvider)
+                || dataProvider instanceof HierarchicalDataProvider) {
+            return false;
+        }
+        boolean countNeeded = definedSize && countCallback == null
+                && (resendEntireRange || sizeReset);
+        List<Range> ranges = getRangesToFetch(countNeeded);
+        if (!countNeeded && ranges.isEmpty()) {
+            return false;
+        }
+        if (ui.getPushConfiguration().getPushMode() != PushMode.AUTOMATIC) {
+            throw new IllegalStateException(
+                    "Asynchronous data providers require Push to be enabled and PushMode.AUTOMATIC");
+        }
+
+        // The futures of the data provider, to cancel them if not needed
+        List<CompletableFuture<?>> providerQueries = new ArrayList<>();
+        CompletableFuture<Integer> count;
+        if (countNeeded) {
+            count = DataProviderWrapper
+                    .sizeAsync((DataProvider) dataProvider,
+                            new Query(getFilter()))
+                    .toCompletableFuture();
+            providerQueries.add(count);
+        } else {
+            count = CompletableFuture.completedFuture(-1);
+        }
+        List<QuerySortOrder> sortOrders = new ArrayList<>(backEndSorting);
+        List<CompletableFuture<PrefetchedItems<T>>> pages = new ArrayList<>();
+        for (Range range : ranges) {
+            // Same queries as fetchFromProvider makes for the range
+            int limit = pagingEnabled && range.length() > pageSize ? pageSize
+                    : range.length();
+            for (int offset = range.getStart(); offset < range
+                    .getEnd(); offset += limit) {
+                int pageOffset = offset;
+                int pageLimit = limit;
+                QueryTrace query = new QueryTrace(offset, limit, sortOrders,
+                        inMemorySorting, getFilter());
+                CompletableFuture<Stream<T>> fetch = DataProviderWrapper
+                        .fetchAsync((DataProvider) dataProvider, query)
+                        .toCompletableFuture();
+                providerQueries.add(fetch);
+                pages.add(fetch.thenApply(stream -> {
+                    verifyQueryContract(query);
+                    try (Stream<T> items = stream) {
+                        return new PrefetchedItems<>(pageOffset, pageLimit,
+                                items.collect(Collectors.toList()));
+                    }
+                }));
+            }
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(pages);
+        all.add(count);
+        CompletableFuture<AsyncQueryResult<T>> query = CompletableFuture
+                .allOf(all.toArray(new CompletableFuture[0]))
+                .thenApply(ignore -> new AsyncQueryResult<>(count.join(),
+                        pages.stream().map(CompletableFuture::join)
+                                .collect(Collectors.toList())));
+        asyncQuery = query;
+        asyncProviderQueries = providerQueries;
+        query.whenComplete((result, error) -> ui.access(() -> {
+            if (asyncQuery != query) {
+                // Cancelled or superseded
+                return;
+            }
+            asyncQuery = null;
+            asyncProviderQueries = null;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException
+                        && error.getCause() != null ? error.getCause() : error;
+                throw cause instanceof RuntimeException
+                        ? (RuntimeException) cause
+                        : new IllegalStateException(
+                                "Asynchronous data provider query failed",
+                                cause);
+            }
+            asyncQueryResult = result;
+            requestFlush(true);
+        }));
+        return true;
+    }
+
+    /**
+     * Gets the ranges that the next flush is expected to fetch from the data
+     * provider. If the item count changes, the flush may need a range that is
+     * not included, and fetches it synchronously.
+     */
+    private List<Range> getRangesToFetch(boolean countNeeded) {
+        Range requested = requestedRange;
+        if (definedSize && !countNeeded) {
+            requested = requested.restrictTo(Range.withLength(0, assumedSize));
+        }
+        if (requested.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Range previousActive = Range.withLength(activeStart,
+                activeKeyOrder.size());
+        if (resendEntireRange || !previousActive.intersects(requested)) {
+            return Collections.singletonList(requested);
+        }
+        Range[] partition = requested.partitionWith(previousActive);
+        List<Range> ranges = new ArrayList<>(2);
+        if (!partition[0].isEmpty()) {
+            ranges.add(partition[0]);
+        }
+        if (!partition[2].isEmpty()) {
+            ranges.add(partition[2]);
+        }
+        return ranges;
+    }
+
+    private void cancelAsyncQuery() {
+        if (asyncQuery != null) {
+            // Cancelling the combined future doesn't reach the data provider
+            asyncProviderQueries.forEach(future -> future.cancel(false));
+            asyncQuery.cancel(false);
+            asyncQuery = null;
+            asyncProviderQueries = null;
+        }
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private Stream<T> doFetchFromDataProvider(int offset, int limitedTo) {
+        List<PrefetchedItems<T>> prefetched = prefetchedItems;
+        if (prefetched != null) {
+            // The range may have been cut down to the item count
+            for (PrefetchedItems<T> items : prefetched) {
+                if (items.covers(offset, limitedTo)) {
+                    return items.getItems(offset, limitedTo).stream();
+                }
+            }
+        }
         QueryTrace query = new QueryTrace(offset, limitedTo, backEndSorting,
                 inMemorySorting, getFilter());
         Stream<T> stream = getDataProvider().fetch(query);
@@ -1113,6 +1400,9 @@ public class DataCommunicator<T> implements Serializable {
             future.cancel(true);
             future = null;
         }
+        cancelAsyncQuery();
+        asyncQueryResult = null;
+        clearReadAheadCache();
         dataGenerator.destroyAllData();
         if (dataProviderUpdateRegistration != null) {
             dataProviderUpdateRegistration.remove();
@@ -1180,7 +1470,20 @@ public class DataCommunicator<T> implements Serializable {
     }
 
     private void flush() {
-        Set<String> oldActive = new HashSet<>(activeKeyOrder);
+        AsyncQueryResult<T> asyncResult = asyncQueryResult;
+        asyncQueryResult = null;
+        if (asyncResult == null) {
+            // Anything still running is for an outdated state
+            cancelAsyncQuery();
+            if (startAsyncQuery()) {
+                // Flushed again when the results are available
+                return;
+            }
+        }
+
+        // activeKeyOrder is replaced rather than modified, so the set of old
+        // keys is only needed if something has to be passivated
+        List<String> oldActive = activeKeyOrder;
 
         Range effectiveRequested;
         final Range previousActive = Range.withLength(activeStart,
@@ -1189,13 +1492,20 @@ public class DataCommunicator<T> implements Serializable {
         // Phase 1: Find all items that the client should have
 
         // With defined size the backend is only queried when necessary
-        if (definedSize && (resendEntireRange || sizeReset)) {
+        if (asyncResult != null && asyncResult.count >= 0) {
+            assumedSize = asyncResult.count;
+        } else if (definedSize && resendEntireRange) {
+            assumedSize = fetchWithCount();
+        } else if (definedSize && sizeReset) {
             assumedSize = getDataProviderSize();
         } else if (!definedSize
                 && (!skipCountIncreaseUntilReset || sizeReset)) {
             // with undefined size, size estimate is checked when scrolling down
             updateUndefinedSize();
         }
+        if (asyncResult != null) {
+            prefetchedItems = asyncResult.items;
+        }
         effectiveRequested = requestedRange
                 .restrictTo(Range.withLength(0, assumedSize));
 
@@ -1203,7 +1513,9 @@ public class DataCommunicator<T> implements Serializable {
                 || (previousActive.isEmpty() && effectiveRequested.isEmpty()));
 
         UI ui = getUI();
-        if (ui != null && executor != null) {
+        Executor pushUpdatesExecutor = ui == null ? null
+                : getPushUpdatesExecutor(ui);
+        if (pushUpdatesExecutor != null) {
             // In async mode wrap fetching data in future, collectKeysToFlush
             // will perform fetch from data provider with given range.
             if (ui.getPushConfiguration().getPushMode() != PushMode.AUTOMATIC) {
@@ -1215,7 +1527,7 @@ public class DataCommunicator<T> implements Serializable {
             }
             future = CompletableFuture
                     .supplyAsync(() -> collectKeysToFlush(previousActive,
-                            effectiveRequested), executor);
+                            effectiveRequested), pushUpdatesExecutor);
             future.thenAccept(activation -> {
                 if (ui == null) {
                     return;
@@ -1235,7 +1547,8 @@ public class DataCommunicator<T> implements Serializable {
         }
     }
 
-    private void performUpdate(Set<String> oldActive, Range effectiveRequested,
+    private void performUpdate(List<String> oldActive,
+            Range effectiveRequested,
             final Range previousActive, Activation activation) {
         // In case received less items than what was expected, adjust size
         if (activation.isSizeRecheckNeeded()) {
@@ -1290,6 +1603,8 @@ public class DataCommunicator<T> implements Serializable {
         unregisterPassivatedKeys();
 
         fireItemCountEvent(assumedSize);
+
+        readAhead(effectiveRequested);
     }
 
     /**
@@ -1353,7 +1668,7 @@ public class DataCommunicator<T> implements Serializable {
         }
     }
 
-    private void passivateInactiveKeys(Set<String> oldActive, Update update,
+    private void passivateInactiveKeys(List<String> oldActive, Update update,
             boolean updated) {
         /*
          * We cannot immediately unregister keys that we have asked the client
@@ -1366,7 +1681,9 @@ public class DataCommunicator<T> implements Serializable {
             update.commit(updateId);
 
             // Finally clear any passivated items that have now been confirmed
-            Set<String> passivatedKeys = getPassivatedKeys(oldActive);
+            Set<String> passivatedKeys = oldActive.isEmpty()
+                    ? Collections.emptySet()
+                    : getPassivatedKeys(new HashSet<>(oldActive));
             if (!passivatedKeys.isEmpty()) {
                 passivatedByUpdate.put(Integer.valueOf(updateId),
                         passivatedKeys);
@@ -1432,6 +1749,16 @@ public class DataCommunicator<T> implements Serializable {
 
     private Activation collectKeysToFlush(final Range previousActive,
             final Range effectiveRequested) {
+        try {
+            return doCollectKeysToFlush(previousActive, effectiveRequested);
+        } finally {
+            // Not needed anymore, or stale if the range turned out empty
+            prefetchedItems = null;
+        }
+    }
+
+    private Activation doCollectKeysToFlush(final Range previousActive,
+            final Range effectiveRequested) {
         /*
          * Collecting all items even though only some small sub range would
          * actually be useful can be optimized away once we have some actual
@@ -1495,16 +1822,21 @@ public class DataCommunicator<T> implements Serializable {
 
         // XXX Explicitly refresh anything that is updated
         List<String> activeKeys = new ArrayList<>(range.length());
-        try (Stream<T> stream = fetchFromProvider(range.getStart(),
-                range.length())) {
+        List<T> readAheadItems = getReadAheadItems(range.getStart(),
+                range.length());
+        try (Stream<T> stream = readAheadItems != null
+                ? readAheadItems.stream()
+                : fetchFromProvider(range.getStart(), range.length())) {
             stream.forEach(bean -> {
                 boolean mapperHasKey = keyMapper.has(bean);
                 String key = keyMapper.key(bean);
                 if (mapperHasKey) {
                     // Ensure latest instance from provider is used
                     keyMapper.refresh(bean);
-                    passivatedByUpdate.values().stream()
-                            .forEach(set -> set.remove(key));
+                    for (Set<String> passivated : passivatedByUpdate
+                            .values()) {
+                        passivated.remove(key);
+                    }
                 }
                 activeKeys.add(key);
             });
@@ -1513,6 +1845,145 @@ public class DataCommunicator<T> implements Serializable {
         return new Activation(activeKeys, needsSizeRecheck);
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void readAhead(Range effectiveRequested) {
+        if (readAheadPages == 0 || readAheadDirection == 0 || !pagingEnabled
+                || !fetchEnabled || effectiveRequested.isEmpty()) {
+            return;
+        }
+        Executor readAheadExecutor = getReadAheadExecutor();
+        if (readAheadExecutor == null) {
+            return;
+        }
+        int firstPage = effectiveRequested.getStart() / pageSize;
+        int lastPage = (effectiveRequested.getEnd() - 1) / pageSize;
+        Map<Integer, CompletableFuture<List<T>>> cache = getReadAheadCache();
+        // The queries are built here, while the session is locked, since the
+        // state of the communicator must not be read from the executor
+        DataProvider<T, ?> dataProvider = getDataProvider();
+        List<QuerySortOrder> sortOrders = new ArrayList<>(backEndSorting);
+        Object filterObject = getFilter();
+        int limit = pageSize;
+
+        for (int i = 1; i <= readAheadPages; i++) {
+            int page = readAheadDirection > 0 ? lastPage + i : firstPage - i;
+            if (page < 0 || (definedSize && page * pageSize >= assumedSize)) {
+                break;
+            }
+            synchronized (cache) {
+                if (cache.containsKey(page)) {
+                    continue;
+                }
+                QueryTrace query = new QueryTrace(page * limit, limit,
+                        sortOrders, inMemorySorting, filterObject);
+                CompletableFuture<List<T>> pageFuture = CompletableFuture
+                        .supplyAsync(
+                                () -> fetchPage(dataProvider, query, limit),
+                                readAheadExecutor);
+                pageFuture.whenComplete((items, error) -> {
+                    if (error != null) {
+                        // Thrown when the page is used
+                        getLogger().debug("Reading page {} ahead failed", page,
+                                error);
+                    }
+                });
+                cache.put(page, pageFuture);
+            }
+        }
+    }
+
+    /**
+     * Fetches a page read ahead with a query built beforehand, without reading
+     * the state of this communicator.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private List<T> fetchPage(DataProvider dataProvider, QueryTrace query,
+            int limit) {
+        try (Stream<T> stream = dataProvider.fetch(query)) {
+            verifyQueryContract(query);
+            return stream.peek(new SizeVerifier<>(limit))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Gets the items for a fetch from the pages read ahead, if they cover the
+     * fetch. Returns as many items as {@link #fetchFromProvider(int, int)}
+     * would. The used pages are dropped, so that items are read again from
+     * the data provider after they have been sent once. If reading a used
+     * page failed, the failure is thrown like a failure of a fetch from the
+     * data provider.
+     */
+    private List<T> getReadAheadItems(int offset, int limit) {
+        Map<Integer, CompletableFuture<List<T>>> cache = readAheadCache;
+        if (cache == null || !pagingEnabled) {
+            return null;
+        }
+        int count = limit > pageSize ? ((limit - 1) / pageSize + 1) * pageSize
+                : limit;
+        List<T> items = new ArrayList<>(count);
+        List<Integer> usedPages = new ArrayList<>();
+        int index = offset;
+        while (items.size() < count) {
+            CompletableFuture<List<T>> pageFuture;
+            synchronized (cache) {
+                pageFuture = cache.get(index / pageSize);
+            }
+            if (pageFuture == null || !pageFuture.isDone()
+                    || pageFuture.isCancelled()) {
+                return null;
+            }
+            if (pageFuture.isCompletedExceptionally()) {
+                synchronized (cache) {
+                    cache.remove(index / pageSize);
+                }
+            }
+            List<T> page = AbstractAsyncBackEndDataProvider.join(pageFuture);
+            usedPages.add(index / pageSize);
+            int from = index % pageSize;
+            int to = Math.min(page.size(), from + count - items.size());
+            if (from < to) {
+                items.addAll(page.subList(from, to));
+                index += to - from;
+            }
+            if (to == page.size() && page.size() < pageSize) {
+                // Reached the end of the data
+                break;
+            }
+        }
+        synchronized (cache) {
+            usedPages.forEach(cache::remove);
+        }
+        return items;
+    }
+
+    private Map<Integer, CompletableFuture<List<T>>> getReadAheadCache() {
+        if (readAheadCache == null) {
+            readAheadCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Integer, CompletableFuture<List<T>>> eldest) {
+                    if (size() > 2 * readAheadPages) {
+                        eldest.getValue().cancel(true);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+        return readAheadCache;
+    }
+
+    private void clearReadAheadCache() {
+        Map<Integer, CompletableFuture<List<T>>> cache = readAheadCache;
+        if (cache != null) {
+            synchronized (cache) {
+                cache.values().forEach(pageFuture -> pageFuture.cancel(true));
+                cache.clear();
+            }
+        }
+    }
+
     private JsonValue generateJson(T item) {
         JsonObject json = Json.createObject();
         json.put("key", getKeyMapper().key(item));
@@ -1538,6 +2009,68 @@ public class DataCommunicator<T> implements Serializable {
         return null;
     }
 
+    private Executor getPushUpdatesExecutor(UI ui) {
+        if (executor != null || !pushUpdatesWithServiceExecutor) {
+            return executor;
+        }
+        return getServiceExecutor(ui);
+    }
+
+    private Executor getReadAheadExecutor() {
+        if (readAheadExecutor != null) {
+            return readAheadExecutor;
+        }
+        UI ui = getUI();
+        if (ui == null) {
+            return executor;
+        }
+        Executor pushUpdatesExecutor = getPushUpdatesExecutor(ui);
+        return pushUpdatesExecutor != null ? pushUpdatesExecutor
+                : getServiceExecutor(ui);
+    }
+
+    private static Executor getServiceExecutor(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session == null || session.getService() == null) {
+            return null;
+        }
+        return session.getService().getExecutor();
+    }
+
+    private static class PrefetchedItems<T> {
+        private final int offset;
+        private final int limit;
+        private final List<T> items;
+
+        private PrefetchedItems(int offset, int limit, List<T> items) {
+            this.offset = offset;
+            this.limit = limit;
+            this.items = items;
+        }
+
+        private boolean covers(int offset, int limit) {
+            return offset >= this.offset
+                    && offset + limit <= this.offset + this.limit;
+        }
+
+        private List<T> getItems(int offset, int limit) {
+            int start = Math.min(offset - this.offset, items.size());
+            return items.subList(start,
+                    Math.min(start + limit, items.size()));
+        }
+    }
+
+    private static class AsyncQueryResult<T> {
+        // -1 if not counted
+        private final int count;
+        private final List<PrefetchedItems<T>> items;
+
+        private AsyncQueryResult(int count, List<PrefetchedItems<T>> items) {
+            this.count = count;
+            this.items = items;
+        }
+    }
+
     private static class Activation implements Serializable {
         private final List<String> activeKeys;
         private final boolean sizeRecheckNeeded;
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -90,6 +91,28 @@ public interface DataProvider<T, F> extends Serializable {
      */
     Stream<T> fetch(Query<T, F> query);
 
+    /**
+     * Fetches the items for the given query and counts the total number of
+     * items matching its filter in one back end query, for example with a
+     * window function in SQL. This saves a round-trip when both are needed,
+     * as when a component shows a defined number of items and its data is
+     * reset.
+     * <p>
+     * The default implementation returns an empty optional, in which case
+     * {@link #fetch(Query)} and {@link #size(Query)} are used separately.
+     * Data providers wrapping another data provider should forward the query
+     * to the wrapped data provider.
+     *
+     * @param query
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the items, and filtering for counting them
+     * @return the fetched items and the total count, or an empty optional if
+     *         combined queries are not supported
+     */
+    default Optional<ItemsWithCount<T>> fetchWithCount(Query<T, F> query) {
+        return Optional.empty();
+    }
+
     /**
      * Refreshes the given item. This method should be used to inform all
      * {@link DataProviderListener DataProviderListeners} that an item has been
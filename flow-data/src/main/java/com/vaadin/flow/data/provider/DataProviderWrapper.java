@@ -16,6 +16,8 @@
 package com.vaadin.flow.data.provider;
 
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.shared.Registration;
@@ -101,6 +103,107 @@ public abstract class DataProviderWrapper<T, F, M>
                 t.getSortOrders(), t.getInMemorySorting(), getFilter(t)));
     }
 
+    @Override
+    public Optional<ItemsWithCount<T>> fetchWithCount(Query<T, F> t) {
+        return dataProvider.fetchWithCount(new Query<>(t.getOffset(),
+                t.getLimit(), t.getSortOrders(), t.getInMemorySorting(),
+                getFilter(t)));
+    }
+
+    /**
+     * Fetches data asynchronously from the wrapped data provider, which must
+     * support asynchronous queries.
+     *
+     * @param t
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the data
+     * @return a stage completed with a stream of items matching the query
+     * @see #isAsync(DataProvider)
+     */
+    CompletionStage<Stream<T>> fetchAsync(Query<T, F> t) {
+        return fetchAsync(dataProvider, new Query<>(t.getOffset(),
+                t.getLimit(), t.getSortOrders(), t.getInMemorySorting(),
+                getFilter(t)));
+    }
+
+    /**
+     * Gets the number of items asynchronously from the wrapped data provider,
+     * which must support asynchronous queries.
+     *
+     * @param t
+     *            the query that defines filtering to be used for counting the
+     *            number of items
+     * @return a stage completed with the number of available items
+     * @see #isAsync(DataProvider)
+     */
+    CompletionStage<Integer> sizeAsync(Query<T, F> t) {
+        return sizeAsync(dataProvider, new Query<>(t.getOffset(),
+                t.getLimit(), t.getSortOrders(), t.getInMemorySorting(),
+                getFilter(t)));
+    }
+
+    /**
+     * Checks whether the given data provider supports asynchronous queries,
+     * either by being an {@link AsyncBackEndDataProvider} or by wrapping one.
+     *
+     * @param dataProvider
+     *            the data provider to check
+     * @return <code>true</code> if the data provider can be queried using
+     *         {@link #fetchAsync(DataProvider, Query)} and
+     *         {@link #sizeAsync(DataProvider, Query)}, <code>false</code>
+     *         otherwise
+     */
+    static boolean isAsync(DataProvider<?, ?> dataProvider) {
+        return dataProvider instanceof AsyncBackEndDataProvider
+                || dataProvider instanceof DataProviderWrapper
+                        && isAsync(((DataProviderWrapper<?, ?, ?>) dataProvider)
+                                .getWrappedDataProvider());
+    }
+
+    /**
+     * Fetches data asynchronously from a data provider that supports
+     * asynchronous queries.
+     *
+     * @param dataProvider
+     *            the data provider to query
+     * @param query
+     *            the query that defines sorting, filtering and paging for
+     *            fetching the data
+     * @return a stage completed with a stream of items matching the query
+     * @see #isAsync(DataProvider)
+     */
+    @SuppressWarnings("unchecked")
+    static <T, F> CompletionStage<Stream<T>> fetchAsync(
+            DataProvider<T, F> dataProvider, Query<T, F> query) {
+        if (dataProvider instanceof AsyncBackEndDataProvider) {
+            return ((AsyncBackEndDataProvider<T, F>) dataProvider)
+                    .fetchAsync(query);
+        }
+        return ((DataProviderWrapper<T, F, ?>) dataProvider).fetchAsync(query);
+    }
+
+    /**
+     * Gets the number of items asynchronously from a data provider that
+     * supports asynchronous queries.
+     *
+     * @param dataProvider
+     *            the data provider to query
+     * @param query
+     *            the query that defines filtering to be used for counting the
+     *            number of items
+     * @return a stage completed with the number of available items
+     * @see #isAsync(DataProvider)
+     */
+    @SuppressWarnings("unchecked")
+    static <T, F> CompletionStage<Integer> sizeAsync(
+            DataProvider<T, F> dataProvider, Query<T, F> query) {
+        if (dataProvider instanceof AsyncBackEndDataProvider) {
+            return ((AsyncBackEndDataProvider<T, F>) dataProvider)
+                    .sizeAsync(query);
+        }
+        return ((DataProviderWrapper<T, F, ?>) dataProvider).sizeAsync(query);
+    }
+
     /**
      * Gets the filter that should be used in the modified Query.
      *
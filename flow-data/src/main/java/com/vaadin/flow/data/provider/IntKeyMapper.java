@@ -0,0 +1,349 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.Arrays;
+
+import com.vaadin.flow.function.ValueProvider;
+
+/**
+ * Two-way map between objects and textual keys, like {@link KeyMapper}, that
+ * stores the keys as ints in open addressing hash tables instead of hash maps.
+ * Mapping and unmapping an object does not allocate anything apart from the
+ * key string of a new object, which makes it suitable for components that
+ * scroll through large amounts of items.
+ * <p>
+ * The keys are the same increasing decimal numbers as generated by
+ * {@link KeyMapper}, so the mappers can be used interchangeably towards the
+ * client. Unlike {@link KeyMapper}, the key generation cannot be customized.
+ * <p>
+ * {@link DataCommunicator} uses {@link KeyMapper} by default. A subclass can
+ * opt in to this mapper with {@link DataCommunicator#setKeyMapper}.
+ *
+ * @param <V>
+ *            the type of mapped objects
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class IntKeyMapper<V> implements DataKeyMapper<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Stands in for a <code>null</code> identifier, since <code>null</code>
+     * marks a free slot. An enum so that it stays the same instance when
+     * deserialized.
+     */
+    private enum NullId {
+        INSTANCE
+    }
+
+    private int lastKey = 0;
+
+    private int size = 0;
+
+    // Identifier to key table, a null identifier marks a free slot
+    private Object[] ids = new Object[INITIAL_CAPACITY];
+    private int[] idKeys = new int[INITIAL_CAPACITY];
+    private String[] idKeyStrings = new String[INITIAL_CAPACITY];
+
+    // Key to object table, key 0 marks a free slot since keys start from 1
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    private ValueProvider<V, Object> identifierGetter;
+
+    /**
+     * Constructs a new mapper.
+     *
+     * @param identifierGetter
+     *            has to return a unique key for every bean, and the returned
+     *            key has to follow general {@code hashCode()} and
+     *            {@code equals()} contract, see {@link Object#hashCode()} for
+     *            details.
+     */
+    public IntKeyMapper(ValueProvider<V, Object> identifierGetter) {
+        this.identifierGetter = identifierGetter;
+    }
+
+    /**
+     * Constructs a new mapper with trivial {@code identifierGetter}
+     */
+    public IntKeyMapper() {
+        this(v -> v);
+    }
+
+    @Override
+    public String key(V o) {
+        if (o == null) {
+            return "null";
+        }
+
+        // If the object is already mapped, use existing key
+        Object id = getId(o);
+        int slot = findId(id);
+        if (slot >= 0) {
+            return idKeyStrings[slot];
+        }
+
+        // If the object is not yet mapped, map it
+        if ((size + 1) * 2 > ids.length) {
+            resize(ids.length * 2);
+            slot = findId(id);
+        }
+        int key = ++lastKey;
+        String keyString = String.valueOf(key);
+        slot = -slot - 1;
+        ids[slot] = id;
+        idKeys[slot] = key;
+        idKeyStrings[slot] = keyString;
+        int keySlot = -findKey(key) - 1;
+        keys[keySlot] = key;
+        values[keySlot] = o;
+        size++;
+
+        return keyString;
+    }
+
+    @Override
+    public boolean has(V o) {
+        return findId(getId(o)) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        int keySlot = findKey(key);
+        return keySlot >= 0 ? (V) values[keySlot] : null;
+    }
+
+    @Override
+    public void remove(V removeobj) {
+        int slot = findId(getId(removeobj));
+        if (slot >= 0) {
+            int keySlot = findKey(idKeys[slot]);
+            removeIdAt(slot);
+            removeKeyAt(keySlot);
+            size--;
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        size = 0;
+        if (ids.length > INITIAL_CAPACITY) {
+            ids = new Object[INITIAL_CAPACITY];
+            idKeys = new int[INITIAL_CAPACITY];
+            idKeyStrings = new String[INITIAL_CAPACITY];
+            keys = new int[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else {
+            Arrays.fill(ids, null);
+            Arrays.fill(idKeys, 0);
+            Arrays.fill(idKeyStrings, null);
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+        }
+    }
+
+    /**
+     * Checks if the given key is mapped to an object.
+     *
+     * @param key
+     *            the key to check
+     * @return <code>true</code> if the key is currently mapped,
+     *         <code>false</code> otherwise
+     */
+    public boolean containsKey(String key) {
+        return findKey(key) >= 0;
+    }
+
+    /**
+     * Gets the number of mapped objects.
+     *
+     * @return the number of mapped objects
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void refresh(V dataObject) {
+        int slot = findId(getId(dataObject));
+        if (slot >= 0) {
+            values[findKey(idKeys[slot])] = dataObject;
+        }
+    }
+
+    @Override
+    public void setIdentifierGetter(ValueProvider<V, Object> identifierGetter) {
+        if (this.identifierGetter != identifierGetter) {
+            this.identifierGetter = identifierGetter;
+            rehashIds(ids.length);
+        }
+    }
+
+    private Object getId(V o) {
+        Object id = identifierGetter.apply(o);
+        return id == null ? NullId.INSTANCE : id;
+    }
+
+    /**
+     * Finds the slot of the given identifier, or if not found, returns
+     * <code>-(insertion slot) - 1</code>.
+     */
+    private int findId(Object id) {
+        int mask = ids.length - 1;
+        int slot = hash(id.hashCode()) & mask;
+        while (ids[slot] != null) {
+            if (ids[slot].equals(id)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Finds the slot of the given key, or if not found, returns
+     * <code>-(insertion slot) - 1</code>.
+     */
+    private int findKey(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private int findKey(String key) {
+        int parsed = parseKey(key);
+        return parsed > 0 ? findKey(parsed) : -1;
+    }
+
+    /**
+     * Parses a key generated by this mapper without allocating, returning 0
+     * for anything that cannot be such a key, like "01" or "null".
+     */
+    private static int parseKey(String key) {
+        if (key == null || key.isEmpty() || key.length() > 10
+                || key.charAt(0) == '0') {
+            return 0;
+        }
+        long value = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? 0 : (int) value;
+    }
+
+    private void removeIdAt(int slot) {
+        // Shift back entries that would not be found after the removal
+        int mask = ids.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (ids[next] != null) {
+            int home = hash(ids[next].hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                ids[free] = ids[next];
+                idKeys[free] = idKeys[next];
+                idKeyStrings[free] = idKeyStrings[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        ids[free] = null;
+        idKeys[free] = 0;
+        idKeyStrings[free] = null;
+    }
+
+    private void removeKeyAt(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (keys[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = 0;
+        values[free] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int keySlot = -findKey(oldKeys[i]) - 1;
+                keys[keySlot] = oldKeys[i];
+                values[keySlot] = oldValues[i];
+            }
+        }
+        rehashIds(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehashIds(int capacity) {
+        int[] oldIdKeys = idKeys;
+        String[] oldIdKeyStrings = idKeyStrings;
+        ids = new Object[capacity];
+        idKeys = new int[capacity];
+        idKeyStrings = new String[capacity];
+        for (int i = 0; i < oldIdKeys.length; i++) {
+            if (oldIdKeys[i] != 0) {
+                Object id = getId((V) values[findKey(oldIdKeys[i])]);
+                int slot = findId(id);
+                if (slot < 0) {
+                    slot = -slot - 1;
+                } else {
+                    // Two objects have the same new identifier, the most
+                    // recently mapped one wins and the key of the other one
+                    // is dropped
+                    int droppedKey = Math.min(idKeys[slot], oldIdKeys[i]);
+                    removeKeyAt(findKey(droppedKey));
+                    size--;
+                    if (droppedKey == oldIdKeys[i]) {
+                        continue;
+                    }
+                }
+                ids[slot] = id;
+                idKeys[slot] = oldIdKeys[i];
+                idKeyStrings[slot] = oldIdKeyStrings[i];
+            }
+        }
+    }
+
+    private static int hash(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The items fetched for a query together with the total number of items
+ * matching the filter of the query, as returned by
+ * {@link DataProvider#fetchWithCount(Query)}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ *
+ * @param <T>
+ *            the type of the items
+ */
+public final class ItemsWithCount<T> {
+
+    private final Stream<T> items;
+
+    private final int count;
+
+    /**
+     * Creates a new result of a combined fetch and count query.
+     *
+     * @param items
+     *            the items fetched for the offset and limit of the query, not
+     *            <code>null</code>
+     * @param count
+     *            the total number of items matching the filter of the query
+     */
+    public ItemsWithCount(Stream<T> items, int count) {
+        this.items = Objects.requireNonNull(items, "Items cannot be null");
+        if (count < 0) {
+            throw new IllegalArgumentException(String
+                    .format("Count cannot be negative, got %d", count));
+        }
+        this.count = count;
+    }
+
+    /**
+     * Gets the items fetched for the offset and limit of the query.
+     *
+     * @return a stream of the fetched items
+     */
+    public Stream<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the total number of items matching the filter of the query,
+     * regardless of its offset and limit.
+     *
+     * @return the total number of items
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -15,10 +15,15 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.function.SerializableComparator;
@@ -41,6 +46,81 @@ public class ListDataProvider<T>
 
     private final Collection<T> backend;
 
+    private boolean materializedViewEnabled;
+
+    private int parallelThreshold;
+
+    // Guarded by this, since a data provider can be shared between sessions
+    private transient MaterializedView<T> materializedView;
+
+    // Incremented whenever the materialized view is discarded, guarded by this
+    private transient int materializedViewDiscards;
+
+    /**
+     * The filtered and sorted items for one combination of filters and sort
+     * comparators, so that consecutive page fetches and size queries do not
+     * need to filter and sort the whole backing collection again.
+     */
+    private static class MaterializedView<T> {
+        private final SerializablePredicate<T> filter;
+        private final SerializablePredicate<T> queryFilter;
+        private final Comparator<T> inMemorySorting;
+        private final SerializableComparator<T> sortOrder;
+        private final Comparator<T> comparator;
+        private final List<T> items;
+        private int backendSize;
+
+        private MaterializedView(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter,
+                Comparator<T> inMemorySorting,
+                SerializableComparator<T> sortOrder, List<T> items,
+                int backendSize, boolean parallel) {
+            this.filter = filter;
+            this.queryFilter = queryFilter;
+            this.inMemorySorting = inMemorySorting;
+            this.sortOrder = sortOrder;
+            this.comparator = combine(inMemorySorting, sortOrder);
+            this.items = items;
+            this.backendSize = backendSize;
+            if (comparator != null && parallel) {
+                sortInParallel(items, comparator);
+            } else if (comparator != null) {
+                items.sort(comparator);
+            }
+        }
+
+        private boolean test(T item) {
+            return (filter == null || filter.test(item))
+                    && (queryFilter == null || queryFilter.test(item));
+        }
+
+        private boolean isSorted() {
+            return comparator != null;
+        }
+
+        private void insert(T item) {
+            if (!test(item)) {
+                return;
+            }
+            if (isSorted()) {
+                int index = Collections.binarySearch(items, item, comparator);
+                // Place the item after any equal items, like a stable sort
+                // of an appended item would
+                if (index >= 0) {
+                    while (index < items.size() && comparator
+                            .compare(items.get(index), item) == 0) {
+                        index++;
+                    }
+                } else {
+                    index = -index - 1;
+                }
+                items.add(index, item);
+            } else {
+                items.add(item);
+            }
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
@@ -66,30 +146,307 @@ public class ListDataProvider<T>
         return backend;
     }
 
+    /**
+     * Sets whether the filtered and sorted items should be kept in a
+     * materialized view between queries. When enabled, consecutive page
+     * fetches and size queries with the same filters and sort comparators only
+     * read from the view instead of filtering and sorting the whole backing
+     * collection again.
+     * <p>
+     * The view is discarded on {@link #refreshAll()} and updated for the
+     * refreshed item on {@link #refreshItem(Object)}. Changes made directly to
+     * the backing collection are only noticed if they change its size, so
+     * {@link #refreshAll()} must be called after any other modification, as
+     * well as whenever the outcome of a filter or comparator changes without
+     * the filter or comparator instance changing.
+     * <p>
+     * The view is guarded by this data provider instance, so that the data
+     * provider can be shared between sessions. Queries from different threads
+     * are then served from the view one at a time.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @param materializedViewEnabled
+     *            <code>true</code> to keep a materialized view of the items,
+     *            <code>false</code> to filter and sort the backing collection
+     *            for every query
+     */
+    public void setMaterializedViewEnabled(boolean materializedViewEnabled) {
+        this.materializedViewEnabled = materializedViewEnabled;
+        discardMaterializedView();
+    }
+
+    /**
+     * Gets whether the filtered and sorted items are kept in a materialized
+     * view between queries.
+     *
+     * @return <code>true</code> if a materialized view is used,
+     *         <code>false</code> otherwise
+     * @see #setMaterializedViewEnabled(boolean)
+     */
+    public boolean isMaterializedViewEnabled() {
+        return materializedViewEnabled;
+    }
+
+    /**
+     * Sets the number of items in the backing collection from which on the
+     * items are filtered and sorted in parallel. The work is run in the
+     * common fork-join pool.
+     * <p>
+     * Only enable this if the filters and comparators are thread safe and do
+     * not depend on thread local state such as the current UI or session. The
+     * results are the same as when filtering and sorting sequentially.
+     * <p>
+     * By default it is <code>0</code>, which means that the items are never
+     * processed in parallel.
+     *
+     * @param parallelThreshold
+     *            the minimum number of items for parallel processing, or
+     *            <code>0</code> to always process the items sequentially
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException(
+                    "Parallel threshold cannot be negative");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Gets the number of items in the backing collection from which on the
+     * items are filtered and sorted in parallel.
+     *
+     * @return the minimum number of items for parallel processing, or
+     *         <code>0</code> if the items are always processed sequentially
+     * @see #setParallelThreshold(int)
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
+        if (materializedViewEnabled) {
+            synchronized (this) {
+                List<T> items = getMaterializedView(query, true).items;
+                int from = Math.min(query.getOffset(), items.size());
+                int to = (int) Math.min((long) from + query.getLimit(),
+                        items.size());
+                return new ArrayList<>(items.subList(from, to)).stream();
+            }
+        }
+
         Stream<T> stream = getFilteredStream(query);
 
-        Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(Objects::nonNull)
-                .reduce((c1, c2) -> c1.thenComparing(c2));
+        Comparator<T> comparing = combine(query.getInMemorySorting(),
+                sortOrder);
 
-        if (comparing.isPresent()) {
-            stream = stream.sorted(comparing.get());
+        if (comparing != null) {
+            stream = stream.sorted(comparing);
         }
 
-        return stream.skip(query.getOffset()).limit(query.getLimit());
+        stream = stream.skip(query.getOffset()).limit(query.getLimit());
+        if (stream.isParallel()) {
+            // Collected here so that the operations of the caller on the
+            // returned stream are not run in parallel
+            return stream.collect(Collectors.toList()).stream();
+        }
+        return stream;
     }
 
     @Override
     public int size(Query<T, SerializablePredicate<T>> query) {
+        if (materializedViewEnabled) {
+            synchronized (this) {
+                return getMaterializedView(query, false).items.size();
+            }
+        }
         return (int) getFilteredStream(query).count();
     }
 
+    @Override
+    public void refreshAll() {
+        discardMaterializedView();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item, boolean refreshChildren) {
+        updateMaterializedView(item);
+        super.refreshItem(item, refreshChildren);
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        updateMaterializedView(item);
+        super.refreshItem(item);
+    }
+
+    /**
+     * Notifies listeners that the given item has been appended to the backing
+     * collection, updating the materialized view for it instead of discarding
+     * the view.
+     *
+     * @param item
+     *            the added item
+     */
+    void refreshAdded(T item) {
+        MaterializedView<T> view;
+        int discards;
+        synchronized (this) {
+            view = materializedView;
+            discards = materializedViewDiscards;
+            if (view != null && (view.isSorted() || backend instanceof List)) {
+                view.insert(item);
+                view.backendSize = backend.size();
+            } else {
+                // The position of the item in the iteration order is unknown
+                view = null;
+            }
+        }
+        refreshAll();
+        keepMaterializedView(view, discards);
+    }
+
+    /**
+     * Notifies listeners that the given item has been removed from the backing
+     * collection, updating the materialized view for it instead of discarding
+     * the view.
+     *
+     * @param item
+     *            the removed item
+     */
+    void refreshRemoved(T item) {
+        MaterializedView<T> view;
+        int discards;
+        synchronized (this) {
+            view = materializedView;
+            discards = materializedViewDiscards;
+            int index = view == null ? -1 : indexOf(view, item);
+            if (index >= 0 || (view != null && !view.test(item))) {
+                if (index >= 0) {
+                    view.items.remove(index);
+                }
+                view.backendSize = backend.size();
+            } else {
+                // No view, or the item is identified differently than by the
+                // data view
+                view = null;
+            }
+        }
+        refreshAll();
+        keepMaterializedView(view, discards);
+    }
+
+    private synchronized void discardMaterializedView() {
+        materializedView = null;
+        materializedViewDiscards++;
+    }
+
+    /**
+     * Restores an updated view after {@link #refreshAll()}, which may be
+     * overridden, has discarded it, unless the view has been discarded or
+     * replaced more than once in the meantime.
+     */
+    private synchronized void keepMaterializedView(MaterializedView<T> view,
+            int discards) {
+        if (view != null && materializedView == null
+                && materializedViewDiscards == discards + 1) {
+            materializedView = view;
+        }
+    }
+
+    private synchronized void updateMaterializedView(T item) {
+        MaterializedView<T> view = materializedView;
+        if (view == null) {
+            return;
+        }
+        int index = indexOf(view, item);
+        if (view.isSorted()) {
+            if (index >= 0) {
+                view.items.remove(index);
+            }
+            view.insert(item);
+        } else if (index >= 0 && view.test(item)) {
+            view.items.set(index, item);
+        } else if (index >= 0 || view.test(item)) {
+            // The position of the item in the backing collection is unknown
+            discardMaterializedView();
+        }
+    }
+
+    private int indexOf(MaterializedView<T> view, T item) {
+        Object id = getId(item);
+        for (int i = 0; i < view.items.size(); i++) {
+            if (Objects.equals(id, getId(view.items.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private MaterializedView<T> getMaterializedView(
+            Query<T, SerializablePredicate<T>> query, boolean sorted) {
+        SerializablePredicate<T> queryFilter = query.getFilter().orElse(null);
+        MaterializedView<T> view = materializedView;
+        boolean sameFilters = view != null
+                && view.backendSize == backend.size() && view.filter == filter
+                && view.queryFilter == queryFilter;
+        boolean sameSorting = sameFilters
+                && view.inMemorySorting == query.getInMemorySorting()
+                && view.sortOrder == sortOrder;
+
+        if (sameSorting || (sameFilters && !sorted)) {
+            return view;
+        }
+
+        List<T> items;
+        if (sameFilters && !view.isSorted()) {
+            // Items are already filtered and in backend order. Copied so
+            // that the previous view is never sorted in place.
+            items = new ArrayList<>(view.items);
+        } else {
+            items = getFilteredStream(query)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        if (sorted) {
+            view = new MaterializedView<>(filter, queryFilter,
+                    query.getInMemorySorting(), sortOrder, items,
+                    backend.size(), isParallel());
+        } else {
+            view = new MaterializedView<>(filter, queryFilter, null, null,
+                    items, backend.size(), false);
+        }
+        materializedView = view;
+        return view;
+    }
+
+    private boolean isParallel() {
+        return parallelThreshold > 0 && backend.size() >= parallelThreshold;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void sortInParallel(List<T> items,
+            Comparator<T> comparator) {
+        T[] array = (T[]) items.toArray();
+        Arrays.parallelSort(array, comparator);
+        ListIterator<T> iterator = items.listIterator();
+        for (T item : array) {
+            iterator.next();
+            iterator.set(item);
+        }
+    }
+
+    private static <T> Comparator<T> combine(Comparator<T> inMemorySorting,
+            Comparator<T> sortOrder) {
+        return Stream.of(inMemorySorting, sortOrder).filter(Objects::nonNull)
+                .reduce((c1, c2) -> c1.thenComparing(c2)).orElse(null);
+    }
+
     private Stream<T> getFilteredStream(
             Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = backend.stream();
+        Stream<T> stream = isParallel() ? backend.parallelStream()
+                : backend.stream();
 
         // Apply our own filters first so that query filters never see the items
         // that would already have been filtered out
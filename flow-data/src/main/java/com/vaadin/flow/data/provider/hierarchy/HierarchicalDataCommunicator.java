@@ -63,6 +63,7 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
     private final HierarchicalArrayUpdater arrayUpdater;
     private final StateNode stateNode;
     private HierarchyMapper<T, ?> mapper;
+    private boolean childCountCaching;
     private DataGenerator<T> dataGenerator;
     private final SerializableSupplier<ValueProvider<T, String>> uniqueKeyProviderSupplier;
 
@@ -127,6 +128,10 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
      */
     @Override
     public void reset() {
+        if (mapper != null) {
+            mapper.invalidateIndex();
+            mapper.invalidateChildCounts();
+        }
         super.reset();
 
         if (!dataControllers.isEmpty()) {
@@ -158,8 +163,11 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
     @Override
     protected void handleDataRefreshEvent(
             DataChangeEvent.DataRefreshEvent<T> event) {
+        // The item may have been moved or removed as well
+        mapper.invalidateIndex();
         if (event.isRefreshChildren()) {
             T item = event.getItem();
+            mapper.invalidateChildCount(item);
             if (isExpanded(item)) {
                 String parentKey = getKeyMapper().key(item);
 
@@ -230,6 +238,7 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
             mapper.destroyAllData();
         }
         mapper = createHierarchyMapper(dataProvider);
+        mapper.setChildCountCaching(childCountCaching);
 
         SerializableConsumer<F> consumer = super.setDataProvider(dataProvider,
                 initialFilter);
@@ -528,6 +537,41 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
         return mapper.hasExpandedItems();
     }
 
+    /**
+     * Enables or disables caching of child counts. When enabled, the number of
+     * children of the root and of each expanded item is counted once and
+     * cached instead of being counted on every update. This saves count
+     * queries with a data provider backed by a database when many items are
+     * expanded. The children themselves are fetched as without caching.
+     * <p>
+     * The cached count of an item is discarded when the item is refreshed with
+     * {@link DataProvider#refreshItem(Object, boolean)} with
+     * {@code refreshChildren} set to {@code true}, and all counts are discarded
+     * on {@link DataProvider#refreshAll()} and when the filter changes.
+     * Children added or removed in the back end without such a refresh are not
+     * counted. Disabled by default.
+     *
+     * @param childCountCaching
+     *            {@code true} to cache child counts, {@code false} to count
+     *            children on every update
+     */
+    public void setChildCountCaching(boolean childCountCaching) {
+        this.childCountCaching = childCountCaching;
+        if (mapper != null) {
+            mapper.setChildCountCaching(childCountCaching);
+        }
+    }
+
+    /**
+     * Returns whether caching of child counts is enabled.
+     *
+     * @return {@code true} if child counts are cached, {@code false} if not
+     * @see #setChildCountCaching(boolean)
+     */
+    public boolean isChildCountCaching() {
+        return childCountCaching;
+    }
+
     /**
      * Returns the {@code HierarchyMapper} used by this data communicator.
      *
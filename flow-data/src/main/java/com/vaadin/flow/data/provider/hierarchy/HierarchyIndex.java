@@ -0,0 +1,288 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider.hierarchy;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the flattened hierarchy of expanded items used by
+ * {@link HierarchyMapper}.
+ * <p>
+ * The children of each visible expanded item, and of the root, form a level.
+ * Each level keeps the sizes of the subtrees of its children in a Fenwick tree,
+ * so that the flat index of an item is found by summing the sizes of the
+ * preceding siblings on each level from the item up to the root, and expanding
+ * or collapsing an item only updates the levels of its ancestors. Both take
+ * O(depth * log(children)) time, as does finding the item at a given flat
+ * index.
+ * <p>
+ * Items are identified by the ids given by the data provider. The index does
+ * not fetch anything by itself, the levels are added by the mapper.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class HierarchyIndex implements Serializable {
+
+    /**
+     * The parent id of the root level, since <code>null</code> can be an id.
+     */
+    enum Root {
+        INSTANCE
+    }
+
+    /**
+     * The children of one expanded item.
+     */
+    static final class Level implements Serializable {
+        private final Object parentId;
+        private final int depth;
+        private final List<Object> childIds;
+        private final Map<Object, Integer> positions;
+        // Fenwick tree of subtree sizes, one-based
+        private final int[] tree;
+        private int total;
+
+        private Level(Object parentId, int depth, List<Object> childIds,
+                int[] sizes) {
+            this.parentId = parentId;
+            this.depth = depth;
+            this.childIds = childIds;
+            positions = new HashMap<>(childIds.size() * 4 / 3 + 1);
+            tree = new int[sizes.length + 1];
+            for (int i = 0; i < sizes.length; i++) {
+                positions.put(childIds.get(i), i);
+                total += sizes[i];
+                tree[i + 1] += sizes[i];
+                int parent = (i + 1) + ((i + 1) & -(i + 1));
+                if (parent < tree.length) {
+                    tree[parent] += tree[i + 1];
+                }
+            }
+        }
+
+        /**
+         * Gets the total size of the subtrees of the children before the
+         * given position.
+         */
+        int sizeBefore(int position) {
+            int sum = 0;
+            for (int i = position; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Gets the position of the child whose subtree contains the given
+         * index, relative to the start of this level. The index must be less
+         * than the total size of the level.
+         */
+        int positionAt(int index) {
+            // Descend the Fenwick tree to find the last position whose
+            // preceding subtrees fit before the index
+            int position = 0;
+            int remaining = index;
+            for (int step = Integer.highestOneBit(
+                    tree.length - 1); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next < tree.length && tree[next] <= remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+            return position;
+        }
+
+        private void add(int position, int delta) {
+            for (int i = position + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+            total += delta;
+        }
+
+        List<Object> getChildIds() {
+            return childIds;
+        }
+
+        int getTotal() {
+            return total;
+        }
+    }
+
+    // Levels by the id of their parent
+    private final Map<Object, Level> levels = new HashMap<>();
+
+    // Levels by the ids of their children
+    private final Map<Object, Level> childLevels = new HashMap<>();
+
+    /**
+     * Adds the level of the children of the given item. The levels of any
+     * expanded children must have been added before, and the sizes must match
+     * them.
+     *
+     * @param parentId
+     *            the id of the parent item, {@link Root#INSTANCE} for the
+     *            root
+     * @param depth
+     *            the depth of the children
+     * @param childIds
+     *            the ids of the children in order
+     * @param sizes
+     *            the sizes of the subtrees of the children, including
+     *            themselves
+     * @return the added level
+     */
+    Level addLevel(Object parentId, int depth, List<Object> childIds,
+            int[] sizes) {
+        Level level = new Level(parentId, depth, childIds, sizes);
+        levels.put(parentId, level);
+        childIds.forEach(id -> childLevels.put(id, level));
+        return level;
+    }
+
+    /**
+     * Gets the level of the children of the given item.
+     *
+     * @param parentId
+     *            the id of the parent item, {@link Root#INSTANCE} for the
+     *            root
+     * @return the level or <code>null</code> if the item is not an indexed
+     *         expanded item
+     */
+    Level getLevel(Object parentId) {
+        return levels.get(parentId);
+    }
+
+    /**
+     * Checks whether the given item is in the index, i.e. visible.
+     *
+     * @param id
+     *            the item id
+     * @return <code>true</code> if the item is visible
+     */
+    boolean contains(Object id) {
+        return childLevels.containsKey(id);
+    }
+
+    /**
+     * Gets the number of visible items.
+     *
+     * @return the size of the flattened hierarchy
+     */
+    int size() {
+        Level root = levels.get(Root.INSTANCE);
+        return root == null ? 0 : root.total;
+    }
+
+    /**
+     * Gets the index of the given item in the flattened hierarchy.
+     *
+     * @param id
+     *            the item id
+     * @return the index or -1 if the item is not visible
+     */
+    int indexOf(Object id) {
+        int index = 0;
+        Object current = id;
+        while (current != Root.INSTANCE) {
+            Level level = childLevels.get(current);
+            if (level == null) {
+                return -1;
+            }
+            index += level.sizeBefore(level.positions.get(current));
+            if (level.parentId != Root.INSTANCE) {
+                // The parent itself precedes its children
+                index++;
+            }
+            current = level.parentId;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the depth of the given item.
+     *
+     * @param id
+     *            the item id
+     * @return the depth starting from zero for root items, or -1 if the item
+     *         is not visible
+     */
+    int getDepth(Object id) {
+        Level level = childLevels.get(id);
+        return level == null ? -1 : level.depth;
+    }
+
+    /**
+     * Gets the number of visible descendants of the given item.
+     *
+     * @param id
+     *            the item id
+     * @return the number of descendants, 0 if the item is collapsed or not
+     *         visible
+     */
+    int getDescendantCount(Object id) {
+        Level level = levels.get(id);
+        return level == null ? 0 : level.total;
+    }
+
+    /**
+     * Updates the subtree sizes of the ancestors of a visible item after its
+     * level has been added, i.e. after it has been expanded.
+     *
+     * @param id
+     *            the id of the expanded item
+     */
+    void expanded(Object id) {
+        addToAncestors(id, getDescendantCount(id));
+    }
+
+    /**
+     * Removes the levels of a visible item and its descendants and updates the
+     * subtree sizes of its ancestors, i.e. after it has been collapsed.
+     *
+     * @param id
+     *            the id of the collapsed item
+     */
+    void collapsed(Object id) {
+        addToAncestors(id, -getDescendantCount(id));
+        removeLevel(id);
+    }
+
+    private void addToAncestors(Object id, int delta) {
+        Object current = id;
+        while (current != Root.INSTANCE && delta != 0) {
+            Level level = childLevels.get(current);
+            level.add(level.positions.get(current), delta);
+            current = level.parentId;
+        }
+    }
+
+    private void removeLevel(Object parentId) {
+        Level level = levels.remove(parentId);
+        if (level != null) {
+            for (Object childId : level.childIds) {
+                childLevels.remove(childId);
+                removeLevel(childId);
+            }
+        }
+    }
+}
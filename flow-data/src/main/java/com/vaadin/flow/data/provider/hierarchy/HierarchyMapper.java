@@ -16,6 +16,7 @@
 package com.vaadin.flow.data.provider.hierarchy;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -66,6 +67,19 @@ public class HierarchyMapper<T, F> implements Serializable {
 
     private Map<Object, T> expandedItems = new HashMap<>();
 
+    // Built on demand, updated on expand and collapse and discarded when the
+    // hierarchy may have changed otherwise
+    private transient HierarchyIndex index;
+
+    // Ids of items expanded after indexing, whose levels are added to the
+    // index when it is read next time
+    private transient List<Object> pendingExpansions;
+
+    private boolean childCountCaching;
+
+    // Child counts by parent id when child counts are cached
+    private transient Map<Object, Integer> childCounts;
+
     /**
      * Constructs a new HierarchyMapper.
      *
@@ -82,7 +96,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the amount of available data
      */
     public int getTreeSize() {
-        return (int) getHierarchy(null).count();
+        return getHierarchyIndex().size();
     }
 
     /**
@@ -91,8 +105,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the amount of available root data
      */
     public int getRootSize() {
-        return getDataProvider()
-                .getChildCount(new HierarchicalQuery<>(filter, null));
+        return countChildItems(null);
     }
 
     /**
@@ -104,8 +117,10 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getParentIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(getParentOfItem(item));
+        HierarchyIndex hierarchyIndex = getHierarchyIndex();
+        T parent = getParentOfItem(item);
+        return parent == null ? -1
+                : hierarchyIndex.indexOf(getDataProvider().getId(parent));
     }
 
     /**
@@ -117,8 +132,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(item);
+        return getIndexOf(item).orElse(-1);
     }
 
     /**
@@ -159,8 +173,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public Range expand(T item, Integer position) {
         if (doExpand(item) && position != null) {
-            return Range.withLength(position + 1,
-                    (int) getHierarchy(item, false).count());
+            return Range.withLength(position + 1, getDescendantCount(item));
         }
 
         return Range.withLength(0, 0);
@@ -178,8 +191,16 @@ public class HierarchyMapper<T, F> implements Serializable {
     private boolean doExpand(T item) {
         boolean expanded = false;
         if (!isExpanded(item) && hasChildren(item)) {
-            expandedItems.put(getDataProvider().getId(item), item);
+            Object id = getDataProvider().getId(item);
+            expandedItems.put(id, item);
             expanded = true;
+            // Don't fetch the children before they are requested
+            if (index != null) {
+                if (pendingExpansions == null) {
+                    pendingExpansions = new ArrayList<>();
+                }
+                pendingExpansions.add(id);
+            }
         }
         return expanded;
     }
@@ -197,7 +218,12 @@ public class HierarchyMapper<T, F> implements Serializable {
             return false;
         }
         if (isExpanded(item)) {
-            expandedItems.remove(getDataProvider().getId(item));
+            Object id = getDataProvider().getId(item);
+            expandedItems.remove(id);
+            if (index != null) {
+                index.collapsed(id);
+            }
+            removeChildCount(id);
             return true;
         }
         return false;
@@ -218,9 +244,14 @@ public class HierarchyMapper<T, F> implements Serializable {
         if (isExpanded(item)) {
             if (position != null) {
                 removedRows = Range.withLength(position + 1,
-                        (int) getHierarchy(item, false).count());
+                        getDescendantCount(item));
+            }
+            Object id = getDataProvider().getId(item);
+            expandedItems.remove(id);
+            if (index != null) {
+                index.collapsed(id);
             }
-            expandedItems.remove(getDataProvider().getId(item));
+            removeChildCount(id);
         }
         return removedRows;
     }
@@ -243,6 +274,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setInMemorySorting(Comparator<T> inMemorySorting) {
         this.inMemorySorting = inMemorySorting;
+        invalidateIndex();
     }
 
     /**
@@ -263,6 +295,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setBackEndSorting(List<QuerySortOrder> backEndSorting) {
         this.backEndSorting = backEndSorting;
+        invalidateIndex();
     }
 
     /**
@@ -283,6 +316,8 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setFilter(Object filter) {
         this.filter = (F) filter;
+        invalidateIndex();
+        invalidateChildCounts();
     }
 
     /**
@@ -317,7 +352,9 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(Range range) {
-        return getHierarchy(null).skip(range.getStart()).limit(range.length());
+        return fetchIndexedHierarchyItems(null, range).orElseGet(
+                () -> getHierarchy(null).skip(range.getStart())
+                        .limit(range.length()));
     }
 
     /**
@@ -331,8 +368,90 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(T parent, Range range) {
-        return getHierarchy(parent, false).skip(range.getStart())
-                .limit(range.length());
+        return fetchIndexedHierarchyItems(parent, range)
+                .orElseGet(() -> getHierarchy(parent, false)
+                        .skip(range.getStart()).limit(range.length()));
+    }
+
+    /**
+     * Fetches the given range of the flattened hierarchy under the given item
+     * using the index to find the first item, so that only the children needed
+     * for the range are fetched.
+     *
+     * @return the items, or an empty optional if the item is not an indexed
+     *         expanded item or the index turned out to be outdated
+     */
+    private Optional<Stream<T>> fetchIndexedHierarchyItems(T parent,
+            Range range) {
+        if (range.isEmpty()) {
+            return Optional.of(Stream.empty());
+        }
+        HierarchyIndex hierarchyIndex = getHierarchyIndex();
+        HierarchyIndex.Level level = hierarchyIndex
+                .getLevel(getParentId(parent));
+        if (level == null) {
+            return Optional.empty();
+        }
+        List<T> items = new ArrayList<>(
+                Math.min(range.length(), level.getTotal()));
+        if (!addHierarchyItems(hierarchyIndex, level, parent,
+                range.getStart(), range.length(), items)) {
+            return Optional.empty();
+        }
+        return Optional.of(items.stream());
+    }
+
+    /**
+     * Adds the items of the flattened hierarchy under the given level to the
+     * list, starting from the given index within the level, until the list
+     * has the given number of items. Only the children of the level needed
+     * for that are fetched.
+     *
+     * @return <code>true</code> if the items were added, <code>false</code> if
+     *         the fetched children differ from the indexed ones
+     */
+    private boolean addHierarchyItems(HierarchyIndex hierarchyIndex,
+            HierarchyIndex.Level level, T parent, int start, int limit,
+            List<T> items) {
+        if (start >= level.getTotal()) {
+            return true;
+        }
+        List<Object> childIds = level.getChildIds();
+        int position = level.positionAt(start);
+        // 0 if the range starts at the child itself, otherwise the range
+        // starts at one of its descendants
+        int offsetInChild = start - level.sizeBefore(position);
+        // Every child adds at least itself to the list
+        int childCount = Math.min(
+                limit - items.size() + (offsetInChild > 0 ? 1 : 0),
+                childIds.size() - position);
+
+        List<T> childList;
+        try (Stream<T> stream = doFetchDirectChildren(parent,
+                Range.withLength(position, childCount))) {
+            childList = stream.collect(Collectors.toList());
+        }
+        checkIndex(parent, position, childCount, childList);
+        if (index != hierarchyIndex) {
+            return false;
+        }
+        registerChildren(parent, childList);
+
+        for (int i = 0; i < childList.size() && items.size() < limit; i++) {
+            T child = childList.get(i);
+            int skip = i == 0 ? offsetInChild : 0;
+            if (skip == 0) {
+                items.add(child);
+            }
+            HierarchyIndex.Level childLevel = hierarchyIndex
+                    .getLevel(childIds.get(position + i));
+            if (childLevel != null && items.size() < limit
+                    && !addHierarchyItems(hierarchyIndex, childLevel, child,
+                            Math.max(skip - 1, 0), limit, items)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -352,8 +471,72 @@ public class HierarchyMapper<T, F> implements Serializable {
     }
 
     public int countChildItems(T parent) {
-        return getDataProvider()
-                .getChildCount(new HierarchicalQuery<>(filter, parent));
+        if (!childCountCaching) {
+            return getDataProvider()
+                    .getChildCount(new HierarchicalQuery<>(filter, parent));
+        }
+        if (childCounts == null) {
+            childCounts = new HashMap<>();
+        }
+        return childCounts.computeIfAbsent(getParentId(parent),
+                id -> getDataProvider().getChildCount(
+                        new HierarchicalQuery<>(filter, parent)));
+    }
+
+    /**
+     * Returns whether child counts are cached.
+     *
+     * @return {@code true} if child counts are cached, {@code false} if not
+     * @see #setChildCountCaching(boolean)
+     */
+    public boolean isChildCountCaching() {
+        return childCountCaching;
+    }
+
+    /**
+     * Enables or disables caching of child counts. When enabled, the child
+     * counts of the root and the expanded items are cached until
+     * {@link #invalidateChildCount(Object)} or
+     * {@link #invalidateChildCounts()} is called, or the item is collapsed or
+     * the filter changes. Children are fetched the same way whether counts are
+     * cached or not. Disabled by default.
+     *
+     * @param childCountCaching
+     *            {@code true} to cache child counts, {@code false} to count
+     *            children on every call
+     */
+    public void setChildCountCaching(boolean childCountCaching) {
+        this.childCountCaching = childCountCaching;
+        invalidateChildCounts();
+    }
+
+    /**
+     * Discards the cached child count of the given item, so that it is counted
+     * again by the data provider when needed.
+     *
+     * @param item
+     *            the parent item, or {@code null} for the root
+     */
+    public void invalidateChildCount(T item) {
+        removeChildCount(getParentId(item));
+    }
+
+    /**
+     * Discards all cached child counts.
+     */
+    public void invalidateChildCounts() {
+        childCounts = null;
+    }
+
+    private Object getParentId(T parent) {
+        return parent == null ? HierarchyIndex.Root.INSTANCE
+                : getDataProvider().getId(parent);
+    }
+
+    private void removeChildCount(Object id) {
+        if (childCounts != null) {
+            childCounts.remove(id);
+        }
     }
 
     /* Methods for providing information on the hierarchy. */
@@ -399,6 +582,12 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return depth of item in the tree or -1 if item is null
      */
     public int getDepth(T item) {
+        if (item != null && index != null) {
+            int depth = index.getDepth(getDataProvider().getId(item));
+            if (depth >= 0) {
+                return depth;
+            }
+        }
         int depth = -1;
         while (item != null) {
             item = getParentOfItem(item);
@@ -430,6 +619,8 @@ public class HierarchyMapper<T, F> implements Serializable {
      *            the item id
      */
     protected void removeChildren(Object id) {
+        invalidateIndex();
+        removeChildCount(id);
         // Clean up removed nodes from child map
         Iterator<Entry<T, Set<T>>> iterator = childMap.entrySet().iterator();
         Set<T> invalidatedChildren = new HashSet<>();
@@ -462,12 +653,141 @@ public class HierarchyMapper<T, F> implements Serializable {
             return Optional.empty();
         }
 
-        final List<Object> collect = getHierarchy(null).map(provider::getId)
-                .collect(Collectors.toList());
-        int index = collect.indexOf(getDataProvider().getId(target));
+        int index = getHierarchyIndex()
+                .indexOf(getDataProvider().getId(target));
         return Optional.ofNullable(index < 0 ? null : index);
     }
 
+    /**
+     * Discards the index of the flattened hierarchy used for finding indexes
+     * of items and the size of the hierarchy. The index is rebuilt from the
+     * data provider when needed next time. Should be called whenever the
+     * hierarchy may have changed in the data provider.
+     */
+    public void invalidateIndex() {
+        index = null;
+        pendingExpansions = null;
+    }
+
+    private HierarchyIndex getHierarchyIndex() {
+        if (index != null && pendingExpansions != null) {
+            addPendingLevels();
+        }
+        if (index == null) {
+            HierarchyIndex hierarchyIndex = new HierarchyIndex();
+            index = hierarchyIndex;
+            addLevel(hierarchyIndex, null, HierarchyIndex.Root.INSTANCE, 0);
+            if (index != hierarchyIndex) {
+                // An expanded item had no children, try again as they have
+                // been cleaned up now
+                return getHierarchyIndex();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds the levels of the items expanded after indexing that are still
+     * expanded and visible. The levels of expanded descendants are added along
+     * with their ancestors, and any other items are indexed when an ancestor
+     * is expanded.
+     */
+    private void addPendingLevels() {
+        HierarchyIndex hierarchyIndex = index;
+        List<Object> pending = pendingExpansions;
+        pendingExpansions = null;
+        for (Object id : pending) {
+            T item = expandedItems.get(id);
+            if (item != null && hierarchyIndex.contains(id)
+                    && hierarchyIndex.getLevel(id) == null) {
+                addLevel(hierarchyIndex, item, id,
+                        hierarchyIndex.getDepth(id) + 1);
+                if (index != hierarchyIndex) {
+                    // An expanded item had no children, the index is rebuilt
+                    return;
+                }
+                hierarchyIndex.expanded(id);
+            }
+        }
+    }
+
+    private int getDescendantCount(T item) {
+        HierarchyIndex hierarchyIndex = getHierarchyIndex();
+        Object id = getDataProvider().getId(item);
+        if (hierarchyIndex.contains(id)) {
+            return hierarchyIndex.getDescendantCount(id);
+        }
+        // Not visible, so not indexed
+        return (int) getHierarchy(item, false).count();
+    }
+
+    /**
+     * Fetches the children of the given expanded item, recursively adds the
+     * levels of their expanded children to the index, and then adds the level
+     * of the item itself.
+     *
+     * @return the number of descendants of the item
+     */
+    private int addLevel(HierarchyIndex hierarchyIndex, T parent,
+            Object parentId, int depth) {
+        List<T> childList;
+        try (Stream<T> stream = doFetchDirectChildren(parent)) {
+            childList = stream.collect(Collectors.toList());
+        }
+        if (childList.isEmpty()) {
+            if (parent != null) {
+                removeChildren(parentId);
+            }
+            return 0;
+        }
+        registerChildren(parent, childList);
+
+        List<Object> childIds = new ArrayList<>(childList.size());
+        int[] sizes = new int[childList.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            T child = childList.get(i);
+            Object childId = getDataProvider().getId(child);
+            childIds.add(childId);
+            sizes[i] = 1;
+            if (isExpanded(child)) {
+                sizes[i] += addLevel(hierarchyIndex, child, childId,
+                        depth + 1);
+            }
+        }
+        return hierarchyIndex.addLevel(parentId, depth, childIds, sizes)
+                .getTotal();
+    }
+
+    /**
+     * Discards the index if the given children of an expanded item fetched
+     * from the data provider differ from the indexed ones.
+     */
+    private void checkIndex(T parent, int offset, int limit,
+            List<T> childList) {
+        if (index == null) {
+            return;
+        }
+        HierarchyIndex.Level level = index.getLevel(getParentId(parent));
+        if (level == null) {
+            // Not visible, or expanded after indexing
+            return;
+        }
+        List<Object> childIds = level.getChildIds();
+        int end = (int) Math.min(childIds.size(), (long) offset + limit);
+        int start = Math.min(offset, end);
+        if (end - start != childList.size()) {
+            invalidateIndex();
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Objects.equals(childIds.get(i),
+                    getDataProvider().getId(childList.get(i - start)))) {
+                invalidateIndex();
+                return;
+            }
+        }
+    }
+
     /**
      * Gets the full hierarchy tree starting from given node.
      *
@@ -537,6 +857,7 @@ public class HierarchyMapper<T, F> implements Serializable {
             try (Stream<T> stream = doFetchDirectChildren(parent)) {
                 childList = stream.collect(Collectors.toList());
             }
+            checkIndex(parent, 0, Integer.MAX_VALUE, childList);
             if (childList.isEmpty()) {
                 removeChildren(parent == null ? null
                         : getDataProvider().getId(parent));
@@ -567,6 +888,10 @@ public class HierarchyMapper<T, F> implements Serializable {
             try (Stream<T> stream = doFetchDirectChildren(parent, range)) {
                 childList = stream.collect(Collectors.toList());
             }
+            if (range != null) {
+                checkIndex(parent, range.getStart(), range.length(),
+                        childList);
+            }
             if (childList.isEmpty()) {
                 removeChildren(parent == null ? null
                         : getDataProvider().getId(parent));
@@ -616,6 +941,8 @@ public class HierarchyMapper<T, F> implements Serializable {
     }
 
     public void destroyAllData() {
+        invalidateIndex();
+        invalidateChildCounts();
         childMap.clear();
         parentIdMap.clear();
         expandedItems.clear();
@@ -15,15 +15,26 @@
  */
 package com.vaadin.flow.data.provider.hierarchy;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -42,13 +53,37 @@ import com.vaadin.flow.function.ValueProvider;
  */
 public class TreeData<T> implements Serializable {
 
-    private static class HierarchyWrapper<T> implements Serializable {
+    /**
+     * The position of an item in the hierarchy. The children of an item are
+     * kept in a doubly linked list so that they can be moved and removed in
+     * constant time, and an array of them is built when they are accessed by
+     * position.
+     */
+    private static class HierarchyWrapper<T> {
+        private final T item;
         private T parent;
-        private List<T> children;
+        private HierarchyWrapper<T> parentWrapper;
+
+        // Siblings
+        private HierarchyWrapper<T> previous;
+        private HierarchyWrapper<T> next;
+
+        // Children
+        private HierarchyWrapper<T> first;
+        private HierarchyWrapper<T> last;
+        private int childCount;
+
+        // Children by position, null when changed since last accessed
+        private Object[] childArray;
+
+        // Position among the siblings, valid while the parent's child array is
+        private int position;
+
+        private TreeData<T>.ChildList childList;
 
-        public HierarchyWrapper(T parent) {
+        public HierarchyWrapper(T item, T parent) {
+            this.item = item;
             this.parent = parent;
-            children = new ArrayList<>();
         }
 
         public T getParent() {
@@ -59,20 +94,142 @@ public class TreeData<T> implements Serializable {
             this.parent = parent;
         }
 
-        public List<T> getChildren() {
-            return children;
+        public void addChild(HierarchyWrapper<T> child) {
+            insertChildAfter(child, last);
+        }
+
+        public void removeChild(HierarchyWrapper<T> child) {
+            if (child.previous == null) {
+                first = child.next;
+            } else {
+                child.previous.next = child.next;
+            }
+            if (child.next == null) {
+                last = child.previous;
+            } else {
+                child.next.previous = child.previous;
+            }
+            child.previous = null;
+            child.next = null;
+            child.parentWrapper = null;
+            childCount--;
+            childrenChanged();
+        }
+
+        /**
+         * Moves a child after another one, or first if the other one is
+         * {@code null}.
+         */
+        public void moveChildAfter(HierarchyWrapper<T> child,
+                HierarchyWrapper<T> sibling) {
+            if (child != sibling) {
+                removeChild(child);
+                insertChildAfter(child, sibling);
+            }
+        }
+
+        public void removeChildren() {
+            first = null;
+            last = null;
+            childCount = 0;
+            childrenChanged();
         }
 
-        public void addChild(T child) {
-            children.add(child);
+        private void insertChildAfter(HierarchyWrapper<T> child,
+                HierarchyWrapper<T> sibling) {
+            child.parentWrapper = this;
+            child.previous = sibling;
+            child.next = sibling == null ? first : sibling.next;
+            if (child.previous == null) {
+                first = child;
+            } else {
+                child.previous.next = child;
+            }
+            if (child.next == null) {
+                last = child;
+            } else {
+                child.next.previous = child;
+            }
+            childCount++;
+            childrenChanged();
+        }
+
+        private void childrenChanged() {
+            childArray = null;
+            if (childList != null) {
+                // Fail fast when iterating over the children while they change
+                childList.childrenChanged();
+            }
         }
 
-        public void removeChild(T child) {
-            children.remove(child);
+        private Object[] getChildArray() {
+            if (childArray == null) {
+                Object[] array = new Object[childCount];
+                int i = 0;
+                for (HierarchyWrapper<T> child = first; child != null;
+                        child = child.next) {
+                    child.position = i;
+                    array[i++] = child.item;
+                }
+                childArray = array;
+            }
+            return childArray;
         }
     }
 
-    private final Map<T, HierarchyWrapper<T>> itemToWrapperMap;
+    /**
+     * Unmodifiable live view of the children of an item.
+     */
+    private class ChildList extends AbstractList<T>
+            implements RandomAccess, Serializable {
+        private final transient HierarchyWrapper<T> wrapper;
+
+        private ChildList(HierarchyWrapper<T> wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, wrapper.childCount);
+            return (T) wrapper.getChildArray()[index];
+        }
+
+        @Override
+        public int size() {
+            return wrapper.childCount;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            HierarchyWrapper<T> child = itemToWrapperMap.get(o);
+            if (child == null || child.parentWrapper != wrapper) {
+                return -1;
+            }
+            wrapper.getChildArray();
+            return child.position;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        private void childrenChanged() {
+            modCount++;
+        }
+
+        private Object writeReplace() {
+            return Collections.unmodifiableList(new ArrayList<>(this));
+        }
+    }
+
+    private transient Map<T, HierarchyWrapper<T>> itemToWrapperMap;
 
     /**
      * Creates an initially empty hierarchical data representation to which
@@ -80,7 +237,7 @@ public class TreeData<T> implements Serializable {
      */
     public TreeData() {
         itemToWrapperMap = new LinkedHashMap<>();
-        itemToWrapperMap.put(null, new HierarchyWrapper<>(null));
+        itemToWrapperMap.put(null, new HierarchyWrapper<>(null, null));
     }
 
     /**
@@ -157,16 +314,7 @@ public class TreeData<T> implements Serializable {
      */
     public TreeData<T> addItem(T parent, T item) {
         Objects.requireNonNull(item, "Item cannot be null");
-        if (parent != null && !contains(parent)) {
-            throw new IllegalArgumentException(
-                    "Parent needs to be added before children. "
-                            + "To add root items, call with parent as null");
-        }
-        if (contains(item)) {
-            throw new IllegalArgumentException(
-                    "Cannot add the same item multiple times: " + item);
-        }
-        putItem(item, parent);
+        putItem(getParentWrapper(parent), parent, item);
         return this;
     }
 
@@ -192,7 +340,7 @@ public class TreeData<T> implements Serializable {
      */
     public TreeData<T> addItems(T parent,
             @SuppressWarnings("unchecked") T... items) {
-        Arrays.stream(items).forEach(item -> addItem(parent, item));
+        putItems(getParentWrapper(parent), parent, Arrays.asList(items));
         return this;
     }
 
@@ -217,7 +365,7 @@ public class TreeData<T> implements Serializable {
      *             if any of the items are null
      */
     public TreeData<T> addItems(T parent, Collection<T> items) {
-        items.forEach(item -> addItem(parent, item));
+        putItems(getParentWrapper(parent), parent, items);
         return this;
     }
 
@@ -242,7 +390,8 @@ public class TreeData<T> implements Serializable {
      *             if any of the items are null
      */
     public TreeData<T> addItems(T parent, Stream<T> items) {
-        items.forEach(item -> addItem(parent, item));
+        HierarchyWrapper<T> parentWrapper = getParentWrapper(parent);
+        items.forEachOrdered(item -> putItem(parentWrapper, parent, item));
         return this;
     }
 
@@ -261,9 +410,7 @@ public class TreeData<T> implements Serializable {
             ValueProvider<T, Collection<T>> childItemProvider) {
         rootItems.forEach(item -> {
             addItem(null, item);
-            Collection<T> childItems = childItemProvider.apply(item);
-            addItems(item, childItems);
-            addItemsRecursively(childItems, childItemProvider);
+            addItemsRecursively(item, childItemProvider);
         });
         return this;
     }
@@ -287,6 +434,79 @@ public class TreeData<T> implements Serializable {
                         .collect(Collectors.toList()));
     }
 
+    /**
+     * Adds the given items using the given value provider to get the parent of
+     * each item. The items can be given in any order, the parent of an item
+     * must either be {@code null} for a root item, already exist in this
+     * structure or be one of the given items. Children of the same parent are
+     * added in the order they are given.
+     * <p>
+     * This is the most efficient way to load a large hierarchy, for example
+     * from rows that refer to their parent. Either all or none of the items
+     * are added.
+     *
+     * @param items
+     *            the items to add
+     * @param parentProvider
+     *            the value provider used to get the parent of each item
+     * @return this
+     *
+     * @throws IllegalArgumentException
+     *             if the parent of an item is not in this structure or among
+     *             the given items, or if the parents form a cycle
+     * @throws IllegalArgumentException
+     *             if any of the given items have already been added to this
+     *             structure or are given multiple times
+     * @throws NullPointerException
+     *             if any of the items are null
+     */
+    public TreeData<T> addItemsWithParents(Collection<T> items,
+            ValueProvider<T, T> parentProvider) {
+        Set<T> addedItems = new HashSet<>();
+        Map<T, List<T>> itemsByParent = new HashMap<>();
+        for (T item : items) {
+            Objects.requireNonNull(item, "Item cannot be null");
+            if (contains(item) || !addedItems.add(item)) {
+                throw new IllegalArgumentException(
+                        "Cannot add the same item multiple times: " + item);
+            }
+            itemsByParent.computeIfAbsent(parentProvider.apply(item),
+                    parent -> new ArrayList<>()).add(item);
+        }
+
+        // Order the items parents first before changing anything
+        List<T> parents = new ArrayList<>();
+        for (T parent : itemsByParent.keySet()) {
+            if (contains(parent)) {
+                parents.add(parent);
+            } else if (!addedItems.contains(parent)) {
+                throw new IllegalArgumentException("Parent '" + parent
+                        + "' needs to be added before or with children");
+            }
+        }
+        int itemCount = 0;
+        for (int i = 0; i < parents.size(); i++) {
+            List<T> children = itemsByParent.get(parents.get(i));
+            itemCount += children.size();
+            for (T child : children) {
+                if (itemsByParent.containsKey(child)) {
+                    parents.add(child);
+                }
+            }
+        }
+        if (itemCount != addedItems.size()) {
+            throw new IllegalArgumentException(
+                    "The parents of the items form a cycle");
+        }
+
+        for (T parent : parents) {
+            HierarchyWrapper<T> parentWrapper = itemToWrapperMap.get(parent);
+            itemsByParent.get(parent)
+                    .forEach(item -> putItem(parentWrapper, parent, item));
+        }
+        return this;
+    }
+
     /**
      * Remove a given item from this structure. Additionally, this will
      * recursively remove any descendants of the item.
@@ -303,11 +523,23 @@ public class TreeData<T> implements Serializable {
             throw new IllegalArgumentException(
                     "Item '" + item + "' not in the hierarchy");
         }
-        new ArrayList<>(getChildren(item)).forEach(child -> removeItem(child));
-        itemToWrapperMap.get(itemToWrapperMap.get(item).getParent())
-                .removeChild(item);
+        HierarchyWrapper<T> wrapper = itemToWrapperMap.get(item);
+        // Remove the descendants without recursion to support deep
+        // hierarchies
+        Deque<HierarchyWrapper<T>> removed = new ArrayDeque<>();
+        removed.push(wrapper);
+        while (!removed.isEmpty()) {
+            HierarchyWrapper<T> current = removed.pop();
+            for (HierarchyWrapper<T> child = current.first; child != null;
+                    child = child.next) {
+                itemToWrapperMap.remove(child.item);
+                removed.push(child);
+            }
+            current.removeChildren();
+        }
         if (item != null) {
             // remove non root item from backing map
+            wrapper.parentWrapper.removeChild(wrapper);
             itemToWrapperMap.remove(item);
         }
         return this;
@@ -349,8 +581,11 @@ public class TreeData<T> implements Serializable {
             throw new IllegalArgumentException(
                     "Item '" + item + "' not in the hierarchy");
         }
-        return Collections
-                .unmodifiableList(itemToWrapperMap.get(item).getChildren());
+        HierarchyWrapper<T> wrapper = itemToWrapperMap.get(item);
+        if (wrapper.childList == null) {
+            wrapper.childList = new ChildList(wrapper);
+        }
+        return wrapper.childList;
     }
 
     /**
@@ -400,17 +635,17 @@ public class TreeData<T> implements Serializable {
                     "Item cannot be the parent of itself");
         }
 
-        T oldParent = itemToWrapperMap.get(item).getParent();
+        HierarchyWrapper<T> wrapper = itemToWrapperMap.get(item);
 
-        if (!Objects.equals(oldParent, parent)) {
+        if (!Objects.equals(wrapper.getParent(), parent)) {
             // Remove item from old parent's children
-            itemToWrapperMap.get(oldParent).removeChild(item);
+            wrapper.parentWrapper.removeChild(wrapper);
 
             // Add item to parent's children
-            itemToWrapperMap.get(parent).addChild(item);
+            itemToWrapperMap.get(parent).addChild(wrapper);
 
             // Set item's new parent
-            itemToWrapperMap.get(item).setParent(parent);
+            wrapper.setParent(parent);
         }
     }
 
@@ -431,32 +666,28 @@ public class TreeData<T> implements Serializable {
                     "Item '" + item + "' not in the hierarchy");
         }
 
-        if (sibling == null) {
-            List<T> children = itemToWrapperMap.get(getParent(item))
-                    .getChildren();
+        HierarchyWrapper<T> wrapper = itemToWrapperMap.get(item);
 
+        if (sibling == null) {
             // Move item to first position
-            children.remove(item);
-            children.add(0, item);
+            wrapper.parentWrapper.moveChildAfter(wrapper, null);
         } else {
             if (!contains(sibling)) {
                 throw new IllegalArgumentException(
                         "Item '" + sibling + "' not in the hierarchy");
             }
 
-            T parent = itemToWrapperMap.get(item).getParent();
+            HierarchyWrapper<T> siblingWrapper = itemToWrapperMap
+                    .get(sibling);
 
-            if (!Objects.equals(parent,
-                    itemToWrapperMap.get(sibling).getParent())) {
+            if (!Objects.equals(wrapper.getParent(),
+                    siblingWrapper.getParent())) {
                 throw new IllegalArgumentException("Items '" + item + "' and '"
                         + sibling + "' don't have the same parent");
             }
 
-            List<T> children = itemToWrapperMap.get(parent).getChildren();
-
             // Move item to the position after the sibling
-            children.remove(item);
-            children.add(children.indexOf(sibling) + 1, item);
+            wrapper.parentWrapper.moveChildAfter(wrapper, siblingWrapper);
         }
     }
 
@@ -472,20 +703,83 @@ public class TreeData<T> implements Serializable {
         return itemToWrapperMap.containsKey(item);
     }
 
-    private void putItem(T item, T parent) {
-        HierarchyWrapper<T> wrappedItem = new HierarchyWrapper<>(parent);
-        if (itemToWrapperMap.containsKey(parent)) {
-            itemToWrapperMap.get(parent).addChild(item);
+    private HierarchyWrapper<T> getParentWrapper(T parent) {
+        if (parent != null && !contains(parent)) {
+            throw new IllegalArgumentException(
+                    "Parent needs to be added before children. "
+                            + "To add root items, call with parent as null");
+        }
+        return itemToWrapperMap.get(parent);
+    }
+
+    private void putItems(HierarchyWrapper<T> parentWrapper, T parent,
+            Collection<T> items) {
+        for (T item : items) {
+            putItem(parentWrapper, parent, item);
         }
+    }
+
+    private void putItem(HierarchyWrapper<T> parentWrapper, T parent,
+            T item) {
+        Objects.requireNonNull(item, "Item cannot be null");
+        if (contains(item)) {
+            throw new IllegalArgumentException(
+                    "Cannot add the same item multiple times: " + item);
+        }
+        HierarchyWrapper<T> wrappedItem = new HierarchyWrapper<>(item, parent);
+        parentWrapper.addChild(wrappedItem);
         itemToWrapperMap.put(item, wrappedItem);
     }
 
-    private void addItemsRecursively(Collection<T> items,
+    private void addItemsRecursively(T item,
             ValueProvider<T, Collection<T>> childItemProvider) {
-        items.forEach(item -> {
-            Collection<T> childItems = childItemProvider.apply(item);
-            addItems(item, childItems);
-            addItemsRecursively(childItems, childItemProvider);
-        });
+        // Depth first with an explicit stack to support deep hierarchies
+        Deque<Iterator<T>> stack = new ArrayDeque<>();
+        Collection<T> childItems = childItemProvider.apply(item);
+        addItems(item, childItems);
+        stack.push(childItems.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<T> iterator = stack.peek();
+            if (iterator.hasNext()) {
+                T child = iterator.next();
+                childItems = childItemProvider.apply(child);
+                addItems(child, childItems);
+                stack.push(childItems.iterator());
+            } else {
+                stack.pop();
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // The linked wrappers are not serialized as such to avoid deep
+        // recursion, the items are written parents first instead
+        out.writeInt(itemToWrapperMap.size() - 1);
+        Deque<HierarchyWrapper<T>> parents = new ArrayDeque<>();
+        parents.add(itemToWrapperMap.get(null));
+        while (!parents.isEmpty()) {
+            HierarchyWrapper<T> parent = parents.poll();
+            for (HierarchyWrapper<T> child = parent.first; child != null;
+                    child = child.next) {
+                out.writeObject(child.item);
+                out.writeObject(child.getParent());
+                parents.add(child);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        itemToWrapperMap = new LinkedHashMap<>();
+        itemToWrapperMap.put(null, new HierarchyWrapper<>(null, null));
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            T item = (T) in.readObject();
+            T parent = (T) in.readObject();
+            putItem(itemToWrapperMap.get(parent), parent, item);
+        }
     }
 }
@@ -16,6 +16,7 @@
 package com.vaadin.flow.data.provider.hierarchy;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -80,15 +81,15 @@ public class TreeDataProvider<T>
     @Override
     public int getChildCount(
             HierarchicalQuery<T, SerializablePredicate<T>> query) {
-        Stream<T> items;
+        List<T> items = treeData.getChildren(query.getParent());
 
-        if (query.getParent() != null) {
-            items = treeData.getChildren(query.getParent()).stream();
-        } else {
-            items = treeData.getRootItems().stream();
+        if (!getCombinedFilter(query.getFilter()).isPresent()) {
+            // Count without going through the children
+            return Math.max(0, Math.min(items.size() - query.getOffset(),
+                    query.getLimit()));
         }
 
-        return (int) getFilteredStream(items, query.getFilter())
+        return (int) getFilteredStream(items.stream(), query.getFilter())
                 .skip(query.getOffset()).limit(query.getLimit()).count();
     }
 
@@ -102,15 +103,24 @@ public class TreeDataProvider<T>
                     + "Did you forget to refresh this data provider after item removal?");
         }
 
-        Stream<T> childStream = getFilteredStream(
-                treeData.getChildren(query.getParent()).stream(),
-                query.getFilter());
+        List<T> children = treeData.getChildren(query.getParent());
 
         Optional<Comparator<T>> comparing = Stream
                 .of(query.getInMemorySorting(), sortOrder)
                 .filter(Objects::nonNull)
                 .reduce((c1, c2) -> c1.thenComparing(c2));
 
+        if (!comparing.isPresent()
+                && !getCombinedFilter(query.getFilter()).isPresent()) {
+            // Only stream the requested range
+            int from = Math.min(query.getOffset(), children.size());
+            int to = from + Math.min(query.getLimit(), children.size() - from);
+            return children.subList(from, to).stream();
+        }
+
+        Stream<T> childStream = getFilteredStream(children.stream(),
+                query.getFilter());
+
         if (comparing.isPresent()) {
             childStream = childStream.sorted(comparing.get());
         }
@@ -140,11 +150,17 @@ public class TreeDataProvider<T>
         refreshAll();
     }
 
-    private Stream<T> getFilteredStream(Stream<T> stream,
+    private Optional<SerializablePredicate<T>> getCombinedFilter(
             Optional<SerializablePredicate<T>> queryFilter) {
-        final Optional<SerializablePredicate<T>> combinedFilter = filter != null
+        return filter != null
                 ? Optional.of(queryFilter.map(filter::and).orElse(filter))
                 : queryFilter;
+    }
+
+    private Stream<T> getFilteredStream(Stream<T> stream,
+            Optional<SerializablePredicate<T>> queryFilter) {
+        final Optional<SerializablePredicate<T>> combinedFilter = getCombinedFilter(
+                queryFilter);
         return combinedFilter.map(
                 f -> stream.filter(element -> flatten(element).anyMatch(f)))
                 .orElse(stream);
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.function.SerializablePredicate;
+
+public class CachingDataProviderTest {
+
+    private final List<StrBean> data = StrBean.generateRandomBeans(100);
+
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    private final AtomicInteger sizeCount = new AtomicInteger();
+
+    private final CallbackDataProvider<StrBean, SerializablePredicate<StrBean>> backEndProvider = new CallbackDataProvider<>(
+            query -> {
+                fetchCount.incrementAndGet();
+                return data.stream()
+                        .filter(query.getFilter().orElse(bean -> true))
+                        .skip(query.getOffset()).limit(query.getLimit());
+            }, query -> {
+                sizeCount.incrementAndGet();
+                return (int) data.stream()
+                        .filter(query.getFilter().orElse(bean -> true))
+                        .count();
+            });
+
+    private final CachingDataProvider<StrBean, SerializablePredicate<StrBean>> provider = new CachingDataProvider<>(
+            backEndProvider, 3);
+
+    @Test
+    public void identicalQueries_wrappedProviderQueriedOnce() {
+        List<StrBean> first = provider.fetch(new Query<>(10, 20,
+                Collections.emptyList(), null, null))
+                .collect(Collectors.toList());
+        List<StrBean> second = provider.fetch(new Query<>(10, 20,
+                Collections.emptyList(), null, null))
+                .collect(Collectors.toList());
+        provider.size(new Query<>());
+        provider.size(new Query<>());
+
+        Assert.assertEquals(data.subList(10, 30), first);
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(1, fetchCount.get());
+        Assert.assertEquals(1, sizeCount.get());
+        Assert.assertEquals(2, provider.getHitCount());
+        Assert.assertEquals(2, provider.getMissCount());
+    }
+
+    @Test
+    public void differentQueries_cachedSeparately() {
+        SerializablePredicate<StrBean> filter = bean -> bean.getId() > 50;
+
+        provider.fetch(new Query<>(0, 10, Collections.emptyList(), null, null));
+        provider.fetch(new Query<>(10, 10, Collections.emptyList(), null, null));
+        provider.fetch(
+                new Query<>(0, 10, Collections.emptyList(), null, filter));
+        provider.fetch(new Query<>(0, 10,
+                QuerySortOrder.asc("value").build(), null, null));
+
+        Assert.assertEquals(4, fetchCount.get());
+        Assert.assertEquals(0, provider.getHitCount());
+    }
+
+    @Test
+    public void maximumSizeExceeded_leastRecentlyUsedEvicted() {
+        provider.fetch(new Query<>(0, 10, Collections.emptyList(), null, null));
+        provider.fetch(new Query<>(10, 10, Collections.emptyList(), null, null));
+        provider.fetch(new Query<>(20, 10, Collections.emptyList(), null, null));
+        provider.fetch(new Query<>(0, 10, Collections.emptyList(), null, null));
+        provider.fetch(new Query<>(30, 10, Collections.emptyList(), null, null));
+
+        Assert.assertEquals(3, provider.getCachedCount());
+        Assert.assertEquals(4, fetchCount.get());
+
+        // Offset 10 was least recently used
+        provider.fetch(new Query<>(10, 10, Collections.emptyList(), null, null));
+        Assert.assertEquals(5, fetchCount.get());
+    }
+
+    @Test
+    public void refreshAll_cacheCleared() {
+        provider.size(new Query<>());
+        provider.refreshAll();
+        provider.size(new Query<>());
+
+        Assert.assertEquals(2, sizeCount.get());
+    }
+
+    @Test
+    public void wrappedProviderRefreshed_cacheCleared() {
+        provider.size(new Query<>());
+        backEndProvider.refreshItem(data.get(0));
+        provider.size(new Query<>());
+
+        Assert.assertEquals(2, sizeCount.get());
+        Assert.assertEquals(0, provider.getHitCount());
+    }
+
+    @Test
+    public void fetchWithCount_forwardedAndCached() {
+        AtomicInteger fetchWithCountCount = new AtomicInteger();
+        CallbackDataProvider<StrBean, SerializablePredicate<StrBean>> combinedProvider = new CallbackDataProvider<>(
+                query -> {
+                    throw new AssertionError("Unexpected fetch");
+                }, query -> {
+                    throw new AssertionError("Unexpected size");
+                }, query -> {
+                    fetchWithCountCount.incrementAndGet();
+                    return new ItemsWithCount<>(data.stream()
+                            .skip(query.getOffset()).limit(query.getLimit()),
+                            data.size());
+                }, bean -> bean);
+        CachingDataProvider<StrBean, SerializablePredicate<StrBean>> cachingProvider = new CachingDataProvider<>(
+                combinedProvider, 3);
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(10,
+                20, Collections.emptyList(), null, null);
+
+        ItemsWithCount<StrBean> first = cachingProvider.fetchWithCount(query)
+                .get();
+        Assert.assertEquals(data.subList(10, 30),
+                first.getItems().collect(Collectors.toList()));
+        Assert.assertEquals(100, first.getCount());
+
+        ItemsWithCount<StrBean> second = cachingProvider.fetchWithCount(query)
+                .get();
+        Assert.assertEquals(data.subList(10, 30),
+                second.getItems().collect(Collectors.toList()));
+        Assert.assertEquals(100, cachingProvider.size(new Query<>()));
+
+        Assert.assertEquals(1, fetchWithCountCount.get());
+        Assert.assertEquals(2, cachingProvider.getHitCount());
+        Assert.assertEquals(1, cachingProvider.getMissCount());
+    }
+
+    @Test
+    public void fetchWithCount_notSupported_emptyResult() {
+        Assert.assertFalse(provider.fetchWithCount(new Query<>()).isPresent());
+        Assert.assertEquals(0, provider.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maximumSizeLessThanOne_throws() {
+        new CachingDataProvider<>(backEndProvider, 0);
+    }
+
+    @Test
+    public void serializable() {
+        CachingDataProvider<StrBean, SerializablePredicate<StrBean>> serializableProvider = new CachingDataProvider<>(
+                DataProvider.ofCollection(data), 3);
+        serializableProvider.size(new Query<>());
+
+        CachingDataProvider<StrBean, SerializablePredicate<StrBean>> deserialized = SerializationUtils
+                .roundtrip(serializableProvider);
+
+        Assert.assertEquals(0, deserialized.getCachedCount());
+    }
+}
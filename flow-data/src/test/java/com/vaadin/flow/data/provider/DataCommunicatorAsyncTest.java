@@ -1,11 +1,16 @@
 package com.vaadin.flow.data.provider;
 
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
@@ -17,10 +22,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
@@ -187,6 +194,229 @@ public class DataCommunicatorAsyncTest {
                 Range.withLength(0, 50), lastSet);
     }
 
+    @Test
+    public void asyncServiceExecutorRequestedRangeHappensLater()
+            throws InterruptedException {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getExecutor()).thenReturn(executor);
+        ui = new MockUI(new AlwaysLockedVaadinSession(service));
+        element.removeFromParent();
+        ui.getElement().appendChild(element);
+        latch = new CountDownLatch(1);
+        ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+        dataCommunicator.setDataProvider(createDataProvider(), null);
+        dataCommunicator.enablePushUpdates();
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertTrue("Expected the items to be fetched by the executor",
+                latch.await(5, TimeUnit.SECONDS));
+        Mockito.verify(service, Mockito.atLeastOnce()).getExecutor();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void asyncDataProviderPushDisabledThrows() {
+        ui.getPushConfiguration().setPushMode(PushMode.DISABLED);
+        dataCommunicator.setDataProvider(new AsyncDataProvider(), null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+    }
+
+    @Test
+    public void asyncDataProviderResultsAppliedWhenQueriesComplete() {
+        useUIWithAccessSupport();
+        AsyncDataProvider dataProvider = new AsyncDataProvider();
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertNull("Expected no items before the queries complete",
+                lastSet);
+        Assert.assertEquals(1, dataProvider.counts.size());
+        Assert.assertEquals(
+                Collections.singletonList(Range.withLength(0, 50)),
+                dataProvider.fetchedRanges);
+
+        dataProvider.complete(100);
+        runPendingAccessTasks();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(new Item(49), dataCommunicator.getItem(49));
+        Assert.assertEquals(1, dataProvider.fetchedRanges.size());
+        Assert.assertEquals(0, dataProvider.synchronousCalls);
+    }
+
+    @Test
+    public void asyncDataProviderOutdatedResultsIgnored() {
+        useUIWithAccessSupport();
+        AsyncDataProvider dataProvider = new AsyncDataProvider();
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Arrays.asList(Range.withLength(0, 50),
+                Range.withLength(50, 50)), dataProvider.fetchedRanges);
+
+        dataProvider.complete(100);
+        runPendingAccessTasks();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertEquals(new Item(99), dataCommunicator.getItem(99));
+        Assert.assertEquals(0, dataProvider.synchronousCalls);
+    }
+
+    @Test
+    public void asyncDataProviderOutdatedQueriesCancelled() {
+        useUIWithAccessSupport();
+        AsyncDataProvider dataProvider = new AsyncDataProvider();
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, dataProvider.fetches.size());
+        Assert.assertTrue(dataProvider.fetches.get(0).isCancelled());
+        Assert.assertFalse(dataProvider.fetches.get(1).isCancelled());
+        Assert.assertEquals(2, dataProvider.counts.size());
+        Assert.assertTrue(dataProvider.counts.get(0).isCancelled());
+        Assert.assertFalse(dataProvider.counts.get(1).isCancelled());
+    }
+
+    @Test
+    public void asyncDataProviderWrapped_queriedAsynchronously() {
+        useUIWithAccessSupport();
+        AsyncDataProvider dataProvider = new AsyncDataProvider();
+        ConfigurableFilterDataProvider<Item, Void, Object> wrapper = dataProvider
+                .withConfigurableFilter();
+        wrapper.setFilter("filter");
+        dataCommunicator.setDataProvider(wrapper, null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertNull("Expected no items before the queries complete",
+                lastSet);
+        Assert.assertEquals(1, dataProvider.counts.size());
+        Assert.assertEquals(
+                Collections.singletonList(Range.withLength(0, 50)),
+                dataProvider.fetchedRanges);
+
+        dataProvider.complete(100);
+        runPendingAccessTasks();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(new Item(49), dataCommunicator.getItem(49));
+        Assert.assertEquals(0, dataProvider.synchronousCalls);
+    }
+
+    @Test
+    public void asyncDataProviderCachingWrapper_resultsCached() {
+        useUIWithAccessSupport();
+        AsyncDataProvider dataProvider = new AsyncDataProvider();
+        CachingDataProvider<Item, Object> cachingProvider = new CachingDataProvider<>(
+                dataProvider, 10);
+        dataCommunicator.setDataProvider(cachingProvider, null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        dataProvider.complete(100);
+        runPendingAccessTasks();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(2, cachingProvider.getCachedCount());
+        Assert.assertEquals(0, dataProvider.synchronousCalls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void asyncDataProviderFailed_synchronousQuery_throwsProviderException() {
+        AsyncDataProvider dataProvider = new AsyncDataProvider() {
+            @Override
+            protected CompletionStage<Integer> sizeInBackEndAsync(
+                    Query<Item, Object> query) {
+                return CompletableFuture
+                        .failedFuture(new IllegalArgumentException());
+            }
+        };
+        dataProvider.size(new Query<>());
+    }
+
+    /**
+     * Replaces the UI with one whose session runs access tasks, which the
+     * default mock session can't since its service has no configuration.
+     */
+    private void useUIWithAccessSupport() {
+        ui = new MockUI(new AlwaysLockedVaadinSession(new VaadinServletService(
+                new VaadinServlet(),
+                Mockito.mock(DeploymentConfiguration.class))));
+        ui.getElement().appendChild(element);
+        ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+        Mockito.when(arrayUpdater.startUpdate(Mockito.anyInt()))
+                .thenReturn(update);
+    }
+
+    private void runPendingAccessTasks() {
+        VaadinSession session = ui.getSession();
+        session.getService().runPendingAccessTasks(session);
+    }
+
+    /**
+     * Data provider whose queries complete when the test completes them.
+     */
+    private static class AsyncDataProvider
+            extends AbstractAsyncBackEndDataProvider<Item, Object> {
+        private final List<Range> fetchedRanges = new ArrayList<>();
+        private final List<CompletableFuture<Stream<Item>>> fetches = new ArrayList<>();
+        private final List<CompletableFuture<Integer>> counts = new ArrayList<>();
+        private int synchronousCalls;
+
+        @Override
+        protected CompletionStage<Stream<Item>> fetchFromBackEndAsync(
+                Query<Item, Object> query) {
+            fetchedRanges.add(
+                    Range.withLength(query.getOffset(), query.getLimit()));
+            CompletableFuture<Stream<Item>> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }
+
+        @Override
+        protected CompletionStage<Integer> sizeInBackEndAsync(
+                Query<Item, Object> query) {
+            CompletableFuture<Integer> count = new CompletableFuture<>();
+            counts.add(count);
+            return count;
+        }
+
+        @Override
+        public Stream<Item> fetch(Query<Item, Object> query) {
+            synchronousCalls++;
+            return super.fetch(query);
+        }
+
+        @Override
+        public int size(Query<Item, Object> query) {
+            synchronousCalls++;
+            return super.size(query);
+        }
+
+        private void complete(int size) {
+            counts.forEach(count -> count.complete(size));
+            for (int i = 0; i < fetches.size(); i++) {
+                Range range = fetchedRanges.get(i);
+                fetches.get(i).complete(IntStream
+                        .range(range.getStart(),
+                                Math.min(range.getEnd(), size))
+                        .mapToObj(Item::new));
+            }
+        }
+    }
+
     private AbstractDataProvider<Item, Object> createDataProvider() {
         return createDataProvider(100);
     }
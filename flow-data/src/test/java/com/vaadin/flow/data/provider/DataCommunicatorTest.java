@@ -650,6 +650,278 @@ public class DataCommunicatorTest {
         dataCommunicator.setItemCountEstimate(0);
     }
 
+    @Test
+    public void readAhead_scrollingDown_nextPageServedFromReadAhead() {
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+        dataCommunicator.setReadAheadExecutor(Runnable::run);
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+
+        // The page after the requested one has been read ahead
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+
+        dataCommunicator.setRequestedRange(2 * pageSize, pageSize);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(2 * pageSize, pageSize), lastSet);
+        Assert.assertEquals(2 * pageSize,
+                dataCommunicator.getItem(2 * pageSize).id);
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 3 * pageSize));
+    }
+
+    @Test
+    public void readAhead_pageUsed_pageReadAgainWhenRequestedAgain() {
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+        dataCommunicator.setReadAheadExecutor(Runnable::run);
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(2 * pageSize, pageSize);
+        fakeClientCommunication();
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(2 * pageSize, pageSize);
+        fakeClientCommunication();
+
+        // Served from the read ahead page once, then from the data provider
+        Mockito.verify(dataProvider, Mockito.times(2)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+    }
+
+    @Test
+    public void readAhead_readingPageFailed_failureThrownWhenPageUsed() {
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+        dataCommunicator.setReadAheadExecutor(Runnable::run);
+        IllegalStateException failure = new IllegalStateException(
+                "Page failed");
+        Mockito.doThrow(failure).when(dataProvider).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+
+        dataCommunicator.setRequestedRange(2 * pageSize, pageSize);
+        try {
+            fakeClientCommunication();
+            Assert.fail("Failure of the page read ahead was not thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e);
+        }
+        // Not fetched again from the data provider
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+    }
+
+    @Test
+    public void readAhead_reset_readAheadPagesDiscarded() {
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+        dataCommunicator.setReadAheadExecutor(Runnable::run);
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+
+        dataCommunicator.reset();
+        dataCommunicator.setRequestedRange(2 * pageSize, pageSize);
+        fakeClientCommunication();
+
+        Mockito.verify(dataProvider, Mockito.times(2)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+    }
+
+    @Test
+    public void readAhead_noExecutor_nothingReadAhead() {
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+
+        Mockito.verify(dataProvider, Mockito.never()).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+    }
+
+    @Test
+    public void readAhead_noExecutorSet_serviceExecutorUsed() {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getExecutor()).thenReturn(Runnable::run);
+        MockUI serviceUI = new MockUI(new AlwaysLockedVaadinSession(service));
+        element.removeFromParent();
+        serviceUI.getElement().appendChild(element);
+        ui = serviceUI;
+
+        AbstractDataProvider<Item, Object> dataProvider = Mockito
+                .spy(createDataProvider(500));
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setReadAheadPages(1);
+
+        dataCommunicator.setRequestedRange(0, pageSize);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(pageSize, pageSize);
+        fakeClientCommunication();
+
+        Mockito.verify(dataProvider, Mockito.times(1)).fetch(
+                Mockito.argThat(query -> query.getOffset() == 2 * pageSize));
+    }
+
+    @Test
+    public void fetchWithCount_supported_itemsAndCountFetchedInOneQuery() {
+        AtomicInteger fetchCalls = new AtomicInteger();
+        AtomicInteger countCalls = new AtomicInteger();
+        AtomicInteger fetchWithCountCalls = new AtomicInteger();
+        List<Item> items = IntStream.range(0, 30).mapToObj(Item::new)
+                .collect(Collectors.toList());
+        CallbackDataProvider<Item, Object> dataProvider = new CallbackDataProvider<>(
+                query -> {
+                    fetchCalls.incrementAndGet();
+                    return items.stream().skip(query.getOffset())
+                            .limit(query.getLimit());
+                }, query -> {
+                    countCalls.incrementAndGet();
+                    return items.size();
+                }, query -> {
+                    fetchWithCountCalls.incrementAndGet();
+                    return new ItemsWithCount<>(items.stream()
+                            .skip(query.getOffset()).limit(query.getLimit()),
+                            items.size());
+                }, item -> item.id);
+        dataCommunicator.setDataProvider(dataProvider, null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 30), lastSet);
+        Assert.assertEquals(new Item(29), dataCommunicator.getItem(29));
+        Assert.assertEquals(1, fetchWithCountCalls.get());
+        Assert.assertEquals(0, fetchCalls.get());
+        Assert.assertEquals(0, countCalls.get());
+    }
+
+    @Test
+    public void fetchWithCount_configurableFilterWrapper_forwardedWithFilter() {
+        AtomicInteger fetchWithCountCalls = new AtomicInteger();
+        List<Item> items = IntStream.range(0, 30).mapToObj(Item::new)
+                .collect(Collectors.toList());
+        CallbackDataProvider<Item, Integer> dataProvider = new CallbackDataProvider<>(
+                query -> {
+                    throw new AssertionError("Unexpected fetch");
+                }, query -> {
+                    throw new AssertionError("Unexpected count");
+                }, query -> {
+                    fetchWithCountCalls.incrementAndGet();
+                    int minId = query.getFilter().orElse(0);
+                    List<Item> filtered = items.stream()
+                            .filter(item -> item.id >= minId)
+                            .collect(Collectors.toList());
+                    return new ItemsWithCount<>(filtered.stream()
+                            .skip(query.getOffset()).limit(query.getLimit()),
+                            filtered.size());
+                }, item -> item.id);
+        ConfigurableFilterDataProvider<Item, Void, Integer> wrapper = dataProvider
+                .withConfigurableFilter();
+        wrapper.setFilter(20);
+        dataCommunicator.setDataProvider(wrapper, null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 10), lastSet);
+        Assert.assertEquals(new Item(20), dataCommunicator.getItem(0));
+        Assert.assertEquals(1, fetchWithCountCalls.get());
+    }
+
+    @Test
+    public void fetchWithCount_countCallbackSet_separateQueriesUsed() {
+        AtomicInteger fetchWithCountCalls = new AtomicInteger();
+        CallbackDataProvider<Item, Object> dataProvider = new CallbackDataProvider<>(
+                query -> IntStream
+                        .range(query.getOffset(),
+                                query.getOffset() + query.getLimit())
+                        .mapToObj(Item::new),
+                query -> 100, query -> {
+                    fetchWithCountCalls.incrementAndGet();
+                    return new ItemsWithCount<>(Stream.empty(), 0);
+                }, item -> item.id);
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setCountCallback(query -> 10);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 10), lastSet);
+        Assert.assertEquals(0, fetchWithCountCalls.get());
+    }
+
+    @Test
+    public void cachingDataProvider_twoCommunicatorsWithSorting_cacheShared() {
+        AtomicInteger fetchCalls = new AtomicInteger();
+        CachingDataProvider<Item, Object> dataProvider = new CachingDataProvider<>(
+                new CallbackDataProvider<>(query -> {
+                    fetchCalls.incrementAndGet();
+                    return IntStream
+                            .range(query.getOffset(),
+                                    query.getOffset() + query.getLimit())
+                            .mapToObj(Item::new);
+                }, query -> 100, item -> item.id), 10);
+        Element otherElement = new Element("div");
+        ui.getElement().appendChild(otherElement);
+        DataCommunicator<Item> otherCommunicator = new DataCommunicator<>(
+                dataGenerator, arrayUpdater, data -> {
+                }, otherElement.getNode());
+
+        for (DataCommunicator<Item> communicator : Arrays
+                .asList(dataCommunicator, otherCommunicator)) {
+            // Each component creates its own comparator instance
+            communicator.setBackEndSorting(QuerySortOrder.desc("id").build());
+            communicator.setInMemorySorting(
+                    (item1, item2) -> Integer.compare(item2.id, item1.id));
+            communicator.setDataProvider(dataProvider, null);
+            communicator.setRequestedRange(0, 50);
+        }
+        fakeClientCommunication();
+
+        Assert.assertEquals(1, fetchCalls.get());
+        Assert.assertEquals(new Item(0), otherCommunicator.getItem(0));
+        Assert.assertEquals(2, dataProvider.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setReadAheadPages_negative_throws() {
+        dataCommunicator.setReadAheadPages(-1);
+    }
+
     @Test
     public void getActiveItemOnIndex_activeRangeChanges_itemsReturned() {
         dataCommunicator.setDataProvider(createDataProvider(300), null);
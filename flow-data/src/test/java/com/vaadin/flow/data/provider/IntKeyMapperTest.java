@@ -0,0 +1,198 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntKeyMapperTest {
+
+    private final IntKeyMapper<StrBean> mapper = new IntKeyMapper<>(
+            StrBean::getId);
+
+    @Test
+    public void key_sameKeysAsKeyMapper() {
+        KeyMapper<StrBean> keyMapper = new KeyMapper<>(StrBean::getId);
+        for (StrBean bean : StrBean.generateRandomBeans(20)) {
+            Assert.assertEquals(keyMapper.key(bean), mapper.key(bean));
+        }
+        Assert.assertEquals("null", mapper.key(null));
+    }
+
+    @Test
+    public void key_mappedObject_sameKeyReturned() {
+        StrBean bean = new StrBean("foo", 1, 0);
+        String key = mapper.key(bean);
+
+        Assert.assertSame(key, mapper.key(new StrBean("bar", 1, 0)));
+        Assert.assertSame(bean, mapper.get(key));
+        Assert.assertTrue(mapper.has(bean));
+        Assert.assertEquals(1, mapper.size());
+    }
+
+    @Test
+    public void remove_keyDroppedAndNotReused() {
+        StrBean bean = new StrBean("foo", 1, 0);
+        String key = mapper.key(bean);
+
+        mapper.remove(bean);
+
+        Assert.assertFalse(mapper.has(bean));
+        Assert.assertFalse(mapper.containsKey(key));
+        Assert.assertNull(mapper.get(key));
+        Assert.assertNotEquals(key, mapper.key(bean));
+    }
+
+    @Test
+    public void get_invalidKeys_nullReturned() {
+        mapper.key(new StrBean("foo", 1, 0));
+
+        Assert.assertNull(mapper.get("01"));
+        Assert.assertNull(mapper.get("null"));
+        Assert.assertNull(mapper.get(""));
+        Assert.assertNull(mapper.get("-1"));
+        Assert.assertNull(mapper.get("1a"));
+        Assert.assertNull(mapper.get("99999999999"));
+        Assert.assertNull(mapper.get(null));
+    }
+
+    @Test
+    public void randomKeyAndRemove_behavesLikeKeyMapper() {
+        KeyMapper<StrBean> keyMapper = new KeyMapper<>(StrBean::getId);
+        List<StrBean> beans = StrBean.generateRandomBeans(1000);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            StrBean bean = beans.get(random.nextInt(beans.size()));
+            if (random.nextInt(3) == 0) {
+                keyMapper.remove(bean);
+                mapper.remove(bean);
+            } else {
+                Assert.assertEquals(keyMapper.key(bean), mapper.key(bean));
+            }
+        }
+        for (StrBean bean : beans) {
+            Assert.assertEquals(keyMapper.has(bean), mapper.has(bean));
+            if (keyMapper.has(bean)) {
+                String key = keyMapper.key(bean);
+                Assert.assertEquals(key, mapper.key(bean));
+                Assert.assertSame(keyMapper.get(key), mapper.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void removeAll_allKeysDropped() {
+        List<StrBean> beans = createBeans(100);
+        List<String> keys = new ArrayList<>();
+        beans.forEach(bean -> keys.add(mapper.key(bean)));
+
+        mapper.removeAll();
+
+        Assert.assertEquals(0, mapper.size());
+        keys.forEach(key -> Assert.assertNull(mapper.get(key)));
+        Assert.assertFalse(mapper.has(beans.get(0)));
+        Assert.assertEquals("101", mapper.key(beans.get(0)));
+    }
+
+    @Test
+    public void refresh_mappedObjectReplaced() {
+        String key = mapper.key(new StrBean("foo", 1, 0));
+        StrBean updated = new StrBean("bar", 1, 0);
+
+        mapper.refresh(updated);
+
+        Assert.assertSame(updated, mapper.get(key));
+    }
+
+    @Test
+    public void setIdentifierGetter_mappingsKept() {
+        List<StrBean> beans = createBeans(50);
+        List<String> keys = new ArrayList<>();
+        beans.forEach(bean -> keys.add(mapper.key(bean)));
+
+        mapper.setIdentifierGetter(StrBean::getValue);
+
+        Assert.assertEquals(keys.get(0),
+                mapper.key(new StrBean("Bean 0", -1, 0)));
+
+        for (int i = 0; i < beans.size(); i++) {
+            Assert.assertEquals(keys.get(i), mapper.key(beans.get(i)));
+            Assert.assertSame(beans.get(i), mapper.get(keys.get(i)));
+        }
+    }
+
+    @Test
+    public void setIdentifierGetter_sameNewIdentifier_formerKeyDropped() {
+        StrBean first = new StrBean("foo", 1, 0);
+        StrBean second = new StrBean("foo", 2, 0);
+        String firstKey = mapper.key(first);
+        String secondKey = mapper.key(second);
+
+        mapper.setIdentifierGetter(StrBean::getValue);
+
+        Assert.assertEquals(1, mapper.size());
+        Assert.assertNull(mapper.get(firstKey));
+        Assert.assertFalse(mapper.containsKey(firstKey));
+        Assert.assertSame(second, mapper.get(secondKey));
+        Assert.assertEquals(secondKey, mapper.key(first));
+
+        mapper.remove(second);
+
+        Assert.assertEquals(0, mapper.size());
+        Assert.assertNull(mapper.get(secondKey));
+    }
+
+    @Test
+    public void nullIdentifier_mapped() {
+        IntKeyMapper<StrBean> nullIdMapper = new IntKeyMapper<>(bean -> null);
+        StrBean bean = new StrBean("foo", 1, 0);
+        String key = nullIdMapper.key(bean);
+
+        Assert.assertTrue(nullIdMapper.has(bean));
+        Assert.assertSame(bean, nullIdMapper.get(key));
+
+        nullIdMapper.remove(bean);
+        Assert.assertFalse(nullIdMapper.has(bean));
+    }
+
+    @Test
+    public void serializable() {
+        IntKeyMapper<StrBean> serializableMapper = new IntKeyMapper<>();
+        StrBean bean = new StrBean("foo", 1, 0);
+        String key = serializableMapper.key(bean);
+
+        IntKeyMapper<StrBean> deserialized = SerializationUtils
+                .roundtrip(serializableMapper);
+
+        Assert.assertEquals(bean.getValue(),
+                deserialized.get(key).getValue());
+        Assert.assertTrue(deserialized.has(deserialized.get(key)));
+    }
+
+    private static List<StrBean> createBeans(int count) {
+        List<StrBean> beans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            beans.add(new StrBean("Bean " + i, i, 0));
+        }
+        return beans;
+    }
+}
@@ -15,9 +15,11 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.SerializationUtils;
@@ -25,6 +27,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.flow.function.SerializableComparator;
+import com.vaadin.flow.function.SerializablePredicate;
 
 public class ListDataProviderTest
         extends DataProviderTestBase<ListDataProvider<StrBean>> {
@@ -239,6 +242,164 @@ public class ListDataProviderTest
         getDataProvider().setSortComparator(serializableComp);
     }
 
+    @Test
+    public void materializedView_sameResultsAsWithoutView() {
+        ListDataProvider<StrBean> provider = createMaterializedDataProvider();
+        ListDataProvider<StrBean> reference = DataProvider
+                .ofCollection(new ArrayList<>(data));
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(
+                10, 20, null, Comparator.comparing(StrBean::getValue),
+                bean -> bean.getId() % 2 == 0);
+
+        for (ListDataProvider<StrBean> p : List.of(provider, reference)) {
+            p.setSortComparator((bean1, bean2) -> Integer
+                    .compare(bean1.getRandomNumber(), bean2.getRandomNumber()));
+            p.setFilter(bean -> bean.getId() > 10);
+        }
+
+        Assert.assertEquals(reference.size(query), provider.size(query));
+        Assert.assertEquals(reference.fetch(query).collect(Collectors.toList()),
+                provider.fetch(query).collect(Collectors.toList()));
+        Assert.assertEquals(reference.size(new Query<>()),
+                provider.size(new Query<>()));
+        Assert.assertEquals(
+                reference.fetch(new Query<>()).collect(Collectors.toList()),
+                provider.fetch(new Query<>()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void materializedView_refreshItem_itemMovedInView() {
+        ListDataProvider<StrBean> provider = createMaterializedDataProvider();
+        provider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+
+        StrBean bean = provider.fetch(new Query<>()).findFirst().get();
+        bean.setValue("\uffff");
+        provider.refreshItem(bean);
+
+        List<StrBean> items = provider.fetch(new Query<>())
+                .collect(Collectors.toList());
+        Assert.assertEquals(data.size(), items.size());
+        Assert.assertSame(bean, items.get(items.size() - 1));
+    }
+
+    @Test
+    public void materializedView_itemAddedAndRemoved_viewUpdated() {
+        ListDataProvider<StrBean> provider = createMaterializedDataProvider();
+        provider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+
+        StrBean bean = new StrBean("", 1000, 0);
+        provider.getItems().add(bean);
+        provider.refreshAdded(bean);
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+        Assert.assertSame(bean,
+                provider.fetch(new Query<>()).findFirst().get());
+
+        provider.getItems().remove(bean);
+        provider.refreshRemoved(bean);
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+        Assert.assertFalse(provider.fetch(new Query<>())
+                .anyMatch(item -> item == bean));
+    }
+
+    @Test
+    public void materializedView_itemAdded_overriddenRefreshAllCalled() {
+        AtomicInteger refreshes = new AtomicInteger();
+        ListDataProvider<StrBean> provider = new ListDataProvider<StrBean>(
+                data) {
+            @Override
+            public void refreshAll() {
+                refreshes.incrementAndGet();
+                super.refreshAll();
+            }
+        };
+        provider.setMaterializedViewEnabled(true);
+        provider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+        refreshes.set(0);
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+
+        StrBean bean = new StrBean("", 1000, 0);
+        provider.getItems().add(bean);
+        provider.refreshAdded(bean);
+
+        Assert.assertEquals(1, refreshes.get());
+        Assert.assertSame(bean,
+                provider.fetch(new Query<>()).findFirst().get());
+    }
+
+    @Test
+    public void materializedView_backendSizeChangedWithoutRefresh_viewRebuilt() {
+        ListDataProvider<StrBean> provider = createMaterializedDataProvider();
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+
+        data.add(new StrBean("Foo", 1000, 0));
+
+        Assert.assertEquals(data.size(), provider.size(new Query<>()));
+    }
+
+    @Test
+    public void parallelThreshold_sameResultsAsSequential() {
+        ListDataProvider<StrBean> provider = DataProvider.ofCollection(data);
+        ListDataProvider<StrBean> reference = DataProvider.ofCollection(data);
+        provider.setParallelThreshold(data.size());
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(
+                5, 30, null, Comparator.comparing(StrBean::getValue),
+                bean -> bean.getId() % 3 != 0);
+
+        for (ListDataProvider<StrBean> p : List.of(provider, reference)) {
+            p.setSortComparator((bean1, bean2) -> Integer
+                    .compare(bean1.getRandomNumber(), bean2.getRandomNumber()));
+        }
+
+        Assert.assertEquals(reference.size(query), provider.size(query));
+        Assert.assertEquals(reference.fetch(query).collect(Collectors.toList()),
+                provider.fetch(query).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void parallelThreshold_materializedView_sameResultsAsSequential() {
+        // Large enough for Arrays.parallelSort to split the work
+        List<StrBean> items = StrBean.generateRandomBeans(20000);
+        ListDataProvider<StrBean> provider = DataProvider.ofCollection(items);
+        ListDataProvider<StrBean> reference = DataProvider
+                .ofCollection(items);
+        provider.setMaterializedViewEnabled(true);
+        provider.setParallelThreshold(1000);
+
+        for (ListDataProvider<StrBean> p : List.of(provider, reference)) {
+            p.setSortComparator((bean1, bean2) -> Integer
+                    .compare(bean1.getRandomNumber(), bean2.getRandomNumber()));
+        }
+
+        Assert.assertEquals(
+                reference.fetch(new Query<>()).collect(Collectors.toList()),
+                provider.fetch(new Query<>()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void parallelThreshold_serializable() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        provider.setParallelThreshold(1);
+
+        ListDataProvider<StrBean> deserialized = SerializationUtils
+                .roundtrip(provider);
+
+        Assert.assertEquals(1, deserialized.getParallelThreshold());
+        Assert.assertEquals(data.size(), deserialized.size(new Query<>()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelThreshold_negative_throws() {
+        getDataProvider().setParallelThreshold(-1);
+    }
+
+    private ListDataProvider<StrBean> createMaterializedDataProvider() {
+        ListDataProvider<StrBean> provider = DataProvider.ofCollection(data);
+        provider.setMaterializedViewEnabled(true);
+        return provider;
+    }
+
     @Test
     public void serializableWithListeners() {
         ListDataProvider<StrBean> provider = getDataProvider();
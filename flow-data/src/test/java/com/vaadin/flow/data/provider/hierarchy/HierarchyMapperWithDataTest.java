@@ -22,6 +22,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -325,6 +326,174 @@ public class HierarchyMapperWithDataTest {
         Assert.assertTrue(streamIsClosed.get());
     }
 
+    @Test
+    public void expandAndCollapse_indexAndDepthMatchFlattenedHierarchy() {
+        expand(testData.get(0));
+        expand(testData.get(1));
+        expand(testData.get(4));
+        expand(roots.get(2));
+        collapse(testData.get(0));
+        expand(roots.get(4));
+        expand(testData.get(0));
+        checkMapSize();
+
+        List<Node> flattened = mapper
+                .fetchHierarchyItems(Range.withLength(0, mapper.getTreeSize()))
+                .collect(Collectors.toList());
+        for (Node node : testData) {
+            int index = flattened.indexOf(node);
+            assertEquals("Unexpected index for " + node, index,
+                    mapper.getIndex(node).intValue());
+            if (index >= 0) {
+                int depth = node.getParent() == null ? 0
+                        : node.getParent().getParent() == null ? 1 : 2;
+                assertEquals("Unexpected depth for " + node, depth,
+                        mapper.getDepth(node));
+            }
+        }
+        assertEquals(Integer.valueOf(flattened.indexOf(testData.get(1))),
+                mapper.getParentIndex(testData.get(2)));
+    }
+
+    @Test
+    public void fetchHierarchyItems_indexed_onlyNeededChildrenFetched() {
+        List<Integer> offsets = new ArrayList<>();
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(data) {
+            @Override
+            public Stream<Node> fetchChildren(
+                    HierarchicalQuery<Node, SerializablePredicate<Node>> query) {
+                offsets.add(query.getOffset());
+                return super.fetchChildren(query);
+            }
+        });
+        roots.forEach(mapper::expand);
+        mapper.expand(testData.get(1));
+
+        List<Node> expectedResult = testData.stream()
+                .filter(n -> n.getParent() == null
+                        || n.getParent().getParent() == null
+                        || n.getParent().equals(testData.get(1)))
+                .collect(Collectors.toList());
+        int size = mapper.getTreeSize();
+        assertEquals(expectedResult.size(), size);
+        for (int start = 0; start < size; start++) {
+            verifyFetchIsCorrect(expectedResult,
+                    Range.between(start, Math.min(start + 3, size)));
+        }
+
+        offsets.clear();
+        List<Node> lastItems = mapper
+                .fetchHierarchyItems(Range.between(size - 3, size))
+                .collect(Collectors.toList());
+        assertEquals(expectedResult.subList(size - 3, size), lastItems);
+        // Only the last root and its last three children are fetched
+        assertEquals(Arrays.asList(ROOT_COUNT - 1, PARENT_COUNT - 3),
+                offsets);
+    }
+
+    @Test
+    public void dataChanged_invalidateIndex_changedHierarchyUsed() {
+        expand(testData.get(0));
+        int size = mapper.getTreeSize();
+
+        Node newRoot = new Node(1000);
+        data.addItem(null, newRoot);
+        mapper.invalidateIndex();
+
+        assertEquals(size + 1, mapper.getTreeSize());
+        assertEquals(Integer.valueOf(size),
+                mapper.getIndexOf(newRoot).orElse(null));
+    }
+
+    @Test
+    public void dataChanged_changedChildrenFetched_indexDiscarded() {
+        expand(testData.get(0));
+        int size = mapper.getTreeSize();
+
+        data.addItem(null, new Node(1000));
+        mapper.fetchRootItems(Range.withLength(0, 100)).count();
+
+        assertEquals(size + 1, mapper.getTreeSize());
+    }
+
+    @Test
+    public void expand_indexed_childrenFetchedWhenIndexRead() {
+        AtomicInteger fetchCalls = new AtomicInteger();
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(data) {
+            @Override
+            public Stream<Node> fetchChildren(
+                    HierarchicalQuery<Node, SerializablePredicate<Node>> query) {
+                fetchCalls.incrementAndGet();
+                return super.fetchChildren(query);
+            }
+        });
+        assertEquals(ROOT_COUNT, mapper.getTreeSize());
+        fetchCalls.set(0);
+
+        mapper.expand(testData.get(0));
+        mapper.expand(testData.get(1));
+
+        assertEquals(0, fetchCalls.get());
+        assertEquals(ROOT_COUNT + PARENT_COUNT + LEAF_COUNT,
+                mapper.getTreeSize());
+        // Only the levels of the expanded items are fetched
+        assertEquals(2, fetchCalls.get());
+        assertEquals(Integer.valueOf(2),
+                mapper.getIndexOf(testData.get(2)).orElse(null));
+    }
+
+    @Test
+    public void childCountCaching_childCountsCachedUntilInvalidated() {
+        AtomicInteger countCalls = new AtomicInteger();
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(data) {
+            @Override
+            public int getChildCount(
+                    HierarchicalQuery<Node, SerializablePredicate<Node>> query) {
+                countCalls.incrementAndGet();
+                return super.getChildCount(query);
+            }
+        });
+        mapper.setChildCountCaching(true);
+        Node rootNode = testData.get(0);
+        mapper.expand(rootNode);
+
+        assertEquals(ROOT_COUNT, mapper.getRootSize());
+        assertEquals(ROOT_COUNT, mapper.getRootSize());
+        assertEquals(PARENT_COUNT, mapper.countChildItems(rootNode));
+        assertEquals(PARENT_COUNT, mapper.countChildItems(rootNode));
+        assertEquals(2, countCalls.get());
+
+        data.addItem(rootNode, new Node(1000, rootNode));
+        mapper.invalidateChildCount(rootNode);
+
+        assertEquals(PARENT_COUNT + 1, mapper.countChildItems(rootNode));
+        assertEquals(ROOT_COUNT, mapper.getRootSize());
+        assertEquals(3, countCalls.get());
+    }
+
+    @Test
+    public void childCountCaching_expand_childrenNotFetched() {
+        AtomicInteger fetchCalls = new AtomicInteger();
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(data) {
+            @Override
+            public Stream<Node> fetchChildren(
+                    HierarchicalQuery<Node, SerializablePredicate<Node>> query) {
+                fetchCalls.incrementAndGet();
+                return super.fetchChildren(query);
+            }
+        });
+        mapper.setChildCountCaching(true);
+        assertEquals(ROOT_COUNT, mapper.getTreeSize());
+        fetchCalls.set(0);
+
+        mapper.expand(testData.get(0));
+
+        assertEquals(0, fetchCalls.get());
+        assertEquals(ROOT_COUNT + PARENT_COUNT, mapper.getTreeSize());
+        // Only the level of the expanded item is fetched, not the root level
+        assertEquals(1, fetchCalls.get());
+    }
+
     private void expand(Node node) {
         insertRows(mapper.expand(node, mapper.getIndexOf(node).orElse(null)));
     }
@@ -16,17 +16,21 @@
 package com.vaadin.flow.data.provider.hierarchy;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Test;
 
 import com.vaadin.flow.data.provider.DataProviderTestBase;
@@ -220,6 +224,113 @@ public class TreeDataProviderTest
         assertEquals(stringData.getChildren("a/b"), Arrays.asList());
     }
 
+    @Test
+    public void treeData_add_items_with_parents() {
+        TreeData<String> stringData = new TreeData<>();
+        stringData.addItemsWithParents(
+                Arrays.asList("a/b/c", "b", "a/b", "a", "a/a"),
+                TreeDataProviderTest::getParentPath);
+
+        assertEquals(Arrays.asList("b", "a"), stringData.getRootItems());
+        assertEquals(Arrays.asList("a/b", "a/a"), stringData.getChildren("a"));
+        assertEquals(Arrays.asList("a/b/c"), stringData.getChildren("a/b"));
+
+        stringData.addItemsWithParents(Arrays.asList("a/b/d", "c"),
+                TreeDataProviderTest::getParentPath);
+
+        assertEquals(Arrays.asList("a/b/c", "a/b/d"),
+                stringData.getChildren("a/b"));
+        assertEquals(Arrays.asList("b", "a", "c"), stringData.getRootItems());
+    }
+
+    @Test
+    public void treeData_add_items_with_missing_parent_throws_and_adds_nothing() {
+        TreeData<String> stringData = new TreeData<>();
+        try {
+            stringData.addItemsWithParents(Arrays.asList("a", "b/c"),
+                    TreeDataProviderTest::getParentPath);
+        } catch (IllegalArgumentException expected) {
+            assertFalse(stringData.contains("a"));
+            return;
+        }
+        throw new AssertionError("Missing parent should not be accepted");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void treeData_add_items_with_cyclic_parents_throws() {
+        new TreeData<String>().addItemsWithParents(Arrays.asList("a", "b"),
+                item -> item.equals("a") ? "b" : "a");
+    }
+
+    @Test
+    public void treeData_deep_hierarchy_added_and_removed() {
+        TreeData<Integer> intData = new TreeData<>();
+        intData.addItems(Collections.singletonList(0),
+                item -> item < 100000 ? Collections.singletonList(item + 1)
+                        : Collections.emptyList());
+
+        assertEquals(Integer.valueOf(99999), intData.getParent(100000));
+
+        intData.removeItem(0);
+        assertTrue(intData.getRootItems().isEmpty());
+        assertFalse(intData.contains(100000));
+    }
+
+    @Test
+    public void treeData_children_view_is_live() {
+        StrBean root = rootData.get(0);
+        List<StrBean> children = data.getChildren(root);
+        StrBean child = children.get(4);
+
+        data.moveAfterSibling(child, null);
+        assertEquals(child, children.get(0));
+        assertEquals(0, children.indexOf(child));
+
+        data.setParent(child, null);
+        assertEquals(4, children.size());
+        assertEquals(-1, children.indexOf(child));
+        assertFalse(children.contains(child));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void treeData_children_removed_while_iterating_throws() {
+        StrBean root = rootData.get(0);
+        for (StrBean child : data.getChildren(root)) {
+            data.removeItem(child);
+        }
+    }
+
+    @Test
+    public void treeData_serializable() {
+        TreeData<StrBean> deserialized = SerializationUtils.roundtrip(data);
+
+        List<StrBean> roots = deserialized.getRootItems();
+        assertEquals(rootData.size(), roots.size());
+        for (int i = 0; i < roots.size(); i++) {
+            assertEquals(rootData.get(i).getValue(), roots.get(i).getValue());
+        }
+        StrBean root = roots.get(0);
+        assertEquals(5, deserialized.getChildren(root).size());
+        assertEquals(root, deserialized
+                .getParent(deserialized.getChildren(root).get(0)));
+    }
+
+    @Test
+    public void fetch_and_count_children_range_without_filter() {
+        HierarchicalQuery<StrBean, SerializablePredicate<StrBean>> query = new HierarchicalQuery<>(
+                3, 4, Collections.emptyList(), null, null, null);
+
+        assertEquals(rootData.subList(3, 7), getDataProvider()
+                .fetchChildren(query).collect(Collectors.toList()));
+        assertEquals(4, getDataProvider().getChildCount(query));
+
+        query = new HierarchicalQuery<>(8, 4, Collections.emptyList(), null,
+                null, null);
+        assertEquals(rootData.subList(8, 10), getDataProvider()
+                .fetchChildren(query).collect(Collectors.toList()));
+        assertEquals(2, getDataProvider().getChildCount(query));
+    }
+
     @Test
     public void filter_is_applied_to_children_provider_filter() {
         final SerializablePredicate<String> dataProviderFilter = item -> item
@@ -482,6 +593,11 @@ public class TreeDataProviderTest
         return flattened;
     }
 
+    private static String getParentPath(String path) {
+        int index = path.lastIndexOf('/');
+        return index < 0 ? null : path.substring(0, index);
+    }
+
     private HierarchicalQuery<StrBean, SerializablePredicate<StrBean>> createQuery(
             List<QuerySortOrder> sortOrder, Comparator<StrBean> comp,
             SerializablePredicate<StrBean> filter, StrBean parent) {
@@ -233,6 +233,121 @@ public interface DeploymentConfiguration
                 true);
     }
 
+    /**
+     * Checks whether UIDL responses should be written by streaming each state
+     * change directly to the response buffer instead of building the complete
+     * response as a JSON object first.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> to stream UIDL responses, <code>false</code> to
+     *         build them as JSON objects
+     */
+    default boolean isStreamingUidl() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_STREAMING_UIDL, false);
+    }
+
+    /**
+     * Checks whether state changes should be sent to the client as compact
+     * positional JSON arrays instead of JSON objects with named keys. The
+     * compact encoding reduces the payload size of responses containing many
+     * changes.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> to use the compact encoding, <code>false</code>
+     *         to use JSON objects
+     */
+    default boolean isCompactStateChanges() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_COMPACT_STATE_CHANGES, false);
+    }
+
+    /**
+     * Checks whether UIDL responses should be gzip compressed by the framework
+     * when the browser accepts gzip. Enable this only if the responses are not
+     * already compressed by the servlet container or a proxy.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> to compress UIDL responses, <code>false</code>
+     *         to send them uncompressed
+     */
+    default boolean isUidlCompression() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_UIDL_COMPRESSION, false);
+    }
+
+    /**
+     * Checks whether the session memory profiler is enabled. When enabled, a
+     * request with the request type parameter
+     * {@value com.vaadin.flow.shared.ApplicationConstants#REQUEST_TYPE_MEMORY_PROFILE}
+     * returns the approximate state tree footprint of the UIs in the
+     * requesting session.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> if the memory profiler is enabled,
+     *         <code>false</code> otherwise
+     */
+    default boolean isMemoryProfilerEnabled() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_MEMORY_PROFILER, false);
+    }
+
+    /**
+     * Checks whether session locks should use a fair ordering policy. With a
+     * fair lock, requests and {@code UI.access} tasks from different browser
+     * tabs of the same user acquire the session lock in the order they started
+     * waiting for it, instead of a thread that just released the lock being
+     * able to take it again ahead of the waiting ones. Fairness only orders
+     * the waiting threads: a long-running request or access task still blocks
+     * every other tab of the session until it releases the lock. Fair locks
+     * have lower throughput.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> to use fair session locks, <code>false</code>
+     *         otherwise
+     */
+    default boolean isSessionLockFair() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_SESSION_LOCK_FAIR, false);
+    }
+
+    /**
+     * Checks whether session lock wait and hold times should be collected.
+     * <p>
+     * By default it is <code>false</code>.
+     *
+     * @return <code>true</code> to collect session lock metrics,
+     *         <code>false</code> otherwise
+     * @see com.vaadin.flow.server.VaadinService#getSessionLockMetrics()
+     */
+    default boolean isSessionLockMetricsEnabled() {
+        return getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_SESSION_LOCK_METRICS, false);
+    }
+
+    /**
+     * Gets the number of milliseconds during which access tasks enqueued for a
+     * session that is not locked are collected before they are run. All tasks
+     * collected during the window are run under the same session lock and the
+     * resulting changes are pushed as one message.
+     * <p>
+     * By default it is <code>0</code>, which runs the tasks right away.
+     *
+     * @return the coalescing window in milliseconds, <code>0</code> to disable
+     *         coalescing
+     * @see com.vaadin.flow.server.VaadinService#ensureAccessQueuePurged(com.vaadin.flow.server.VaadinSession)
+     */
+    default int getAccessCoalescingWindow() {
+        return getApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_COALESCING_WINDOW, 0,
+                Integer::parseInt);
+    }
+
     default String getCompiledWebComponentsPath() {
         return getStringProperty(InitParameters.COMPILED_WEB_COMPONENTS_PATH,
                 "vaadin-web-components");
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Utility class for compressing data in the gzip format.
+ * <p>
+ * {@link Deflater} instances hold native buffers which are expensive to
+ * allocate, so the deflaters used for compressing are reset and reused between
+ * invocations instead of being created for each compressed payload like
+ * {@link java.util.zip.GZIPOutputStream} does.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class GzipUtil {
+
+    private static final int MAX_POOLED_DEFLATERS = 16;
+
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+            0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private static final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(
+            MAX_POOLED_DEFLATERS);
+
+    private GzipUtil() {
+        // Static helpers only
+    }
+
+    /**
+     * Compresses the given data in the gzip format using the default
+     * compression level.
+     *
+     * @param data
+     *            the data to compress, not {@code null}
+     * @return the gzip compressed data
+     */
+    public static byte[] gzip(byte[] data) {
+        return gzip(data, 0, data.length);
+    }
+
+    /**
+     * Compresses a part of the given data in the gzip format using the default
+     * compression level.
+     *
+     * @param data
+     *            the data to compress, not {@code null}
+     * @param offset
+     *            the offset of the first byte to compress
+     * @param length
+     *            the number of bytes to compress
+     * @return the gzip compressed data
+     */
+    public static byte[] gzip(byte[] data, int offset, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                Math.max(64, length / 4));
+        out.write(HEADER, 0, HEADER.length);
+
+        Deflater deflater = acquireDeflater();
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[Math.min(Math.max(length, 64), 8192)];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+        } finally {
+            releaseDeflater(deflater);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        writeInt(out, (int) crc.getValue());
+        writeInt(out, length);
+        return out.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        // gzip uses little endian for the trailer values
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private static Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            // nowrap, the gzip header and trailer are written separately
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        return deflater;
+    }
+
+    private static void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -60,6 +62,27 @@ public class MessageDigestUtil {
         return getSha256().digest(string.getBytes(charset));
     }
 
+    /**
+     * Calculates the SHA-256 hash of the contents of the given stream. The
+     * stream is read to the end but not closed.
+     *
+     * @param stream
+     *            the stream to hash
+     *
+     * @return 32 bytes making up the hash
+     * @throws IOException
+     *             if reading the stream fails
+     */
+    public static byte[] sha256(InputStream stream) throws IOException {
+        MessageDigest digest = getSha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) >= 0) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
     private static MessageDigest getSha256() {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
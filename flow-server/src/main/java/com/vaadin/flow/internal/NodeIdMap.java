@@ -0,0 +1,186 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+
+/**
+ * Map from node ids to the nodes registered in a {@link StateTree}.
+ * <p>
+ * Uses open addressing with linear probing over primitive arrays, so that
+ * registering and looking up nodes doesn't box the id and each registered node
+ * costs an array slot instead of a hash map entry. Node ids are handed out
+ * sequentially, so using the id itself as the hash spreads them evenly.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+final class NodeIdMap implements Serializable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // 0 marks an empty slot since node ids are always positive
+    private int[] ids = new int[MIN_CAPACITY];
+
+    private StateNode[] nodes = new StateNode[MIN_CAPACITY];
+
+    private int size;
+
+    /**
+     * Gets the node with the given id.
+     *
+     * @param id
+     *            the node id
+     * @return the node with the given id, or <code>null</code> if there is no
+     *         such node
+     */
+    StateNode get(int id) {
+        int index = indexOf(id);
+        return index < 0 ? null : nodes[index];
+    }
+
+    /**
+     * Checks whether there is a node with the given id.
+     *
+     * @param id
+     *            the node id
+     * @return <code>true</code> if there is a node with the given id,
+     *         <code>false</code> otherwise
+     */
+    boolean containsKey(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Associates the given node with the given id.
+     *
+     * @param id
+     *            the node id, must be positive
+     * @param node
+     *            the node, not <code>null</code>
+     * @return the node previously associated with the id, or <code>null</code>
+     *         if there was none
+     */
+    StateNode put(int id, StateNode node) {
+        assert id > 0 : "Node id must be positive";
+        assert node != null;
+
+        if ((size + 1) * 4 > ids.length * 3) {
+            resize(ids.length * 2);
+        }
+
+        int mask = ids.length - 1;
+        int index = id & mask;
+        while (ids[index] != 0) {
+            if (ids[index] == id) {
+                StateNode previous = nodes[index];
+                nodes[index] = node;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        ids[index] = id;
+        nodes[index] = node;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the node with the given id.
+     *
+     * @param id
+     *            the node id
+     * @return the removed node, or <code>null</code> if there was no node with
+     *         the given id
+     */
+    StateNode remove(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        StateNode removed = nodes[index];
+
+        /*
+         * Shift following entries of the same probe sequence back into the hole
+         * so that lookups never need to skip over removed slots.
+         */
+        int mask = ids.length - 1;
+        int hole = index;
+        for (int i = (index + 1) & mask; ids[i] != 0; i = (i + 1) & mask) {
+            int home = ids[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                ids[hole] = ids[i];
+                nodes[hole] = nodes[i];
+                hole = i;
+            }
+        }
+        ids[hole] = 0;
+        nodes[hole] = null;
+        size--;
+
+        if (ids.length > MIN_CAPACITY && size * 8 < ids.length) {
+            resize(ids.length / 2);
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of nodes in this map.
+     *
+     * @return the number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    private int indexOf(int id) {
+        if (id <= 0) {
+            return -1;
+        }
+        int mask = ids.length - 1;
+        int index = id & mask;
+        while (ids[index] != 0) {
+            if (ids[index] == id) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        StateNode[] oldNodes = nodes;
+
+        ids = new int[capacity];
+        nodes = new StateNode[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            int id = oldIds[i];
+            if (id != 0) {
+                int index = id & mask;
+                while (ids[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                ids[index] = id;
+                nodes[index] = oldNodes[i];
+            }
+        }
+    }
+}
@@ -22,16 +22,27 @@ import static com.vaadin.flow.server.Constants.VAADIN_WEBAPP_RESOURCES;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Locale;
 import java.util.Stack;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -74,6 +85,30 @@ public class ResponseWriter implements Serializable {
      */
     private static final int MAX_OVERLAPPING_RANGE_COUNT = 2;
 
+    /**
+     * Request attributes of the sendfile support of Tomcat, which lets the
+     * container write a file directly to the socket.
+     */
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Minimum size of a file to be written with sendfile, smaller files are
+     * faster to write directly.
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /**
+     * Classes of the request and response objects that Tomcat passes to
+     * servlets. Like in Tomcat's DefaultServlet, sendfile is only used when
+     * they are not wrapped, since the container would otherwise bypass any
+     * wrapper that compresses, buffers or inspects the response body.
+     */
+    private static final String TOMCAT_REQUEST_FACADE = "org.apache.catalina.connector.RequestFacade";
+    private static final String TOMCAT_RESPONSE_FACADE = "org.apache.catalina.connector.ResponseFacade";
+
     private static final ConcurrentHashMap<String, Integer> utf8EncodingByDefault = new ConcurrentHashMap<>();
     static {
         utf8EncodingByDefault.put("application/json", 1);
@@ -125,6 +160,110 @@ public class ResponseWriter implements Serializable {
     public void writeResponseContents(String filenameWithPath, URL resourceUrl,
             HttpServletRequest request, HttpServletResponse response)
             throws IOException {
+        writeResponseContents(filenameWithPath, resourceUrl,
+                extension -> findPrecompressedResource(request,
+                        filenameWithPath, extension),
+                request, response);
+    }
+
+    /**
+     * Writes the contents and content type (if available) of the given
+     * resourceUrl to the response, like
+     * {@link #writeResponseContents(String, URL, HttpServletRequest, HttpServletResponse)},
+     * but using the given precompressed variants of the resource instead of
+     * looking them up.
+     *
+     * @param filenameWithPath
+     *            the name of the file being sent
+     * @param resourceUrl
+     *            the URL to the file, reported by the servlet container
+     * @param brotliResourceUrl
+     *            the URL to the Brotli compressed variant of the file, or
+     *            <code>null</code> if there is none
+     * @param gzippedResourceUrl
+     *            the URL to the gzipped variant of the file, or
+     *            <code>null</code> if there is none
+     * @param request
+     *            the request object to read from
+     * @param response
+     *            the response object to write to
+     * @throws IOException
+     *             if the servlet container threw an exception while locating
+     *             the resource
+     * @see #findPrecompressedResource(HttpServletRequest, String, String)
+     */
+    public void writeResponseContents(String filenameWithPath, URL resourceUrl,
+            URL brotliResourceUrl, URL gzippedResourceUrl,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        writeResponseContents(filenameWithPath, resourceUrl,
+                extension -> ".br".equals(extension) ? brotliResourceUrl
+                        : gzippedResourceUrl,
+                request, response);
+    }
+
+    /**
+     * Writes the given contents, compressed with the given encoding, and the
+     * content type (if available) of the given file to the response.
+     *
+     * @param filenameWithPath
+     *            the name of the file being sent
+     * @param compressedContents
+     *            the compressed contents of the file
+     * @param contentEncoding
+     *            the content encoding of the contents, e.g. <code>gzip</code>
+     * @param request
+     *            the request object to read from
+     * @param response
+     *            the response object to write to
+     * @throws IOException
+     *             if writing the response fails
+     */
+    public void writeResponseContents(String filenameWithPath,
+            byte[] compressedContents, String contentEncoding,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        writeContentType(filenameWithPath, request, response);
+        response.setHeader("Content-Encoding", contentEncoding);
+        response.setHeader("Vary", "Accept-Encoding");
+        setContentLength(response, compressedContents.length);
+        try {
+            response.getOutputStream().write(compressedContents);
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        }
+    }
+
+    /**
+     * Looks up a precompressed variant of the given file, i.e. the file with
+     * the given extension appended, like
+     * {@link #writeResponseContents(String, URL, HttpServletRequest, HttpServletResponse)}
+     * does.
+     *
+     * @param request
+     *            the request for the file
+     * @param filenameWithPath
+     *            the name of the file
+     * @param extension
+     *            the extension of the variant, <code>.br</code> or
+     *            <code>.gz</code>
+     * @return the URL to the variant or <code>null</code> if there is none
+     */
+    public URL findPrecompressedResource(HttpServletRequest request,
+            String filenameWithPath, String extension) {
+        try {
+            return getResource(request, filenameWithPath + extension);
+        } catch (MalformedURLException e) {
+            getLogger().debug("Unable to look up precompressed resource {}",
+                    filenameWithPath + extension, e);
+            return null;
+        }
+    }
+
+    private void writeResponseContents(String filenameWithPath,
+            URL resourceUrl, Function<String, URL> precompressedResources,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         writeContentType(filenameWithPath, request, response);
 
         URL url = null;
@@ -134,7 +273,7 @@ public class ResponseWriter implements Serializable {
         if (brotliEnabled && acceptsBrotliResource(request)) {
             String brotliFilenameWithPath = filenameWithPath + ".br";
             try {
-                url = getResource(request, brotliFilenameWithPath);
+                url = precompressedResources.apply(".br");
                 if (url != null) {
                     connection = url.openConnection();
                     dataStream = connection.getInputStream();
@@ -151,7 +290,7 @@ public class ResponseWriter implements Serializable {
             // try to serve a gzipped version if available
             String gzippedFilenameWithPath = filenameWithPath + ".gz";
             try {
-                url = getResource(request, gzippedFilenameWithPath);
+                url = precompressedResources.apply(".gz");
                 if (url != null) {
                     connection = url.openConnection();
                     dataStream = connection.getInputStream();
@@ -175,10 +314,22 @@ public class ResponseWriter implements Serializable {
 
         try {
             String range = request.getHeader("Range");
-            if (range != null) {
+            Path file = getFile(url);
+            if (file != null) {
+                // Written from the file channel instead
                 closeStream(dataStream);
                 dataStream = null;
-                writeRangeContents(range, response, url);
+            }
+            if (range != null) {
+                if (dataStream != null) {
+                    closeStream(dataStream);
+                    dataStream = null;
+                }
+                writeRangeContents(range, request, response, url, file);
+            } else if (file != null) {
+                long contentLength = Files.size(file);
+                setContentLength(response, contentLength);
+                writeFileContents(file, 0L, contentLength, request, response);
             } else {
                 final long contentLength = connection.getContentLengthLong();
                 if (0 <= contentLength) {
@@ -213,11 +364,13 @@ public class ResponseWriter implements Serializable {
      * https://developer.mozilla.org/en-US/docs/Web/HTTP/Range_requests for
      * protocol details.
      */
-    private void writeRangeContents(String range, HttpServletResponse response,
-            URL resourceURL) throws IOException {
+    private void writeRangeContents(String range, HttpServletRequest request,
+            HttpServletResponse response, URL resourceURL, Path file)
+            throws IOException {
         response.setHeader("Accept-Ranges", "bytes");
 
-        URLConnection connection = resourceURL.openConnection();
+        URLConnection connection = file == null ? resourceURL.openConnection()
+                : null;
 
         Matcher headerMatcher = RANGE_HEADER_PATTERN.matcher(range);
         if (!headerMatcher.matches()) {
@@ -227,7 +380,8 @@ public class ResponseWriter implements Serializable {
         }
         String byteRanges = headerMatcher.group(1);
 
-        long resourceLength = connection.getContentLengthLong();
+        long resourceLength = file == null ? connection.getContentLengthLong()
+                : Files.size(file);
         Matcher rangeMatcher = BYTE_RANGE_PATTERN.matcher(byteRanges);
 
         Stack<Pair<Long, Long>> ranges = new Stack<>();
@@ -280,6 +434,11 @@ public class ResponseWriter implements Serializable {
             response.setHeader("Content-Range",
                     createContentRangeHeader(start, end, resourceLength));
 
+            if (file != null) {
+                writeFileContents(file, start, end - start + 1, request,
+                        response);
+                return;
+            }
             final InputStream dataStream = connection.getInputStream();
             try {
                 long skipped = dataStream.skip(start);
@@ -288,6 +447,8 @@ public class ResponseWriter implements Serializable {
             } finally {
                 closeStream(dataStream);
             }
+        } else if (file != null) {
+            writeMultipartRangeContents(ranges, file, response);
         } else {
             writeMultipartRangeContents(ranges, connection, response,
                     resourceURL);
@@ -348,6 +509,123 @@ public class ResponseWriter implements Serializable {
                 .getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Writes a multipart range response like
+     * {@link #writeMultipartRangeContents(List, URLConnection, HttpServletResponse, URL)}
+     * but transferring the ranges directly from the file channel, which needs
+     * no reopening for out-of-sequence ranges.
+     */
+    private void writeMultipartRangeContents(List<Pair<Long, Long>> ranges,
+            Path file, HttpServletResponse response) throws IOException {
+        String partBoundary = UUID.randomUUID().toString();
+        response.setContentType(String
+                .format("multipart/byteranges; boundary=%s", partBoundary));
+        response.setHeader("Transfer-Encoding", "chunked");
+
+        String mimeType = response.getContentType();
+        ServletOutputStream outputStream = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (Pair<Long, Long> rangePair : ranges) {
+                outputStream.write(String.format("\r\n--%s\r\n", partBoundary)
+                        .getBytes(StandardCharsets.UTF_8));
+                long start = rangePair.getFirst();
+                long end = Math.min(rangePair.getSecond(), size - 1);
+                if (mimeType != null) {
+                    outputStream.write(
+                            String.format("Content-Type: %s\r\n", mimeType)
+                                    .getBytes(StandardCharsets.UTF_8));
+                }
+                outputStream.write(String
+                        .format("Content-Range: %s\r\n\r\n",
+                                createContentRangeHeader(start, end, size))
+                        .getBytes(StandardCharsets.UTF_8));
+                transferFileContents(channel, start, end - start + 1,
+                        outputStream);
+            }
+        }
+        outputStream.write(String.format("\r\n--%s", partBoundary)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the given part of a file into the response, either by letting
+     * the container send it with sendfile if it supports that and neither the
+     * request nor the response is wrapped, or by transferring it from the file
+     * channel.
+     */
+    private void writeFileContents(Path file, long start, long count,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (count >= SENDFILE_MIN_SIZE
+                && isInstanceOf(request, TOMCAT_REQUEST_FACADE)
+                && isInstanceOf(response, TOMCAT_RESPONSE_FACADE)
+                && Boolean.TRUE.equals(
+                        request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            // The container writes the file after the request has been
+            // handled, the content length must have been set
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE,
+                    file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            transferFileContents(channel, start, count,
+                    response.getOutputStream());
+        }
+    }
+
+    private static boolean isInstanceOf(Object object, String className) {
+        // Checked by name since Tomcat is not a dependency
+        for (Class<?> type = object.getClass(); type != null; type = type
+                .getSuperclass()) {
+            if (type.getName().equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void transferFileContents(FileChannel channel, long start,
+            long count, OutputStream outputStream) throws IOException {
+        // Not closed since that would close the output stream
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        long position = start;
+        long end = Math.min(start + count, channel.size());
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position,
+                    target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Gets the file of the given resource if it is a regular file on the
+     * default file system, e.g. in an exploded WAR.
+     *
+     * @return the file or <code>null</code> if the resource is not a file
+     */
+    private Path getFile(URL resourceUrl) {
+        if (!"file".equals(resourceUrl.getProtocol())) {
+            return null;
+        }
+        try {
+            Path file = Paths.get(resourceUrl.toURI());
+            return Files.isRegularFile(file) ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException
+                | FileSystemNotFoundException | SecurityException e) {
+            getLogger().trace("Unable to get file for resource {}",
+                    resourceUrl, e);
+            return null;
+        }
+    }
+
     private String createContentRangeHeader(long start, long end, long size) {
         String lengthString = size >= 0 ? Long.toString(size) : "*";
         return String.format("bytes %d-%d/%s", start, end, lengthString);
@@ -474,7 +752,22 @@ public class ResponseWriter implements Serializable {
 
     private static boolean acceptsEncoding(HttpServletRequest request,
             String encodingName) {
-        String accept = request.getHeader("Accept-Encoding");
+        return acceptsEncoding(request.getHeader("Accept-Encoding"),
+                encodingName);
+    }
+
+    /**
+     * Checks whether the given {@code Accept-Encoding} header value allows
+     * responses using the given content encoding.
+     *
+     * @param accept
+     *            the value of the {@code Accept-Encoding} request header, or
+     *            {@code null} if the header is not present
+     * @param encodingName
+     *            the name of the encoding to check, e.g. {@code gzip}
+     * @return {@code true} if the encoding is accepted, {@code false} otherwise
+     */
+    public static boolean acceptsEncoding(String accept, String encodingName) {
         if (accept == null) {
             return false;
         }
@@ -179,6 +179,14 @@ public class StateNode implements Serializable {
     private ArrayList<StateTree.BeforeClientResponseEntry> beforeClientResponseEntries;
     private boolean enabled = true;
 
+    /*
+     * The tree whose dirty node queue currently contains this node and whether
+     * the node is part of the changes currently being collected by that tree.
+     * Kept here so that StateTree doesn't need a hash set entry per dirty node.
+     */
+    private NodeOwner dirtyQueueOwner;
+    private boolean collectingChanges;
+
     /**
      * Creates a state node with the given feature types.
      *
@@ -373,7 +381,13 @@ public class StateNode implements Serializable {
         forEachFeature(n -> n.forEachChild(action));
     }
 
-    private void forEachFeature(Consumer<NodeFeature> action) {
+    /**
+     * Executes the given action for each initialized feature of this node.
+     *
+     * @param action
+     *            the action to execute, not {@code null}
+     */
+    void forEachFeature(Consumer<NodeFeature> action) {
         getInitializedFeatures().forEach(action::accept);
     }
 
@@ -599,6 +613,49 @@ public class StateNode implements Serializable {
         return id;
     }
 
+    /**
+     * Gets the owner whose dirty node queue currently contains this node.
+     *
+     * @return the owner, or <code>null</code> if the node is not queued
+     */
+    NodeOwner getDirtyQueueOwner() {
+        return dirtyQueueOwner;
+    }
+
+    /**
+     * Sets the owner whose dirty node queue currently contains this node.
+     *
+     * @param dirtyQueueOwner
+     *            the owner, or <code>null</code> if the node is no longer
+     *            queued
+     */
+    void setDirtyQueueOwner(NodeOwner dirtyQueueOwner) {
+        this.dirtyQueueOwner = dirtyQueueOwner;
+    }
+
+    /**
+     * Checks whether the changes of this node are currently being collected by
+     * its owner.
+     *
+     * @return <code>true</code> if the changes are being collected,
+     *         <code>false</code> otherwise
+     */
+    boolean isCollectingChanges() {
+        return collectingChanges;
+    }
+
+    /**
+     * Sets whether the changes of this node are currently being collected by
+     * its owner.
+     *
+     * @param collectingChanges
+     *            <code>true</code> if the changes are being collected,
+     *            <code>false</code> otherwise
+     */
+    void setCollectingChanges(boolean collectingChanges) {
+        this.collectingChanges = collectingChanges;
+    }
+
     /**
      * Marks this node as dirty.
      *
@@ -17,13 +17,12 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -157,9 +156,21 @@ public class StateTree implements NodeOwner {
         void remove();
     }
 
-    private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
+    /*
+     * Dirty nodes in the order they were marked dirty. Duplicates are avoided
+     * through StateNode.getDirtyQueueOwner() instead of a hash set.
+     */
+    private ArrayList<StateNode> dirtyNodes = new ArrayList<>();
+
+    /*
+     * Cleared lists kept between flushes so that collecting changes does not
+     * allocate new lists every time. dirtyNodes is swapped with the spare list
+     * when the dirty nodes are taken.
+     */
+    private transient ArrayList<StateNode> spareDirtyNodes;
+    private transient ArrayList<StateNode> allDirtyNodes;
 
-    private final Map<Integer, StateNode> idToNode = new HashMap<>();
+    private final NodeIdMap idToNode = new NodeIdMap();
 
     private int nextId = 1;
 
@@ -233,7 +244,7 @@ public class StateTree implements NodeOwner {
     public void unregister(StateNode node) {
         assert node.getOwner() == this;
 
-        Integer id = node.getId();
+        int id = node.getId();
 
         StateNode removedNode = idToNode.remove(id);
 
@@ -283,20 +294,40 @@ public class StateTree implements NodeOwner {
      *            a consumer accepting node changes
      */
     public void collectChanges(Consumer<NodeChange> collector) {
-        Set<StateNode> allDirtyNodes = new LinkedHashSet<>();
+        // Taken from the field while in use, in case the collector collects
+        // changes of this tree again
+        ArrayList<StateNode> allDirtyNodes = this.allDirtyNodes != null
+                ? this.allDirtyNodes
+                : new ArrayList<>();
+        this.allDirtyNodes = null;
         boolean evaluateNewDirtyNodes = true;
 
-        // The updateActiveState method can create new dirty nodes, so they need
-        // to be collected as well
-        while (evaluateNewDirtyNodes) {
-            Set<StateNode> dirtyNodesSet = doCollectDirtyNodes(true);
-            dirtyNodesSet.forEach(StateNode::updateActiveState);
-            evaluateNewDirtyNodes = allDirtyNodes.addAll(dirtyNodesSet);
-        }
+        try {
+            // The updateActiveState method can create new dirty nodes, so they
+            // need to be collected as well
+            while (evaluateNewDirtyNodes) {
+                ArrayList<StateNode> dirtyNodesList = takeDirtyNodes();
+                evaluateNewDirtyNodes = false;
+                for (StateNode node : dirtyNodesList) {
+                    if (!node.isCollectingChanges()) {
+                        node.setCollectingChanges(true);
+                        allDirtyNodes.add(node);
+                        evaluateNewDirtyNodes = true;
+                    }
+                }
+                dirtyNodesList.forEach(StateNode::updateActiveState);
+                dirtyNodesList.clear();
+                spareDirtyNodes = dirtyNodesList;
+            }
 
-        // TODO fire preCollect events
+            // TODO fire preCollect events
 
-        allDirtyNodes.forEach(node -> node.collectChanges(collector));
+            allDirtyNodes.forEach(node -> node.collectChanges(collector));
+        } finally {
+            allDirtyNodes.forEach(node -> node.setCollectingChanges(false));
+            allDirtyNodes.clear();
+            this.allDirtyNodes = allDirtyNodes;
+        }
     }
 
     @Override
@@ -304,7 +335,10 @@ public class StateTree implements NodeOwner {
         assert node.getOwner() == this;
         checkHasLock();
 
-        dirtyNodes.add(node);
+        if (node.getDirtyQueueOwner() != this) {
+            node.setDirtyQueueOwner(this);
+            dirtyNodes.add(node);
+        }
     }
 
     /**
@@ -313,7 +347,7 @@ public class StateTree implements NodeOwner {
      * @return a set of dirty nodes, in the order they were marked dirty
      */
     public Set<StateNode> collectDirtyNodes() {
-        return doCollectDirtyNodes(false);
+        return Collections.unmodifiableSet(new LinkedHashSet<>(dirtyNodes));
     }
 
     /**
@@ -456,21 +490,22 @@ public class StateTree implements NodeOwner {
     }
 
     /**
-     * Gets all the nodes that have been marked as dirty.
-     * <p>
-     * If {@code reset} is {@code true} then dirty nodes collection is reset.
+     * Takes all the nodes that have been marked as dirty and resets the dirty
+     * nodes collection, so that the nodes can be marked dirty again.
      *
-     * @return a set of dirty nodes, in the order they were marked dirty
+     * @return a list of dirty nodes, in the order they were marked dirty
      */
-    private Set<StateNode> doCollectDirtyNodes(boolean reset) {
-        if (reset) {
-            Set<StateNode> collectedNodes = dirtyNodes;
-            dirtyNodes = new LinkedHashSet<>();
-            return collectedNodes;
-        } else {
-            return Collections.unmodifiableSet(dirtyNodes);
+    private ArrayList<StateNode> takeDirtyNodes() {
+        ArrayList<StateNode> collectedNodes = dirtyNodes;
+        dirtyNodes = spareDirtyNodes != null ? spareDirtyNodes
+                : new ArrayList<>();
+        spareDirtyNodes = null;
+        for (StateNode node : collectedNodes) {
+            if (node.getDirtyQueueOwner() == this) {
+                node.setDirtyQueueOwner(null);
+            }
         }
-
+        return collectedNodes;
     }
 
     /**
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+
+/**
+ * Approximate memory footprint of state nodes, broken down by node feature
+ * type.
+ * <p>
+ * The sizes are estimated from the data structures used by the nodes and their
+ * features, assuming a 64-bit JVM with compressed object pointers. They are
+ * meant for comparing UIs or application versions with each other, not for
+ * exact accounting.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class StateTreeFootprint implements Serializable {
+
+    /**
+     * Approximate size of a {@link StateNode} instance without its features.
+     */
+    public static final long NODE_SIZE = 64;
+
+    private int nodeCount;
+
+    private long totalSize;
+
+    private final Map<Class<? extends NodeFeature>, Long> featureSizes = new HashMap<>();
+
+    /**
+     * Measures all nodes in the given state tree.
+     *
+     * @param tree
+     *            the state tree to measure, not <code>null</code>
+     * @return the footprint of the tree, not <code>null</code>
+     */
+    public static StateTreeFootprint of(StateTree tree) {
+        StateTreeFootprint footprint = new StateTreeFootprint();
+        tree.getRootNode().visitNodeTree(footprint::add);
+        return footprint;
+    }
+
+    /**
+     * Adds the given node, but not its descendants, to this footprint.
+     *
+     * @param node
+     *            the node to add, not <code>null</code>
+     * @return the approximate size of the node and its features in bytes
+     */
+    public long add(StateNode node) {
+        List<NodeFeature> features = new ArrayList<>();
+        node.forEachFeature(features::add);
+
+        long nodeSize = NODE_SIZE;
+        if (features.size() > 1) {
+            // Multiple features are stored in an array
+            nodeSize += align(16 + 4L * features.size());
+        }
+        for (NodeFeature feature : features) {
+            long size = feature.getApproximateSize();
+            featureSizes.merge(feature.getClass(), size, Long::sum);
+            nodeSize += size;
+        }
+
+        nodeCount++;
+        totalSize += nodeSize;
+        return nodeSize;
+    }
+
+    /**
+     * Gets the number of measured nodes.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the approximate total size of the measured nodes and their features
+     * in bytes.
+     *
+     * @return the total size in bytes
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Gets the approximate size of the measured features in bytes, per feature
+     * type.
+     *
+     * @return an unmodifiable map from feature type to size in bytes
+     */
+    public Map<Class<? extends NodeFeature>, Long> getFeatureSizes() {
+        return Collections.unmodifiableMap(featureSizes);
+    }
+
+    /**
+     * Estimates the size of a value stored in a node feature. State nodes are
+     * not included since they are measured separately.
+     *
+     * @param value
+     *            the value to estimate, may be <code>null</code>
+     * @return the approximate size of the value in bytes
+     */
+    public static long estimateValueSize(Object value) {
+        if (value == null || value instanceof StateNode) {
+            return 0;
+        } else if (value instanceof String) {
+            // String instance and its byte array, assuming compact strings
+            return 24 + align(16 + ((String) value).length());
+        } else {
+            return 16;
+        }
+    }
+
+    /**
+     * Rounds the given size up to the object alignment of the JVM.
+     *
+     * @param size
+     *            the size in bytes
+     * @return the aligned size in bytes
+     */
+    public static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    @Override
+    public String toString() {
+        return "StateTreeFootprint[nodes=" + nodeCount + ", bytes=" + totalSize
+                + ", features=" + featureSizes + "]";
+    }
+}
@@ -15,11 +15,14 @@
  */
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
+
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -55,4 +58,39 @@ public class EmptyChange extends NodeFeatureChange {
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                JsonConstants.COMPACT_CHANGE_TYPE_NOOP);
+
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), NodeList.class.isAssignableFrom(getFeature()));
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_NOOP);
+        writer.put(JsonConstants.CHANGE_FEATURE_TYPE,
+                NodeList.class.isAssignableFrom(getFeature()));
+        super.writeJson(writer, constantPool);
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        writer.add(JsonConstants.COMPACT_CHANGE_TYPE_NOOP);
+
+        super.writeCompactJson(writer, constantPool);
+
+        writer.add(NodeList.class.isAssignableFrom(getFeature()));
+    }
+
 }
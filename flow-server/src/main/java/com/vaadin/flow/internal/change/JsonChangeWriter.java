@@ -0,0 +1,292 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.internal.change;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.JsonCodec;
+
+import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
+
+/**
+ * Writes the JSON representation of a single {@link NodeChange} directly to an
+ * {@link Appendable}, without building an intermediate JSON tree.
+ * <p>
+ * A writer either writes a JSON object, using the <code>put</code> methods, or
+ * a compact JSON array, using the <code>add</code> methods.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public final class JsonChangeWriter implements Serializable {
+    private final transient Appendable out;
+    private final boolean compact;
+    private boolean hasValues;
+
+    /**
+     * Creates a new writer and writes the opening bracket of the change.
+     *
+     * @param out
+     *            the appendable to write to, not <code>null</code>
+     * @param compact
+     *            <code>true</code> to write a compact JSON array,
+     *            <code>false</code> to write a JSON object
+     * @throws IOException
+     *             if writing fails
+     */
+    JsonChangeWriter(Appendable out, boolean compact) throws IOException {
+        this.out = Objects.requireNonNull(out);
+        this.compact = compact;
+        out.append(compact ? '[' : '{');
+    }
+
+    /**
+     * Writes a string member.
+     *
+     * @param key
+     *            the member key
+     * @param value
+     *            the string value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void put(String key, String value) throws IOException {
+        writeKey(key);
+        out.append(JsonUtil.quote(value));
+    }
+
+    /**
+     * Writes an integer member.
+     *
+     * @param key
+     *            the member key
+     * @param value
+     *            the integer value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void put(String key, int value) throws IOException {
+        writeKey(key);
+        out.append(Integer.toString(value));
+    }
+
+    /**
+     * Writes a boolean member.
+     *
+     * @param key
+     *            the member key
+     * @param value
+     *            the boolean value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void put(String key, boolean value) throws IOException {
+        writeKey(key);
+        out.append(Boolean.toString(value));
+    }
+
+    /**
+     * Writes a member encoded using {@link JsonCodec}.
+     *
+     * @param key
+     *            the member key
+     * @param value
+     *            the value to encode
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing fails
+     * @see JsonCodec#encodeWithConstantPool(Object, ConstantPool)
+     */
+    public void putEncoded(String key, Object value, ConstantPool constantPool)
+            throws IOException {
+        writeKey(key);
+        writeEncoded(value, constantPool);
+    }
+
+    /**
+     * Writes a JSON value member.
+     *
+     * @param key
+     *            the member key
+     * @param value
+     *            the JSON value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void put(String key, JsonValue value) throws IOException {
+        writeKey(key);
+        out.append(value.toJson());
+    }
+
+    /**
+     * Starts writing an array member. Values are added to the array using the
+     * <code>add</code> methods until {@link #endArray()} is called.
+     *
+     * @param key
+     *            the member key
+     * @throws IOException
+     *             if writing fails
+     */
+    public void beginArray(String key) throws IOException {
+        writeKey(key);
+        out.append('[');
+        hasValues = false;
+    }
+
+    /**
+     * Starts writing a nested array value. Values are added to the array using
+     * the <code>add</code> methods until {@link #endArray()} is called.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    public void beginArray() throws IOException {
+        writeSeparator();
+        out.append('[');
+        hasValues = false;
+    }
+
+    /**
+     * Ends the array started by {@link #beginArray()} or
+     * {@link #beginArray(String)}.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    public void endArray() throws IOException {
+        out.append(']');
+        hasValues = true;
+    }
+
+    /**
+     * Adds a string value.
+     *
+     * @param value
+     *            the string value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void add(String value) throws IOException {
+        writeSeparator();
+        out.append(JsonUtil.quote(value));
+    }
+
+    /**
+     * Adds an integer value.
+     *
+     * @param value
+     *            the integer value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void add(int value) throws IOException {
+        writeSeparator();
+        out.append(Integer.toString(value));
+    }
+
+    /**
+     * Adds a boolean value.
+     *
+     * @param value
+     *            the boolean value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void add(boolean value) throws IOException {
+        writeSeparator();
+        out.append(Boolean.toString(value));
+    }
+
+    /**
+     * Adds a value encoded using {@link JsonCodec}.
+     *
+     * @param value
+     *            the value to encode
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing fails
+     * @see JsonCodec#encodeWithConstantPool(Object, ConstantPool)
+     */
+    public void addEncoded(Object value, ConstantPool constantPool)
+            throws IOException {
+        writeSeparator();
+        writeEncoded(value, constantPool);
+    }
+
+    /**
+     * Adds a JSON value.
+     *
+     * @param value
+     *            the JSON value
+     * @throws IOException
+     *             if writing fails
+     */
+    public void add(JsonValue value) throws IOException {
+        writeSeparator();
+        out.append(value.toJson());
+    }
+
+    /**
+     * Writes the closing bracket of the change.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    void end() throws IOException {
+        out.append(compact ? ']' : '}');
+    }
+
+    private void writeEncoded(Object value, ConstantPool constantPool)
+            throws IOException {
+        // Write the most common value types as is instead of creating a
+        // JsonValue that is only stringified
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            out.append(JsonUtil.quote((String) value));
+        } else if (value instanceof Boolean || value instanceof Integer) {
+            out.append(value.toString());
+        } else {
+            out.append(JsonCodec.encodeWithConstantPool(value, constantPool)
+                    .toJson());
+        }
+    }
+
+    private void writeKey(String key) throws IOException {
+        assert !compact : "Compact changes have no keys";
+        writeSeparator();
+        out.append(JsonUtil.quote(key));
+        out.append(':');
+    }
+
+    private void writeSeparator() throws IOException {
+        if (hasValues) {
+            out.append(',');
+        }
+        hasValues = true;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
@@ -129,6 +130,77 @@ public class ListAddChange<T extends Serializable>
         json.put(addKey, newItemsJson);
     }
 
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        Function<Object, JsonValue> mapper;
+        if (nodeValues) {
+            json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                    JsonConstants.COMPACT_CHANGE_TYPE_SPLICE_NODES);
+            mapper = item -> Json.create(((StateNode) item).getId());
+        } else {
+            json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                    JsonConstants.COMPACT_CHANGE_TYPE_SPLICE);
+            mapper = item -> JsonCodec.encodeWithConstantPool(item,
+                    constantPool);
+        }
+
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), getIndex());
+        json.set(json.length(), 0);
+        json.set(json.length(),
+                newItems.stream().map(mapper).collect(JsonUtils.asArray()));
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE,
+                JsonConstants.CHANGE_TYPE_SPLICE);
+
+        super.writeJson(writer, constantPool);
+
+        writer.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
+
+        writer.beginArray(nodeValues ? JsonConstants.CHANGE_SPLICE_ADD_NODES
+                : JsonConstants.CHANGE_SPLICE_ADD);
+        writeNewItems(writer, constantPool);
+        writer.endArray();
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        writer.add(nodeValues ? JsonConstants.COMPACT_CHANGE_TYPE_SPLICE_NODES
+                : JsonConstants.COMPACT_CHANGE_TYPE_SPLICE);
+
+        super.writeCompactJson(writer, constantPool);
+
+        writer.add(getIndex());
+        writer.add(0);
+
+        writer.beginArray();
+        writeNewItems(writer, constantPool);
+        writer.endArray();
+    }
+
+    private void writeNewItems(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        for (Object item : newItems) {
+            if (nodeValues) {
+                writer.add(((StateNode) item).getId());
+            } else {
+                writer.addEncoded(item, constantPool);
+            }
+        }
+    }
+
     /**
      * Removes item from the change list.
      * <p>
@@ -15,12 +15,14 @@
  */
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -59,4 +61,31 @@ public class ListClearChange<T extends Serializable>
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                JsonConstants.COMPACT_CHANGE_TYPE_CLEAR);
+        super.populateCompactJson(json, constantPool);
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_CLEAR);
+        super.writeJson(writer, constantPool);
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        writer.add(JsonConstants.COMPACT_CHANGE_TYPE_CLEAR);
+        super.writeCompactJson(writer, constantPool);
+    }
+
 }
@@ -15,12 +15,14 @@
  */
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -80,4 +82,44 @@ public class ListRemoveChange<T extends Serializable>
         json.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
         json.put(JsonConstants.CHANGE_SPLICE_REMOVE, 1);
     }
+
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                JsonConstants.COMPACT_CHANGE_TYPE_SPLICE);
+
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), getIndex());
+        json.set(json.length(), 1);
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE,
+                JsonConstants.CHANGE_TYPE_SPLICE);
+
+        super.writeJson(writer, constantPool);
+
+        writer.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
+        writer.put(JsonConstants.CHANGE_SPLICE_REMOVE, 1);
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        writer.add(JsonConstants.COMPACT_CHANGE_TYPE_SPLICE);
+
+        super.writeCompactJson(writer, constantPool);
+
+        writer.add(getIndex());
+        writer.add(1);
+    }
 }
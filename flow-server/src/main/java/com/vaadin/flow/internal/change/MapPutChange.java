@@ -16,6 +16,8 @@
 
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
+
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.StateNode;
@@ -23,6 +25,7 @@ import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -93,4 +96,64 @@ public class MapPutChange extends NodeFeatureChange {
                     JsonCodec.encodeWithConstantPool(value, constantPool));
         }
     }
+
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        boolean nodeValue = value instanceof StateNode;
+        json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                nodeValue ? JsonConstants.COMPACT_CHANGE_TYPE_PUT_NODE
+                        : JsonConstants.COMPACT_CHANGE_TYPE_PUT);
+
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), key);
+
+        if (nodeValue) {
+            json.set(json.length(), ((StateNode) value).getId());
+        } else {
+            json.set(json.length(),
+                    JsonCodec.encodeWithConstantPool(value, constantPool));
+        }
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_PUT);
+        writer.put(JsonConstants.CHANGE_MAP_KEY, key);
+
+        super.writeJson(writer, constantPool);
+
+        if (value instanceof StateNode) {
+            writer.put(JsonConstants.CHANGE_PUT_NODE_VALUE,
+                    ((StateNode) value).getId());
+        } else {
+            writer.putEncoded(JsonConstants.CHANGE_PUT_VALUE, value,
+                    constantPool);
+        }
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        boolean nodeValue = value instanceof StateNode;
+        writer.add(nodeValue ? JsonConstants.COMPACT_CHANGE_TYPE_PUT_NODE
+                : JsonConstants.COMPACT_CHANGE_TYPE_PUT);
+
+        super.writeCompactJson(writer, constantPool);
+
+        writer.add(key);
+
+        if (nodeValue) {
+            writer.add(((StateNode) value).getId());
+        } else {
+            writer.addEncoded(value, constantPool);
+        }
+    }
 }
@@ -16,10 +16,13 @@
 
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
+
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeMap;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -67,4 +70,41 @@ public class MapRemoveChange extends NodeFeatureChange {
 
         json.put(JsonConstants.CHANGE_MAP_KEY, key);
     }
+
+    @Override
+    public boolean hasCompactJson() {
+        return true;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        json.set(JsonConstants.COMPACT_CHANGE_TYPE,
+                JsonConstants.COMPACT_CHANGE_TYPE_REMOVE);
+
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), key);
+    }
+
+    @Override
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        writer.put(JsonConstants.CHANGE_TYPE,
+                JsonConstants.CHANGE_TYPE_REMOVE);
+
+        super.writeJson(writer, constantPool);
+
+        writer.put(JsonConstants.CHANGE_MAP_KEY, key);
+    }
+
+    @Override
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        writer.add(JsonConstants.COMPACT_CHANGE_TYPE_REMOVE);
+
+        super.writeCompactJson(writer, constantPool);
+
+        writer.add(key);
+    }
 }
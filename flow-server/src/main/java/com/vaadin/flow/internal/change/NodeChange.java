@@ -16,6 +16,7 @@
 
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
@@ -23,6 +24,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -85,4 +87,173 @@ public abstract class NodeChange implements Serializable {
      */
     protected abstract void populateJson(JsonObject json,
             ConstantPool constantPool);
+
+    /**
+     * Writes the JSON representation of this change directly to the given
+     * appendable. The written JSON is the same as the one returned by
+     * {@link #toJson(ConstantPool)}, but no intermediate JSON object is
+     * created.
+     *
+     * @param out
+     *            the appendable to write to, not <code>null</code>
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing to the appendable fails
+     */
+    public void writeJson(Appendable out, ConstantPool constantPool)
+            throws IOException {
+        JsonChangeWriter writer = new JsonChangeWriter(out, false);
+
+        writer.put(JsonConstants.CHANGE_NODE, node.getId());
+
+        writeJson(writer, constantPool);
+
+        writer.end();
+    }
+
+    /**
+     * Overridden by subclasses to write the members of the JSON object when
+     * serializing directly to an appendable. The members should be the same as
+     * the ones set by {@link #populateJson(JsonObject, ConstantPool)}.
+     * <p>
+     * The default implementation populates a JSON object using
+     * {@link #populateJson(JsonObject, ConstantPool)} and writes its members.
+     *
+     * @param writer
+     *            the writer to write the members to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing fails
+     */
+    protected void writeJson(JsonChangeWriter writer, ConstantPool constantPool)
+            throws IOException {
+        JsonObject json = Json.createObject();
+        populateJson(json, constantPool);
+        for (String key : json.keys()) {
+            writer.put(key, json.get(key));
+        }
+    }
+
+    /**
+     * Checks whether this change can be serialized with
+     * {@link #toCompactJson(ConstantPool)}. Changes that can't are serialized
+     * using {@link #toJson(ConstantPool)} instead, which the client accepts in
+     * place of a compact change.
+     * <p>
+     * Subclasses that populate a compact JSON array override this method.
+     *
+     * @return <code>true</code> if this change has a compact JSON form,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasCompactJson() {
+        return false;
+    }
+
+    /**
+     * Serializes this change to a compact JSON array, identifying the values by
+     * their position instead of by a key. The node id is always the first item
+     * in the array.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     *
+     * @return a compact json representation of this change
+     * @throws UnsupportedOperationException
+     *             if this change has no compact form
+     * @see #hasCompactJson()
+     * @see JsonConstants#COMPACT_CHANGE_NODE
+     */
+    public JsonArray toCompactJson(ConstantPool constantPool) {
+        if (!hasCompactJson()) {
+            throw new UnsupportedOperationException(getClass().getName()
+                    + " does not support compact serialization");
+        }
+        JsonArray json = Json.createArray();
+
+        json.set(JsonConstants.COMPACT_CHANGE_NODE, node.getId());
+
+        populateCompactJson(json, constantPool);
+
+        return json;
+    }
+
+    /**
+     * Overridden by subclasses to populate a compact JSON array when
+     * serializing. The change type should be set at
+     * {@link JsonConstants#COMPACT_CHANGE_TYPE}. Subclasses that override this
+     * method should also override {@link #hasCompactJson()}.
+     *
+     * @param json
+     *            the json array to populate, containing the node id
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     */
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        // Nothing to populate without a compact form
+    }
+
+    /**
+     * Writes the compact JSON representation of this change directly to the
+     * given appendable. The written JSON is the same as the one returned by
+     * {@link #toCompactJson(ConstantPool)}, but no intermediate JSON array is
+     * created.
+     *
+     * @param out
+     *            the appendable to write to, not <code>null</code>
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing to the appendable fails
+     * @throws UnsupportedOperationException
+     *             if this change has no compact form
+     * @see #hasCompactJson()
+     */
+    public void writeCompactJson(Appendable out, ConstantPool constantPool)
+            throws IOException {
+        if (!hasCompactJson()) {
+            throw new UnsupportedOperationException(getClass().getName()
+                    + " does not support compact serialization");
+        }
+        JsonChangeWriter writer = new JsonChangeWriter(out, true);
+
+        writer.add(node.getId());
+
+        writeCompactJson(writer, constantPool);
+
+        writer.end();
+    }
+
+    /**
+     * Overridden by subclasses to write the values of the compact JSON array,
+     * following the node id, when serializing directly to an appendable. The
+     * values should be the same as the ones set by
+     * {@link #populateCompactJson(JsonArray, ConstantPool)}.
+     * <p>
+     * The default implementation populates a JSON array using
+     * {@link #toCompactJson(ConstantPool)} and writes its values.
+     *
+     * @param writer
+     *            the writer to add the values to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @throws IOException
+     *             if writing fails
+     */
+    protected void writeCompactJson(JsonChangeWriter writer,
+            ConstantPool constantPool) throws IOException {
+        JsonArray json = toCompactJson(constantPool);
+        for (int i = JsonConstants.COMPACT_CHANGE_TYPE; i < json
+                .length(); i++) {
+            writer.add(json.get(i));
+        }
+    }
 }
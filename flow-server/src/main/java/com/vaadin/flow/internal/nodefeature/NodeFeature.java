@@ -143,4 +143,16 @@ public abstract class NodeFeature implements Serializable {
     public boolean allowsChanges() {
         return true;
     }
+
+    /**
+     * Gets the approximate number of bytes used by this feature and the values
+     * it stores, not including any child nodes.
+     *
+     * @return the approximate size in bytes
+     * @see com.vaadin.flow.internal.StateTreeFootprint
+     */
+    public long getApproximateSize() {
+        // Object header and the node reference
+        return 16;
+    }
 }
@@ -28,6 +28,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTreeFootprint;
 import com.vaadin.flow.internal.change.AbstractListChange;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.ListAddChange;
@@ -465,4 +466,18 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
             isPopulated = false;
         }
     }
+
+    @Override
+    public long getApproximateSize() {
+        // Node and values references and the two flags
+        long size = 24;
+        if (values != null) {
+            // ArrayList instance and its backing array
+            size += 24 + StateTreeFootprint.align(16 + 4L * values.size());
+            for (T value : values) {
+                size += StateTreeFootprint.estimateValueSize(value);
+            }
+        }
+        return size;
+    }
 }
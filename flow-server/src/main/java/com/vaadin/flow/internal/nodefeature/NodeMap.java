@@ -17,17 +17,23 @@
 package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTreeFootprint;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
 import com.vaadin.flow.internal.change.MapRemoveChange;
@@ -46,6 +52,15 @@ public abstract class NodeMap extends NodeFeature {
     private static final Serializable REMOVED_MARKER = new UniqueSerializable() {
     };
 
+    private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+    /*
+     * Maps with up to this many keys store them in arrays, since a hash map
+     * costs more than the data itself for the handful of keys a typical element
+     * has.
+     */
+    private static final int MAX_ARRAY_SIZE = 8;
+
     private interface Values extends Serializable {
         int size();
 
@@ -114,6 +129,179 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
+    /*
+     * Keeps the keys in the order in which a HashMapValues instance with the
+     * same history would iterate them, so that switching the storage does not
+     * change the order of e.g. attributes in the generated HTML.
+     */
+    private static class ArrayValues implements Values {
+
+        private String[] keys = new String[INITIAL_ARRAY_CAPACITY];
+
+        private Serializable[] values = new Serializable[INITIAL_ARRAY_CAPACITY];
+
+        private int size;
+
+        private int modCount;
+
+        // Table size of the corresponding hash map, which orders the keys by
+        // their bucket and then by insertion
+        private int hashCapacity = 1;
+
+        public ArrayValues(Values previousValues) {
+            previousValues.keySet()
+                    .forEach(key -> set(key, previousValues.get(key)));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Serializable get(String key) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new ArrayKeySet(this);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Stream<Serializable> streamValues() {
+            return Arrays.stream(values, 0, size);
+        }
+
+        @Override
+        public void set(String key, Serializable value) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                values[index] = value;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int bucket = bucketOf(key);
+            index = size;
+            while (index > 0 && bucketOf(keys[index - 1]) > bucket) {
+                index--;
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+            modCount++;
+            // Grow like a hash map with the default load factor
+            if (size > hashCapacity * 3 / 4) {
+                hashCapacity *= 2;
+                sortByBucket();
+            }
+        }
+
+        public Serializable remove(String key) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Serializable oldValue = values[index];
+            int moved = size - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+            modCount++;
+            return oldValue;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int bucketOf(String key) {
+            int hash = key.hashCode();
+            return (hash ^ (hash >>> 16)) & (hashCapacity - 1);
+        }
+
+        private void sortByBucket() {
+            // Stable, so that keys in the same bucket stay in insertion order
+            for (int i = 1; i < size; i++) {
+                String key = keys[i];
+                Serializable value = values[i];
+                int bucket = bucketOf(key);
+                int j = i;
+                while (j > 0 && bucketOf(keys[j - 1]) > bucket) {
+                    keys[j] = keys[j - 1];
+                    values[j] = values[j - 1];
+                    j--;
+                }
+                keys[j] = key;
+                values[j] = value;
+            }
+        }
+    }
+
+    private static class ArrayKeySet extends AbstractSet<String>
+            implements Serializable {
+
+        private final ArrayValues arrayValues;
+
+        private ArrayKeySet(ArrayValues arrayValues) {
+            this.arrayValues = arrayValues;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private final int expectedModCount = arrayValues.modCount;
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < arrayValues.size;
+                }
+
+                @Override
+                public String next() {
+                    if (arrayValues.modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (index >= arrayValues.size) {
+                        throw new NoSuchElementException();
+                    }
+                    return arrayValues.keys[index++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return arrayValues.size;
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return key instanceof String
+                    && arrayValues.containsKey((String) key);
+        }
+    }
+
     private static class HashMapValues extends HashMap<String, Serializable>
             implements Values {
 
@@ -199,12 +387,17 @@ public abstract class NodeMap extends NodeFeature {
             setUnChanged(key);
         }
 
-        // Optimize memory use when there's only one key
+        // Optimize memory use when there are only a few keys
         if (values == null) {
             values = new SingleValue(key, value);
         } else {
-            if (values instanceof SingleValue && !values.containsKey(key)) {
-                values = new HashMapValues(values);
+            if (!values.containsKey(key)) {
+                if (values instanceof SingleValue) {
+                    values = new ArrayValues(values);
+                } else if (values instanceof ArrayValues
+                        && values.size() == MAX_ARRAY_SIZE) {
+                    values = new HashMapValues(values);
+                }
             }
             values.set(key, value);
         }
@@ -350,6 +543,13 @@ public abstract class NodeMap extends NodeFeature {
             if (values.containsKey(key)) {
                 values = null;
             }
+        } else if (values instanceof ArrayValues) {
+            ArrayValues arrayValues = (ArrayValues) values;
+            oldValue = arrayValues.remove(key);
+
+            if (arrayValues.isEmpty()) {
+                values = null;
+            }
         } else {
             assert values instanceof HashMapValues;
             HashMapValues hashMapValues = (HashMapValues) values;
@@ -400,6 +600,9 @@ public abstract class NodeMap extends NodeFeature {
     }
 
     private Map<String, Serializable> getChangeTracker() {
+        // Kept as a hash map, unlike the values, since the tracker only exists
+        // until the changes are collected and does not add to the size of an
+        // idle state tree
         return getNode().getChangeTracker(this, HashMap::new);
     }
 
@@ -518,9 +721,36 @@ public abstract class NodeMap extends NodeFeature {
         return !hadValueEarlier || !Objects.equals(newValue, values.get(key));
     }
 
+    @Override
+    public long getApproximateSize() {
+        // Node and values references and the populated flag
+        long size = 24;
+        if (values instanceof SingleValue) {
+            size += 16;
+        } else if (values instanceof ArrayValues) {
+            int capacity = ((ArrayValues) values).keys.length;
+            size += 24 + 2 * StateTreeFootprint.align(16 + 4L * capacity);
+        } else if (values instanceof HashMapValues) {
+            // Map instance, table at 0.75 load factor and an entry per key
+            int tableSize = Integer.highestOneBit(values.size() * 4 / 3) * 2;
+            size += 48 + StateTreeFootprint.align(16 + 4L * tableSize)
+                    + 32L * values.size();
+        }
+        if (values != null) {
+            size += values.streamValues()
+                    .mapToLong(StateTreeFootprint::estimateValueSize).sum();
+        }
+        return size;
+    }
+
     // Exposed for testing purposes
     boolean usesSingleMap() {
         return values instanceof SingleValue;
     }
 
+    // Exposed for testing purposes
+    boolean usesArrayMap() {
+        return values instanceof ArrayValues;
+    }
+
 }
@@ -96,7 +96,12 @@ public class HandlerHelper implements Serializable {
         /**
          * Translation properties file requests.
          */
-        TRANSLATION_FILE(ApplicationConstants.REQUEST_TYPE_TRANSLATION_FILE);
+        TRANSLATION_FILE(ApplicationConstants.REQUEST_TYPE_TRANSLATION_FILE),
+
+        /**
+         * Session memory profile requests.
+         */
+        MEMORY_PROFILE(ApplicationConstants.REQUEST_TYPE_MEMORY_PROFILE);
 
         private final String identifier;
 
@@ -74,6 +74,52 @@ public class InitParameters implements Serializable {
      */
     public static final String SERVLET_PARAMETER_BROTLI = "brotli";
 
+    /**
+     * Configuration name for the parameter that determines whether UIDL
+     * responses should be streamed to the response buffer change by change
+     * instead of being built as a complete JSON object first.
+     */
+    public static final String SERVLET_PARAMETER_STREAMING_UIDL = "streamingUidl";
+
+    /**
+     * Configuration name for the parameter that determines whether state
+     * changes should be sent to the client as compact positional JSON arrays
+     * instead of JSON objects with named keys.
+     */
+    public static final String SERVLET_PARAMETER_COMPACT_STATE_CHANGES = "compactStateChanges";
+
+    /**
+     * Configuration name for the parameter that determines whether UIDL
+     * responses should be gzip compressed when the browser accepts it.
+     */
+    public static final String SERVLET_PARAMETER_UIDL_COMPRESSION = "uidlCompression";
+
+    /**
+     * Configuration name for the parameter that determines whether the session
+     * memory profiler request handler is enabled.
+     */
+    public static final String SERVLET_PARAMETER_MEMORY_PROFILER = "memoryProfiler";
+
+    /**
+     * Configuration name for the parameter that determines whether session
+     * locks should use a fair ordering policy, granting the lock to the
+     * longest-waiting thread.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_FAIR = "sessionLockFair";
+
+    /**
+     * Configuration name for the parameter that determines whether session lock
+     * wait and hold times should be collected.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_METRICS = "sessionLockMetrics";
+
+    /**
+     * Configuration name for the parameter that determines for how many
+     * milliseconds access tasks enqueued while the session is not locked are
+     * collected before they are run and pushed together.
+     */
+    public static final String SERVLET_PARAMETER_ACCESS_COALESCING_WINDOW = "accessCoalescingWindow";
+
     /**
      * Configuration name for the frontend statistics json file to use to
      * determine template contents.
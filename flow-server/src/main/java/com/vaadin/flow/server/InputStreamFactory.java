@@ -67,4 +67,23 @@ public interface InputStreamFactory extends Serializable {
     default boolean requiresLock() {
         return true;
     }
+
+    /**
+     * Creates a factory that reads all the data of the given factory into
+     * memory when the input stream is created, i.e. under the session lock,
+     * and then lets the data be streamed to the client without the lock.
+     * <p>
+     * This is useful when producing the data requires access to application
+     * data, so that {@link #requiresLock()} would be needed, but the data is
+     * small enough to be held in memory. The session is then locked only
+     * once instead of for every read, and other requests to the session are
+     * not blocked while the data is sent.
+     *
+     * @param factory
+     *            the factory producing the data, not <code>null</code>
+     * @return a factory streaming a snapshot of the data without the lock
+     */
+    static InputStreamFactory snapshot(InputStreamFactory factory) {
+        return new SnapshotInputStreamFactory(factory);
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A session lock which records the time spent waiting for and holding the lock
+ * to {@link SessionLockMetrics}. Only the outermost acquisition and release of
+ * the reentrant lock are recorded.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class InstrumentedSessionLock extends ReentrantLock {
+
+    private final transient SessionLockMetrics metrics;
+
+    private long acquiredAt;
+    private String requestType;
+
+    /**
+     * Creates a new instrumented lock.
+     *
+     * @param fair
+     *            {@code true} if the lock should use a fair ordering policy
+     * @param metrics
+     *            the metrics to record to, not {@code null}
+     */
+    InstrumentedSessionLock(boolean fair, SessionLockMetrics metrics) {
+        super(fair);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void lock() {
+        long start = System.nanoTime();
+        super.lock();
+        acquired(start);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        long start = System.nanoTime();
+        super.lockInterruptibly();
+        acquired(start);
+    }
+
+    @Override
+    public boolean tryLock() {
+        long start = System.nanoTime();
+        if (super.tryLock()) {
+            acquired(start);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        if (super.tryLock(timeout, unit)) {
+            acquired(start);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (metrics != null && isHeldByCurrentThread() && getHoldCount() == 1) {
+            metrics.recordHold(requestType, System.nanoTime() - acquiredAt);
+        }
+        super.unlock();
+    }
+
+    private void acquired(long start) {
+        if (metrics != null && getHoldCount() == 1) {
+            acquiredAt = System.nanoTime();
+            requestType = SessionLockMetrics.getCurrentRequestType();
+            metrics.recordWait(requestType, acquiredAt - start);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * Collects statistics about how long threads wait for and hold the session
+ * lock, grouped by the type of the request that acquired the lock.
+ * <p>
+ * Statistics are only collected when enabled using
+ * {@link InitParameters#SERVLET_PARAMETER_SESSION_LOCK_METRICS}. The lock
+ * acquisitions made outside of a request, e.g. by {@code UI.access} from a
+ * background thread, are grouped as {@value #BACKGROUND} and requests which are
+ * not framework internal requests as {@value #OTHER}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ * @see VaadinService#getSessionLockMetrics()
+ */
+public class SessionLockMetrics implements Serializable {
+
+    /**
+     * The request type used for lock acquisitions made outside of a request.
+     */
+    public static final String BACKGROUND = "background";
+
+    /**
+     * The request type used for lock acquisitions made by requests which are
+     * not of any of the types in {@link RequestType}.
+     */
+    public static final String OTHER = "other";
+
+    private final Map<String, LockStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Lock wait and hold time statistics for one request type.
+     */
+    public static class LockStatistics implements Serializable {
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder holdNanos = new LongAdder();
+        private final AtomicLong maxHoldNanos = new AtomicLong();
+
+        /**
+         * Gets the number of times the lock has been acquired.
+         *
+         * @return the number of lock acquisitions
+         */
+        public long getAcquisitions() {
+            return acquisitions.sum();
+        }
+
+        /**
+         * Gets the total time spent waiting for the lock.
+         *
+         * @return the total wait time in nanoseconds
+         */
+        public long getTotalWaitNanos() {
+            return waitNanos.sum();
+        }
+
+        /**
+         * Gets the longest time spent waiting for the lock.
+         *
+         * @return the maximum wait time in nanoseconds
+         */
+        public long getMaxWaitNanos() {
+            return maxWaitNanos.get();
+        }
+
+        /**
+         * Gets the total time the lock has been held.
+         *
+         * @return the total hold time in nanoseconds
+         */
+        public long getTotalHoldNanos() {
+            return holdNanos.sum();
+        }
+
+        /**
+         * Gets the longest time the lock has been held at once.
+         *
+         * @return the maximum hold time in nanoseconds
+         */
+        public long getMaxHoldNanos() {
+            return maxHoldNanos.get();
+        }
+
+        private void recordWait(long nanos) {
+            acquisitions.increment();
+            waitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void recordHold(long nanos) {
+            holdNanos.add(nanos);
+            maxHoldNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            return "LockStatistics[acquisitions=" + getAcquisitions()
+                    + ", totalWaitNanos=" + getTotalWaitNanos()
+                    + ", maxWaitNanos=" + getMaxWaitNanos()
+                    + ", totalHoldNanos=" + getTotalHoldNanos()
+                    + ", maxHoldNanos=" + getMaxHoldNanos() + "]";
+        }
+    }
+
+    /**
+     * Gets the collected statistics by request type.
+     *
+     * @return an unmodifiable map of statistics keyed by the request type
+     *         identifier, {@value #BACKGROUND} or {@value #OTHER}
+     */
+    public Map<String, LockStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Clears all collected statistics.
+     */
+    public void reset() {
+        statistics.clear();
+    }
+
+    void recordWait(String requestType, long nanos) {
+        statistics.computeIfAbsent(requestType, key -> new LockStatistics())
+                .recordWait(nanos);
+    }
+
+    void recordHold(String requestType, long nanos) {
+        statistics.computeIfAbsent(requestType, key -> new LockStatistics())
+                .recordHold(nanos);
+    }
+
+    /**
+     * Gets the request type used for grouping the lock statistics of the
+     * current thread.
+     *
+     * @return the request type, not {@code null}
+     */
+    static String getCurrentRequestType() {
+        VaadinRequest request = VaadinRequest.getCurrent();
+        if (request == null) {
+            return BACKGROUND;
+        }
+        String type = request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER);
+        if (type != null) {
+            // Only accept known types to keep the number of keys bounded
+            for (RequestType requestType : RequestType.values()) {
+                if (requestType.getIdentifier().equals(type)) {
+                    return type;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Input stream factory reading all the data of another factory into memory
+ * under the session lock, so that it can be streamed without the lock.
+ *
+ * @see InputStreamFactory#snapshot(InputStreamFactory)
+ * @author Vaadin Ltd
+ * @since
+ */
+class SnapshotInputStreamFactory implements InputStreamFactory {
+
+    private final InputStreamFactory factory;
+
+    SnapshotInputStreamFactory(InputStreamFactory factory) {
+        this.factory = Objects.requireNonNull(factory,
+                "Input stream factory may not be null");
+    }
+
+    @Override
+    public InputStream createInputStream() {
+        try (InputStream stream = factory.createInputStream()) {
+            return new ByteArrayInputStream(stream.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean requiresLock() {
+        return false;
+    }
+}
@@ -18,9 +18,11 @@ package com.vaadin.flow.server;
 import static com.vaadin.flow.server.Constants.VAADIN_MAPPING;
 import static com.vaadin.flow.server.Constants.VAADIN_WEBAPP_RESOURCES;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -31,13 +33,18 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +52,7 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.DevModeHandler;
 import com.vaadin.flow.internal.DevModeHandlerManager;
+import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.server.frontend.DevBundleUtils;
 import com.vaadin.flow.server.frontend.FrontendUtils;
@@ -93,6 +101,120 @@ public class StaticFileServer implements StaticFileHandler {
     static final Set<URI> externalFileSystem = new HashSet<>();
     private static final Object fileSystemLock = new Object();
 
+    // Maximum number of resolved resources cached in production mode
+    private static final int MAX_RESOLVED_RESOURCES = 1000;
+
+    // Size limits of resources compressed on the fly, in bytes. Smaller
+    // resources do not gain from compression.
+    private static final long MIN_COMPRESSIBLE_SIZE = 1024;
+    private static final long MAX_COMPRESSIBLE_SIZE = 1024 * 1024;
+
+    // Maximum total size of the contents compressed on the fly, in bytes
+    private static final long MAX_COMPRESSED_CONTENT_CACHE_SIZE = 16 * 1024
+            * 1024;
+
+    // Matches the names of the files in the production bundle, which contain
+    // a hash of their contents, e.g. VAADIN/build/indexhtml-DwZdQ4m1.js. The
+    // hash is required to contain an upper case letter or a digit so that
+    // file names ending with a plain word, e.g. vaadin-settings.js, do not
+    // match.
+    private static final Pattern HASHED_BUNDLE_FILE_PATTERN = Pattern.compile(
+            "^/VAADIN/build/[^/]+-(?=[a-z_-]{0,7}[A-Z0-9])[\\w-]{8}\\.\\w+$");
+
+    // Cache time of the content hashed files of the production bundle, in
+    // seconds
+    private static final int HASHED_BUNDLE_FILE_CACHE_TIME = 60 * 60 * 24
+            * 365;
+
+    /**
+     * The metadata of a found resource, cached in production mode where
+     * resources do not change, to avoid looking up the resource, its
+     * precompressed variants and its modification time on every request.
+     * <p>
+     * The entity tags are hashes of the contents, computed when the resource
+     * is resolved. Each precompressed variant has its own tag.
+     */
+    private static final class ResolvedResource implements Serializable {
+        private final URL url;
+        private final URL brotliUrl;
+        private final URL gzippedUrl;
+        private final long lastModified;
+        private final String eTag;
+        private final String brotliETag;
+        private final String gzippedETag;
+        // Whether to gzip the resource on the fly, since it has no gzipped
+        // variant
+        private final boolean compressible;
+
+        private ResolvedResource(URL url, URL brotliUrl, URL gzippedUrl,
+                long lastModified, boolean compressible) {
+            this.url = url;
+            this.brotliUrl = brotliUrl;
+            this.gzippedUrl = gzippedUrl;
+            this.lastModified = lastModified;
+            this.compressible = compressible;
+            eTag = computeETag(url);
+            brotliETag = brotliUrl == null ? null : computeETag(brotliUrl);
+            if (gzippedUrl != null) {
+                gzippedETag = computeETag(gzippedUrl);
+            } else if (compressible && eTag != null) {
+                // Compressing the same contents gives the same bytes
+                gzippedETag = eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+            } else {
+                gzippedETag = null;
+            }
+        }
+
+        private boolean hasCompressedVariants() {
+            return brotliUrl != null || gzippedUrl != null || compressible;
+        }
+    }
+
+    /**
+     * Least recently used contents compressed on the fly, bounded by their
+     * total size.
+     */
+    private static final class CompressedContentCache implements Serializable {
+        private final LinkedHashMap<String, byte[]> contents = new LinkedHashMap<>(
+                16, 0.75f, true);
+        private long size;
+
+        private synchronized byte[] get(String key) {
+            return contents.get(key);
+        }
+
+        private synchronized void put(String key, byte[] value) {
+            byte[] old = contents.put(key, value);
+            size += value.length - (old == null ? 0 : old.length);
+            Iterator<byte[]> iterator = contents.values().iterator();
+            while (size > MAX_COMPRESSED_CONTENT_CACHE_SIZE) {
+                // The added value is the last one and smaller than the bound
+                size -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Least recently used resolved resources by request path.
+     */
+    private static final class ResolvedResourceCache
+            extends LinkedHashMap<String, ResolvedResource> {
+        private ResolvedResourceCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<String, ResolvedResource> eldest) {
+            return size() > MAX_RESOLVED_RESOURCES;
+        }
+    }
+
+    private final ResolvedResourceCache resolvedResources = new ResolvedResourceCache();
+
+    private final CompressedContentCache compressedContents = new CompressedContentCache();
+
     /**
      * Constructs a file server.
      *
@@ -294,6 +416,149 @@ public class StaticFileServer implements StaticFileHandler {
             return true;
         }
 
+        boolean cacheable = deploymentConfiguration.isProductionMode();
+        ResolvedResource resource = null;
+        if (cacheable) {
+            synchronized (resolvedResources) {
+                resource = resolvedResources.get(filenameWithPath);
+            }
+        }
+        if (resource == null) {
+            URL resourceUrl = findResource(filenameWithPath);
+            if (resourceUrl == null) {
+                // Not found in webcontent or in META-INF/resources in some JAR
+                return false;
+            }
+
+            if (resourceIsDirectory(resourceUrl)) {
+                // Directories are not static resources although
+                // servletContext.getResource will return a URL for them, at
+                // least with Jetty
+                return false;
+            }
+
+            if (!cacheable) {
+                // There is a resource!
+
+                // Intentionally writing cache headers also for 304 responses
+                writeCacheHeaders(filenameWithPath, response);
+
+                long timestamp = writeModificationTimestamp(resourceUrl,
+                        request, response);
+                if (browserHasNewestVersion(request, timestamp)) {
+                    // Browser is up to date, nothing further to do than set
+                    // the response code
+                    response.setStatus(HttpStatusCode.NOT_MODIFIED.getCode());
+                    return true;
+                }
+                responseWriter.writeResponseContents(filenameWithPath,
+                        resourceUrl, request, response);
+                return true;
+            }
+
+            // Only found resources are cached so that requests for arbitrary
+            // paths cannot evict them
+            resource = resolveResource(filenameWithPath, resourceUrl, request,
+                    response);
+            synchronized (resolvedResources) {
+                resolvedResources.put(filenameWithPath, resource);
+            }
+        }
+
+        // Intentionally writing cache headers also for 304 responses
+        writeCacheHeaders(filenameWithPath, response);
+
+        // Select the variant here to know its entity tag, the same way as
+        // the response writer does
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        URL brotliUrl = null;
+        URL gzippedUrl = null;
+        boolean compress = false;
+        String eTag = resource.eTag;
+        if (resource.brotliUrl != null
+                && ResponseWriter.acceptsEncoding(acceptEncoding, "br")) {
+            brotliUrl = resource.brotliUrl;
+            eTag = resource.brotliETag;
+        } else if (resource.gzippedUrl != null
+                && ResponseWriter.acceptsEncoding(acceptEncoding, "gzip")) {
+            gzippedUrl = resource.gzippedUrl;
+            eTag = resource.gzippedETag;
+        } else if (resource.compressible
+                && ResponseWriter.acceptsEncoding(acceptEncoding, "gzip")
+                && request.getHeader("Range") == null) {
+            // Ranges are served from the uncompressed resource
+            compress = true;
+            eTag = resource.gzippedETag;
+        }
+
+        if (resource.hasCompressedVariants()) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        if (resource.lastModified >= 0) {
+            response.setDateHeader("Last-Modified", resource.lastModified);
+        }
+        if (eTag != null) {
+            response.setHeader("ETag", eTag);
+        }
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        // If-None-Match takes precedence over If-Modified-Since
+        if (ifNoneMatch != null && eTag != null
+                ? matchesETag(ifNoneMatch, eTag)
+                : browserHasNewestVersion(request, resource.lastModified)) {
+            // Browser is up to date, nothing further to do than set the
+            // response code
+            response.setStatus(HttpStatusCode.NOT_MODIFIED.getCode());
+            return true;
+        }
+        if (compress) {
+            byte[] compressed = getCompressedContents(filenameWithPath,
+                    resource.url);
+            if (compressed != null) {
+                responseWriter.writeResponseContents(filenameWithPath,
+                        compressed, "gzip", request, response);
+                return true;
+            }
+            // Send the uncompressed resource with its own tag instead
+            if (resource.eTag != null) {
+                response.setHeader("ETag", resource.eTag);
+            }
+        }
+        responseWriter.writeResponseContents(filenameWithPath, resource.url,
+                brotliUrl, gzippedUrl, request, response);
+        return true;
+    }
+
+    /**
+     * Gets the gzipped contents of a resource, compressing it on the first
+     * request.
+     *
+     * @return the compressed contents or <code>null</code> if the resource
+     *         could not be read
+     */
+    private byte[] getCompressedContents(String filenameWithPath,
+            URL resourceUrl) {
+        String key = "gzip:" + filenameWithPath;
+        byte[] compressed = compressedContents.get(key);
+        if (compressed == null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (InputStream stream = resourceUrl.openStream();
+                    GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                stream.transferTo(gzip);
+            } catch (IOException e) {
+                getLogger().debug("Failed to compress {}", resourceUrl, e);
+                return null;
+            }
+            compressed = bytes.toByteArray();
+            compressedContents.put(key, compressed);
+        }
+        return compressed;
+    }
+
+    /**
+     * Finds the resource for the given request path, looking in the locations
+     * of the current mode before the static web resources.
+     */
+    private URL findResource(String filenameWithPath) throws IOException {
         URL resourceUrl = null;
         if (deploymentConfiguration.getMode() == Mode.DEVELOPMENT_BUNDLE) {
             if (!"/index.html".equals(filenameWithPath)) {
@@ -340,34 +605,110 @@ public class StaticFileServer implements StaticFileHandler {
                     fixIncorrectWebjarPath(filenameWithPath));
         }
 
-        if (resourceUrl == null) {
-            // Not found in webcontent or in META-INF/resources in some JAR
-            return false;
+        return resourceUrl;
+    }
+
+    /**
+     * Resolves the metadata of a found resource for caching, writing the
+     * modification timestamp into the response like for an uncached resource.
+     */
+    private ResolvedResource resolveResource(String filenameWithPath,
+            URL resourceUrl, HttpServletRequest request,
+            HttpServletResponse response) {
+        long lastModified = writeModificationTimestamp(resourceUrl, request,
+                response);
+        URL brotliUrl = deploymentConfiguration.isBrotli()
+                ? responseWriter.findPrecompressedResource(request,
+                        filenameWithPath, ".br")
+                : null;
+        URL gzippedUrl = responseWriter.findPrecompressedResource(request,
+                filenameWithPath, ".gz");
+        boolean compressible = false;
+        String mimeType = request.getServletContext()
+                .getMimeType(filenameWithPath);
+        if (gzippedUrl == null && isCompressibleType(mimeType)) {
+            long length = getContentLength(resourceUrl);
+            compressible = length >= MIN_COMPRESSIBLE_SIZE
+                    && length <= MAX_COMPRESSIBLE_SIZE;
         }
+        return new ResolvedResource(resourceUrl, brotliUrl, gzippedUrl,
+                lastModified, compressible);
+    }
 
-        if (resourceIsDirectory(resourceUrl)) {
-            // Directories are not static resources although
-            // servletContext.getResource will return a URL for them, at
-            // least with Jetty
+    private static boolean isCompressibleType(String mimeType) {
+        if (mimeType == null) {
             return false;
         }
+        String type = mimeType.toLowerCase(Locale.ENGLISH);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        return type.startsWith("text/") || type.endsWith("+xml")
+                || type.endsWith("+json")
+                || type.equals("application/javascript")
+                || type.equals("application/json")
+                || type.equals("application/xml")
+                || type.equals("application/wasm");
+    }
 
-        // There is a resource!
+    private static long getContentLength(URL resourceUrl) {
+        URLConnection connection = null;
+        try {
+            connection = resourceUrl.openConnection();
+            return connection.getContentLengthLong();
+        } catch (IOException e) {
+            getLogger().trace("Failed to find out content length", e);
+            return -1L;
+        } finally {
+            try {
+                if (connection != null) {
+                    InputStream is = connection.getInputStream();
+                    if (is != null) {
+                        is.close();
+                    }
+                }
+            } catch (IOException e) {
+                getLogger().warn("Error closing URLConnection input stream", e);
+            }
+        }
+    }
 
-        // Intentionally writing cache headers also for 304 responses
-        writeCacheHeaders(filenameWithPath, response);
+    /**
+     * Computes a strong entity tag from the SHA-256 hash of the contents of
+     * the given resource.
+     *
+     * @return the entity tag or <code>null</code> if the resource could not
+     *         be read
+     */
+    private static String computeETag(URL resourceUrl) {
+        try (InputStream stream = resourceUrl.openStream()) {
+            return '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MessageDigestUtil.sha256(stream)) + '"';
+        } catch (IOException e) {
+            getLogger().trace("Failed to compute entity tag for {}",
+                    resourceUrl, e);
+            return null;
+        }
+    }
 
-        long timestamp = writeModificationTimestamp(resourceUrl, request,
-                response);
-        if (browserHasNewestVersion(request, timestamp)) {
-            // Browser is up to date, nothing further to do than set the
-            // response code
-            response.setStatus(HttpStatusCode.NOT_MODIFIED.getCode());
-            return true;
+    /**
+     * Checks whether the given If-None-Match header value matches the entity
+     * tag, using the weak comparison.
+     */
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        String opaqueTag = getOpaqueTag(eTag);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if ("*".equals(tag) || opaqueTag.equals(getOpaqueTag(tag))) {
+                return true;
+            }
         }
-        responseWriter.writeResponseContents(filenameWithPath, resourceUrl,
-                request, response);
-        return true;
+        return false;
+    }
+
+    private static String getOpaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
     }
 
     private static URL findAssetInFrontendThemesOrDevBundle(
@@ -535,6 +876,11 @@ public class StaticFileServer implements StaticFileHandler {
 
     /**
      * Writes cache headers for the file into the response.
+     * <p>
+     * In production mode, the content hashed files of the production bundle,
+     * e.g. <code>VAADIN/build/indexhtml-DwZdQ4m1.js</code>, are cached for one
+     * year as immutable, unless {@link #getCacheTime(String)} disables caching
+     * for them.
      *
      * @param filenameWithPath
      *            the name and path of the file being sent
@@ -547,6 +893,13 @@ public class StaticFileServer implements StaticFileHandler {
         String cacheControl;
         if (!deploymentConfiguration.isProductionMode()) {
             cacheControl = "no-cache";
+        } else if (resourceCacheTime > 0
+                && HASHED_BUNDLE_FILE_PATTERN.matcher(filenameWithPath)
+                        .matches()) {
+            // A changed file gets a new name, so browsers need not
+            // revalidate it even when reloading the page
+            cacheControl = "max-age=" + HASHED_BUNDLE_FILE_CACHE_TIME
+                    + ", immutable";
         } else if (resourceCacheTime > 0) {
             cacheControl = "max-age=" + resourceCacheTime;
         } else {
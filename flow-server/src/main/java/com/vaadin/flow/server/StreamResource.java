@@ -17,9 +17,13 @@ package com.vaadin.flow.server;
 
 import jakarta.servlet.ServletContext;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,7 +73,11 @@ public class StreamResource extends AbstractStreamResource {
 
     private static class Pipe implements StreamResourceWriter {
 
-        private static final int BUFFER_SIZE = 1024;
+        // The buffer grows from the initial size up to the maximum size while
+        // the source fills it, so that large data is copied with fewer reads
+        // and, if the factory requires the lock, fewer lock cycles
+        private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+        private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
         private InputStreamFactory factory;
 
@@ -81,7 +89,12 @@ public class StreamResource extends AbstractStreamResource {
         public void accept(OutputStream stream, VaadinSession session)
                 throws IOException {
             try (InputStream input = createInputStream(session)) {
-                copy(session, input, stream);
+                if (!factory.requiresLock()
+                        && input instanceof FileInputStream) {
+                    transfer(((FileInputStream) input).getChannel(), stream);
+                } else {
+                    copy(session, input, stream);
+                }
             } catch (IOException ioe) {
                 if ("Broken pipe".equals(ioe.getMessage())) {
                     LoggerFactory.getLogger(StreamResource.class).debug(
@@ -104,10 +117,13 @@ public class StreamResource extends AbstractStreamResource {
 
         private void copy(VaadinSession session, InputStream source,
                 OutputStream out) throws IOException {
-            byte[] buf = new byte[BUFFER_SIZE];
+            byte[] buf = new byte[INITIAL_BUFFER_SIZE];
             int n;
             while ((n = read(session, source, buf)) >= 0) {
                 out.write(buf, 0, n);
+                if (n == buf.length && buf.length < MAX_BUFFER_SIZE) {
+                    buf = new byte[buf.length * 2];
+                }
             }
         }
 
@@ -116,6 +132,8 @@ public class StreamResource extends AbstractStreamResource {
             if (factory.requiresLock()) {
                 session.lock();
                 try {
+                    // A single read so that a slow source doesn't hold the
+                    // lock until the buffer is full
                     return source.read(buffer);
                 } finally {
                     session.unlock();
@@ -124,6 +142,22 @@ public class StreamResource extends AbstractStreamResource {
                 return source.read(buffer);
             }
         }
+
+        private void transfer(FileChannel source, OutputStream out)
+                throws IOException {
+            // Not closed since that would close the output stream
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = source.position();
+            long size = source.size();
+            while (position < size) {
+                long transferred = source.transferTo(position,
+                        size - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
     }
 
     /**
@@ -34,6 +34,9 @@ public class StreamResourceRegistry implements Serializable {
 
     private final Map<URI, AbstractStreamResource> res = new HashMap<>();
 
+    // Download statistics of the registered stream resources by resource id
+    private final Map<String, StreamResourceStatistics> statistics = new HashMap<>();
+
     private final VaadinSession session;
 
     private static final class Registration implements StreamRegistration {
@@ -55,7 +58,11 @@ public class StreamResourceRegistry implements Serializable {
 
         @Override
         public void unregister() {
-            registry.res.remove(getResourceUri());
+            AbstractStreamResource resource = registry.res
+                    .remove(getResourceUri());
+            if (resource != null) {
+                registry.statistics.remove(resource.getId());
+            }
         }
 
         @Override
@@ -98,6 +105,10 @@ public class StreamResourceRegistry implements Serializable {
         StreamRegistration registration = new Registration(this,
                 resource.getId(), resource.getName());
         res.put(registration.getResourceUri(), resource);
+        if (resource instanceof StreamResource) {
+            statistics.putIfAbsent(resource.getId(),
+                    new StreamResourceStatistics());
+        }
         return registration;
     }
 
@@ -185,4 +196,18 @@ public class StreamResourceRegistry implements Serializable {
         }
         return Optional.empty();
     }
+
+    /**
+     * Gets the download statistics of a registered stream resource.
+     *
+     * @param resource
+     *            the stream resource
+     * @return an optional statistics, or an empty optional if the resource is
+     *         not a registered {@link StreamResource}
+     */
+    public Optional<StreamResourceStatistics> getStatistics(
+            AbstractStreamResource resource) {
+        session.checkHasLock();
+        return Optional.ofNullable(statistics.get(resource.getId()));
+    }
 }
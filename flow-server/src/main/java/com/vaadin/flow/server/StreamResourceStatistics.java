@@ -0,0 +1,92 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Download statistics of a {@link StreamResource} registered in a
+ * {@link StreamResourceRegistry}.
+ * <p>
+ * The statistics are updated when a download completes, without the session
+ * lock, so they can be read at any time.
+ *
+ * @see StreamResourceRegistry#getStatistics(AbstractStreamResource)
+ * @author Vaadin Ltd
+ * @since
+ */
+public class StreamResourceStatistics implements Serializable {
+
+    private final AtomicLong downloadCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong transferNanos = new AtomicLong();
+
+    /**
+     * Records a download of the resource.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @param bytes
+     *            the number of bytes written
+     * @param nanos
+     *            the time it took to write the bytes, in nanoseconds
+     */
+    public void recordDownload(long bytes, long nanos) {
+        downloadCount.incrementAndGet();
+        bytesWritten.addAndGet(bytes);
+        transferNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Gets the number of downloads of the resource, including failed ones.
+     *
+     * @return the number of downloads
+     */
+    public long getDownloadCount() {
+        return downloadCount.get();
+    }
+
+    /**
+     * Gets the total number of bytes written in all downloads.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the total time spent writing all downloads.
+     *
+     * @return the transfer time
+     */
+    public Duration getTransferTime() {
+        return Duration.ofNanos(transferNanos.get());
+    }
+
+    /**
+     * Gets the average throughput of the downloads.
+     *
+     * @return the throughput in bytes per second, or 0 if nothing has been
+     *         downloaded
+     */
+    public double getThroughput() {
+        long nanos = transferNanos.get();
+        return nanos == 0 ? 0 : bytesWritten.get() * 1e9 / nanos;
+    }
+}
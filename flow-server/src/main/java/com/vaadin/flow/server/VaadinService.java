@@ -39,10 +39,19 @@ import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -72,6 +81,7 @@ import com.vaadin.flow.server.communication.IndexHtmlRequestListener;
 import com.vaadin.flow.server.communication.IndexHtmlResponse;
 import com.vaadin.flow.server.communication.JavaScriptBootstrapHandler;
 import com.vaadin.flow.server.communication.PwaHandler;
+import com.vaadin.flow.server.communication.SessionMemoryProfileHandler;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
 import com.vaadin.flow.server.communication.UidlRequestHandler;
@@ -185,6 +195,12 @@ public abstract class VaadinService implements Serializable {
 
     private Iterable<VaadinRequestInterceptor> vaadinRequestInterceptors;
 
+    private final SessionLockMetrics sessionLockMetrics = new SessionLockMetrics();
+
+    private static final int EXECUTOR_QUEUE_CAPACITY = 10000;
+
+    private transient volatile ExecutorService executor;
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -343,6 +359,7 @@ public abstract class VaadinService implements Serializable {
 
         handlers.add(new WebComponentBootstrapHandler());
         handlers.add(new WebComponentProvider());
+        handlers.add(new SessionMemoryProfileHandler());
 
         return handlers;
     }
@@ -790,7 +807,7 @@ public abstract class VaadinService implements Serializable {
             synchronized (VaadinService.class) {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    lock = createSessionLock();
                     setSessionLock(wrappedSession, lock);
                 }
             }
@@ -810,6 +827,39 @@ public abstract class VaadinService implements Serializable {
         return lock;
     }
 
+    /**
+     * Creates a new lock instance for a session. The lock uses a fair ordering
+     * policy if {@link DeploymentConfiguration#isSessionLockFair()} is enabled
+     * and records its wait and hold times to {@link #getSessionLockMetrics()}
+     * if {@link DeploymentConfiguration#isSessionLockMetricsEnabled()} is
+     * enabled.
+     *
+     * @return a new session lock
+     */
+    private ReentrantLock createSessionLock() {
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        if (configuration == null) {
+            return new ReentrantLock();
+        }
+        boolean fair = configuration.isSessionLockFair();
+        if (configuration.isSessionLockMetricsEnabled()) {
+            return new InstrumentedSessionLock(fair, sessionLockMetrics);
+        }
+        return new ReentrantLock(fair);
+    }
+
+    /**
+     * Gets the statistics about waiting for and holding the session locks of
+     * this service, grouped by request type. The statistics are only collected
+     * if {@link DeploymentConfiguration#isSessionLockMetricsEnabled()} is
+     * enabled.
+     *
+     * @return the session lock metrics, not {@code null}
+     */
+    public SessionLockMetrics getSessionLockMetrics() {
+        return sessionLockMetrics;
+    }
+
     /**
      * Releases the lock for the given session for this service instance.
      * Typically, you want to call {@link VaadinSession#unlock()} instead of
@@ -2032,11 +2082,63 @@ public abstract class VaadinService implements Serializable {
      * thread, the queue will be purged when the session is unlocked. If the
      * lock is not held by any thread, it is acquired and the queue is purged
      * right away.
+     * <p>
+     * If {@link DeploymentConfiguration#getAccessCoalescingWindow()} is
+     * positive and the current thread does not hold the lock, the queue is
+     * instead purged once the window has passed. Tasks enqueued in the meantime
+     * are run under the same lock and their changes are pushed together.
      *
      * @param session
      *            the session for which the access queue should be purged
      */
     public void ensureAccessQueuePurged(VaadinSession session) {
+        int coalescingWindow = getDeploymentConfiguration()
+                .getAccessCoalescingWindow();
+        if (coalescingWindow > 0 && !session.hasLock()) {
+            AtomicBoolean scheduled = session.getAccessQueuePurgeScheduled();
+            if (scheduled.compareAndSet(false, true)) {
+                Runnable purge = () -> {
+                    scheduled.set(false);
+                    purgeAccessQueue(session);
+                };
+                // Handed to the service executor once the window has passed
+                CompletableFuture.delayedExecutor(coalescingWindow,
+                        TimeUnit.MILLISECONDS, this::dispatch).execute(purge);
+            }
+            return;
+        }
+        purgeAccessQueue(session);
+    }
+
+    /**
+     * Purges the pending access queue of the given session on a thread of
+     * {@link #getExecutor()}. Used when the current thread has no reason to
+     * run tasks enqueued by other threads.
+     *
+     * @param session
+     *            the session for which the access queue should be purged
+     */
+    void dispatchAccessQueuePurge(VaadinSession session) {
+        if (getDeploymentConfiguration().getAccessCoalescingWindow() > 0) {
+            ensureAccessQueuePurged(session);
+        } else {
+            dispatch(() -> purgeAccessQueue(session));
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            getExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            /*
+             * E.g. the service is being destroyed. Otherwise the queued tasks
+             * would never run, or a scheduled purge would stay scheduled.
+             */
+            task.run();
+        }
+    }
+
+    private void purgeAccessQueue(VaadinSession session) {
         /*
          * If no thread is currently holding the lock, pending changes for UIs
          * with automatic push would not be processed and pushed until the next
@@ -2140,6 +2242,80 @@ public abstract class VaadinService implements Serializable {
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Gets the executor for running background work related to this service.
+     * The framework uses it by default for fetching data asynchronously with
+     * {@code DataCommunicator.enablePushUpdates()}, for reading pages ahead in
+     * {@code DataCommunicator}, and for running {@link UI#access(Command)}
+     * tasks that were enqueued by other threads while a request thread was
+     * releasing the session lock, or within the access coalescing window.
+     * <p>
+     * The executor is created with {@link #createExecutor()} the first time it
+     * is needed and shut down when the service is destroyed.
+     *
+     * @return the executor, not {@code null}
+     */
+    public Executor getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    result = createExecutor();
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the executor returned by {@link #getExecutor()}.
+     * <p>
+     * By default, each task is run in a new virtual thread if the JVM supports
+     * virtual threads, so that tasks blocked on a session lock or a slow
+     * backend do not each occupy a platform thread. On older JVMs, the tasks
+     * are run in a pool of daemon threads bounded by twice the number of
+     * processors, at least four, with a bounded queue. When both are full, a
+     * task is run by the thread that submits it.
+     *
+     * @return a new executor service, not {@code null}
+     */
+    protected ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            getLogger().debug(
+                    "Virtual threads are not available, using a thread pool for background tasks");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        String namePrefix = getServiceName() + "-executor-";
+        int threads = Math.max(4,
+                2 * Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(EXECUTOR_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            namePrefix + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException(
+                                "The executor of the service has been shut down");
+                    }
+                    // Saturated, slow the submitters down instead
+                    runnable.run();
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
     /**
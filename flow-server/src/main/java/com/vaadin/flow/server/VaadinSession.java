@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -123,6 +124,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
 
+    /*
+     * Set while a delayed purge of the pending access queue is scheduled, see
+     * VaadinService.ensureAccessQueuePurged.
+     */
+    private transient AtomicBoolean accessQueuePurgeScheduled = new AtomicBoolean();
+
     /*
      * This token should be handled with care since it's used to protect against
      * cross-site attacks in addition to general identifier duty.
@@ -748,10 +755,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
          * might however not happen if a task is enqueued between the moment
          * when unlock() purges the queue and the moment when the lock is
          * actually released. This means that the queue should be purged again
-         * if it is not empty after unlocking.
+         * if it is not empty after unlocking. The tasks were enqueued by other
+         * threads, so they are run by the service executor rather than by
+         * this thread.
          */
         if (ultimateRelease && !getPendingAccessQueue().isEmpty()) {
-            getService().ensureAccessQueuePurged(this);
+            getService().dispatchAccessQueuePurge(this);
         }
     }
 
@@ -1051,6 +1060,16 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return pushId;
     }
 
+    /**
+     * Gets the flag telling whether a delayed purge of the pending access queue
+     * has been scheduled for this session.
+     *
+     * @return the scheduled flag, not <code>null</code>
+     */
+    AtomicBoolean getAccessQueuePurgeScheduled() {
+        return accessQueuePurgeScheduled;
+    }
+
     /**
      * Override default deserialization logic to account for transient
      * {@link #pendingAccessQueue}.
@@ -1071,6 +1090,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
             uIs = (Map<Integer, UI>) stream.readObject();
             resourceRegistry = (StreamResourceRegistry) stream.readObject();
             pendingAccessQueue = new ConcurrentLinkedQueue<>();
+            accessQueuePurgeScheduled = new AtomicBoolean();
         } finally {
             CurrentInstance.restoreInstances(old);
         }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.internal.StateTreeFootprint;
+import com.vaadin.flow.internal.nodefeature.ComponentMapping;
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.server.HandlerHelper;
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.HttpStatusCode;
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Handles session memory profile requests. The response contains the
+ * approximate size of the state trees of the UIs in the requesting session as
+ * JSON, broken down per UI, route, component type and node feature type.
+ * <p>
+ * The handler only responds if
+ * {@link com.vaadin.flow.function.DeploymentConfiguration#isMemoryProfilerEnabled()}
+ * is <code>true</code>. The session is locked for a limited number of nodes at
+ * a time rather than for the whole walk, and the {@value #SAMPLE_PARAMETER}
+ * parameter can be used to measure only every n:th node and extrapolate the
+ * result, so that the profiler can be used in production. Nodes that are
+ * detached while the session is unlocked are not measured.
+ * <p>
+ * The sizes are attributed to the closest component of each node, i.e. the
+ * size of the plain elements inside a component counts towards that component.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SessionMemoryProfileHandler implements RequestHandler {
+
+    /**
+     * The name of the request parameter that defines the sampling interval,
+     * i.e. only every n:th node is measured. Defaults to 1 which measures every
+     * node.
+     */
+    public static final String SAMPLE_PARAMETER = "sample";
+
+    private static final int DEFAULT_NODES_PER_LOCK = 1000;
+
+    private final int nodesPerLock;
+
+    /**
+     * Creates a new handler.
+     */
+    public SessionMemoryProfileHandler() {
+        this(DEFAULT_NODES_PER_LOCK);
+    }
+
+    /**
+     * Creates a new handler that visits at most the given number of nodes
+     * each time the session is locked.
+     *
+     * @param nodesPerLock
+     *            the maximum number of nodes to visit per lock, at least 1
+     */
+    SessionMemoryProfileHandler(int nodesPerLock) {
+        if (nodesPerLock < 1) {
+            throw new IllegalArgumentException(
+                    "nodesPerLock must be at least 1");
+        }
+        this.nodesPerLock = nodesPerLock;
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!HandlerHelper.isRequestType(request, RequestType.MEMORY_PROFILE)) {
+            return false;
+        }
+        if (!session.getConfiguration().isMemoryProfilerEnabled()) {
+            response.sendError(HttpStatusCode.NOT_FOUND.getCode(),
+                    "Memory profiler is not enabled");
+            return true;
+        }
+
+        int sampleInterval;
+        try {
+            sampleInterval = getSampleInterval(request);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpStatusCode.BAD_REQUEST.getCode(),
+                    "Invalid " + SAMPLE_PARAMETER + " parameter");
+            return true;
+        }
+
+        JsonObject json = createProfile(session, sampleInterval);
+
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+        response.getWriter().write(json.toJson());
+        return true;
+    }
+
+    private static int getSampleInterval(VaadinRequest request) {
+        String sample = request.getParameter(SAMPLE_PARAMETER);
+        if (sample == null) {
+            return 1;
+        }
+        int sampleInterval = Integer.parseInt(sample);
+        if (sampleInterval < 1) {
+            throw new NumberFormatException(sample);
+        }
+        return sampleInterval;
+    }
+
+    /**
+     * Creates a memory profile of the UIs in the given session. The session
+     * must not be locked by the current thread, since it is unlocked after
+     * every few nodes to let other requests through.
+     *
+     * @param session
+     *            the session to profile, not <code>null</code>
+     * @param sampleInterval
+     *            measure only every n:th node, at least 1
+     * @return the profile as JSON, not <code>null</code>
+     */
+    JsonObject createProfile(VaadinSession session, int sampleInterval) {
+        List<UI> uis;
+        session.lock();
+        try {
+            uis = new ArrayList<>(session.getUIs());
+        } finally {
+            session.unlock();
+        }
+
+        Map<String, Long> routeSizes = new TreeMap<>();
+        Map<String, Long> componentSizes = new TreeMap<>();
+        Map<String, Long> featureSizes = new TreeMap<>();
+        JsonArray uiArray = Json.createArray();
+        long totalSize = 0;
+
+        for (UI ui : uis) {
+            StateTreeFootprint footprint = new StateTreeFootprint();
+            Map<String, Long> uiComponentSizes = new HashMap<>();
+            Deque<StateNode> pending = new ArrayDeque<>();
+            String route = null;
+            int visited = 0;
+            boolean removed = false;
+            do {
+                session.lock();
+                try {
+                    if (ui.getSession() != session) {
+                        // Removed while the session was unlocked
+                        removed = true;
+                        break;
+                    }
+                    StateTree tree = ui.getInternals().getStateTree();
+                    if (route == null) {
+                        route = ui.getInternals().getActiveViewLocation()
+                                .getPath();
+                        pending.push(tree.getRootNode());
+                    } else {
+                        // Skip subtrees detached while the session was unlocked
+                        pending.removeIf(node -> !node.isAttached()
+                                || node.getOwner() != tree);
+                    }
+                    for (int i = 0; i < nodesPerLock
+                            && !pending.isEmpty(); i++) {
+                        StateNode node = pending.pop();
+                        if (visited++ % sampleInterval == 0) {
+                            long size = footprint.add(node) * sampleInterval;
+                            uiComponentSizes.merge(getComponentType(node),
+                                    size, Long::sum);
+                        }
+                        node.forEachChild(pending::push);
+                    }
+                } finally {
+                    session.unlock();
+                }
+            } while (!pending.isEmpty());
+
+            if (removed) {
+                continue;
+            }
+
+            uiComponentSizes.forEach(
+                    (type, size) -> componentSizes.merge(type, size, Long::sum));
+            long uiSize = footprint.getTotalSize() * sampleInterval;
+            for (Map.Entry<Class<? extends NodeFeature>, Long> entry : footprint
+                    .getFeatureSizes().entrySet()) {
+                featureSizes.merge(entry.getKey().getName(),
+                        entry.getValue() * sampleInterval, Long::sum);
+            }
+            routeSizes.merge(route, uiSize, Long::sum);
+            totalSize += uiSize;
+
+            JsonObject uiJson = Json.createObject();
+            uiJson.put("id", ui.getUIId());
+            uiJson.put("route", route);
+            uiJson.put("nodes", visited);
+            uiJson.put("bytes", uiSize);
+            uiArray.set(uiArray.length(), uiJson);
+        }
+
+        JsonObject json = Json.createObject();
+        json.put("sample", sampleInterval);
+        json.put("bytes", totalSize);
+        json.put("uis", uiArray);
+        json.put("routes", toJson(routeSizes));
+        json.put("components", toJson(componentSizes));
+        json.put("features", toJson(featureSizes));
+        return json;
+    }
+
+    private static String getComponentType(StateNode node) {
+        for (StateNode current = node; current != null; current = current
+                .getParent()) {
+            if (current.hasFeature(ComponentMapping.class)) {
+                Component component = ComponentMapping.getComponent(current)
+                        .orElse(null);
+                if (component != null) {
+                    return component.getClass().getName();
+                }
+            }
+        }
+        return "";
+    }
+
+    private static JsonObject toJson(Map<String, Long> sizes) {
+        JsonObject json = Json.createObject();
+        sizes.forEach(json::put);
+        return json;
+    }
+}
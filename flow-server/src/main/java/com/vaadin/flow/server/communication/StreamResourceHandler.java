@@ -17,12 +17,14 @@ package com.vaadin.flow.server.communication;
 
 import jakarta.servlet.ServletContext;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 
 import com.vaadin.flow.server.HttpStatusCode;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceStatistics;
 import com.vaadin.flow.server.StreamResourceWriter;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
@@ -60,6 +62,7 @@ public class StreamResourceHandler implements Serializable {
             throws IOException {
 
         StreamResourceWriter writer;
+        StreamResourceStatistics statistics;
         session.lock();
         try {
             ServletContext context = ((VaadinServletRequest) request)
@@ -74,6 +77,8 @@ public class StreamResourceHandler implements Serializable {
                 throw new IOException(
                         "Stream resource produces null input stream");
             }
+            statistics = session.getResourceRegistry()
+                    .getStatistics(streamResource).orElse(null);
         } catch (Exception exception) {
             response.setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getCode());
             throw exception;
@@ -82,14 +87,52 @@ public class StreamResourceHandler implements Serializable {
             session.unlock();
         }
         try (OutputStream outputStream = response.getOutputStream()) {
+            CountingOutputStream countingStream = statistics == null ? null
+                    : new CountingOutputStream(outputStream);
+            long start = System.nanoTime();
             try {
-                writer.accept(outputStream, session);
+                writer.accept(countingStream == null ? outputStream
+                        : countingStream, session);
             } catch (Exception exception) {
                 // Set status before output is closed (see #8740)
                 response.setStatus(
                         HttpStatusCode.INTERNAL_SERVER_ERROR.getCode());
                 throw exception;
+            } finally {
+                if (countingStream != null) {
+                    statistics.recordDownload(countingStream.count,
+                            System.nanoTime() - start);
+                }
             }
         }
     }
+
+    /**
+     * Counts the bytes written to the response, without closing it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The response stream is closed by the handler
+            flush();
+        }
+    }
 }
@@ -16,8 +16,10 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.concurrent.atomic.AtomicReference;
@@ -28,6 +30,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.GzipUtil;
+import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
@@ -82,6 +86,8 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     private static final String CHANGES = "changes";
     private static final String EXECUTE = UIDL_KEY_EXECUTE;
 
+    private static final int MIN_COMPRESSED_RESPONSE_SIZE = 1024;
+
     @Override
     protected boolean canHandleRequest(VaadinRequest request) {
         return HandlerHelper.isRequestType(request, RequestType.UIDL);
@@ -108,11 +114,21 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
-        StringWriter stringWriter = new StringWriter();
+        boolean streaming = session.getService().getDeploymentConfiguration()
+                .isStreamingUidl();
+        // The streaming writer encodes the response into bytes as it is
+        // written instead of buffering it as a string that is encoded when
+        // committed
+        ByteArrayOutputStream byteBuffer = streaming
+                ? new ByteArrayOutputStream()
+                : null;
+        Writer writer = streaming
+                ? new OutputStreamWriter(byteBuffer, UTF_8)
+                : new StringWriter();
 
         try {
             getRpcHandler(session).handleRpc(uI, request.getReader(), request);
-            writeUidl(uI, stringWriter, false);
+            writeUidl(uI, writer, false, streaming);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -126,12 +142,22 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         } catch (ResynchronizationRequiredException e) { // NOSONAR
             // Resync on the client side
-            writeUidl(uI, stringWriter, true);
+            writeUidl(uI, writer, true, streaming);
         } finally {
-            stringWriter.close();
+            writer.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
+        boolean compress = session.getService().getDeploymentConfiguration()
+                .isUidlCompression()
+                && ResponseWriter.acceptsEncoding(
+                        request.getHeader("Accept-Encoding"), "gzip");
+        if (streaming) {
+            commitJsonResponse(response, byteBuffer, compress);
+        } else if (compress) {
+            commitCompressedJsonResponse(response, writer.toString());
+        } else {
+            commitJsonResponse(response, writer.toString());
+        }
         return true;
     }
 
@@ -141,10 +167,21 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         commitJsonResponse(response, json);
     }
 
+    private void writeUidl(UI ui, Writer writer, boolean resync,
+            boolean streaming) throws IOException {
+        if (streaming) {
+            writeStreamingUidl(ui, writer, resync);
+        } else {
+            writeUidl(ui, writer, resync);
+        }
+    }
+
     void writeUidl(UI ui, Writer writer, boolean resync) throws IOException {
         JsonObject uidl = createUidl(ui, resync);
 
-        removeOffendingMprHashFragment(uidl);
+        if (uidl.hasKey(EXECUTE)) {
+            removeOffendingMprHashFragment(uidl.getArray(EXECUTE));
+        }
 
         // some dirt to prevent cross site scripting
         String responseString = "for(;;);[" + uidl.toJson() + "]";
@@ -155,6 +192,28 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return new UidlWriter().createUidl(ui, false, resync);
     }
 
+    /**
+     * Writes the UIDL for the given UI without building the complete response
+     * as a JSON object first.
+     *
+     * @param ui
+     *            the UI whose changes to write
+     * @param writer
+     *            the writer to write the response to
+     * @param resync
+     *            {@code true} iff the client should be asked to resynchronize
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    void writeStreamingUidl(UI ui, Writer writer, boolean resync)
+            throws IOException {
+        // some dirt to prevent cross site scripting
+        writer.write("for(;;);[");
+        new UidlWriter().writeUidl(ui, false, resync, writer,
+                this::removeOffendingMprHashFragment);
+        writer.write(']');
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(UidlRequestHandler.class.getName());
     }
@@ -218,12 +277,78 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         outputStream.flush();
     }
 
-    private void removeOffendingMprHashFragment(JsonObject uidl) {
-        if (!uidl.hasKey(EXECUTE)) {
+    /**
+     * Commit the JSON response gzip compressed. Responses smaller than
+     * {@value #MIN_COMPRESSED_RESPONSE_SIZE} bytes are written uncompressed as
+     * compressing them saves too little to be worth the effort.
+     *
+     * @param response
+     *            The response to write to
+     * @param json
+     *            The JSON to write
+     * @throws IOException
+     *             If there was an exception while writing to the output
+     */
+    static void commitCompressedJsonResponse(VaadinResponse response,
+            String json) throws IOException {
+        byte[] b = json.getBytes(UTF_8);
+        if (b.length < MIN_COMPRESSED_RESPONSE_SIZE) {
+            commitJsonResponse(response, json);
             return;
         }
+        writeCompressedJsonResponse(response, b);
+    }
+
+    /**
+     * Commit the JSON response that has already been encoded into the given
+     * buffer, without creating an intermediate string.
+     *
+     * @param response
+     *            The response to write to
+     * @param json
+     *            The buffer containing the UTF-8 encoded JSON to write
+     * @param compress
+     *            <code>true</code> to gzip the response if it is at least
+     *            {@value #MIN_COMPRESSED_RESPONSE_SIZE} bytes
+     * @throws IOException
+     *             If there was an exception while writing to the output
+     */
+    static void commitJsonResponse(VaadinResponse response,
+            ByteArrayOutputStream json, boolean compress) throws IOException {
+        if (compress && json.size() >= MIN_COMPRESSED_RESPONSE_SIZE) {
+            writeCompressedJsonResponse(response, json.toByteArray());
+            return;
+        }
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+        // Ensure that the browser does not cache UIDL responses.
+        // iOS 6 Safari requires this (#9732)
+        response.setHeader("Cache-Control", "no-cache");
+
+        response.setContentLength(json.size());
+
+        OutputStream outputStream = response.getOutputStream();
+        json.writeTo(outputStream);
+        // NOTE GateIn requires the buffers to be flushed to work
+        outputStream.flush();
+    }
+
+    private static void writeCompressedJsonResponse(VaadinResponse response,
+            byte[] b) throws IOException {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Content-Encoding", "gzip");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        byte[] compressed = GzipUtil.gzip(b);
+        response.setContentLength(compressed.length);
+
+        OutputStream outputStream = response.getOutputStream();
+        outputStream.write(compressed);
+        outputStream.flush();
+    }
 
-        JsonArray exec = uidl.getArray(EXECUTE);
+    private void removeOffendingMprHashFragment(JsonArray exec) {
         String location = null;
         int idx = -1;
         for (int i = 0; i < exec.length(); i++) {
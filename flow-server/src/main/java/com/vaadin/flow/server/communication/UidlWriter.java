@@ -19,6 +19,8 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -44,6 +46,7 @@ import com.vaadin.flow.component.internal.DependencyList;
 import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
@@ -67,6 +70,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -79,6 +83,7 @@ import elemental.json.JsonValue;
  * @since 1.0
  */
 public class UidlWriter implements Serializable {
+    private static final String CHANGES = "changes";
     private static final String COULD_NOT_READ_URL_CONTENTS_ERROR_MESSAGE = "Could not read url %s contents";
 
     /**
@@ -136,6 +141,118 @@ public class UidlWriter implements Serializable {
     public JsonObject createUidl(UI ui, boolean async, boolean resync) {
         JsonObject response = Json.createObject();
 
+        populateHeader(ui, async, resync, response);
+
+        JsonArray stateChanges = Json.createArray();
+
+        boolean compact = isCompactStateChanges(ui);
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        encodeChanges(ui, change -> stateChanges.set(stateChanges.length(),
+                compact && change.hasCompactJson()
+                        ? change.toCompactJson(constantPool)
+                        : change.toJson(constantPool)));
+
+        populateResources(ui, response);
+
+        if (stateChanges.length() != 0) {
+            response.put(CHANGES, stateChanges);
+        }
+
+        populateTrailer(ui, response);
+        return response;
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object directly to
+     * the given writer.
+     * <p>
+     * Unlike {@link #createUidl(UI, boolean, boolean)}, the state changes are
+     * not collected into an intermediate JSON array. Each change writes its
+     * fields directly to the writer as soon as it has been collected from the
+     * state tree, without creating a JSON object or string for the change. The
+     * written JSON is equivalent to the one created
+     * by {@link #createUidl(UI, boolean, boolean)}, but the order of the keys
+     * may differ.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message
+     * @param resync
+     *            True iff the client should be asked to resynchronize
+     * @param writer
+     *            the writer to write the UIDL response to, not {@code null}
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    public void writeUidl(UI ui, boolean async, boolean resync, Writer writer)
+            throws IOException {
+        writeUidl(ui, async, resync, writer, null);
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object directly to
+     * the given writer, allowing the list of JavaScript invocations to be
+     * post-processed before it is written.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message
+     * @param resync
+     *            True iff the client should be asked to resynchronize
+     * @param writer
+     *            the writer to write the UIDL response to, not {@code null}
+     * @param executeProcessor
+     *            a callback receiving the encoded JavaScript invocations before
+     *            they are written, or {@code null} to write them as is
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    void writeUidl(UI ui, boolean async, boolean resync, Writer writer,
+            Consumer<JsonArray> executeProcessor) throws IOException {
+        StreamingObjectWriter out = new StreamingObjectWriter(writer);
+
+        JsonObject header = Json.createObject();
+        populateHeader(ui, async, resync, header);
+        out.putAll(header);
+
+        boolean compact = isCompactStateChanges(ui);
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        try {
+            encodeChanges(ui, change -> {
+                try {
+                    out.nextArrayElement(CHANGES);
+                    if (compact && change.hasCompactJson()) {
+                        change.writeCompactJson(writer, constantPool);
+                    } else {
+                        change.writeJson(writer, constantPool);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.endArray();
+
+        JsonObject trailer = Json.createObject();
+        populateResources(ui, trailer);
+        populateTrailer(ui, trailer);
+        if (executeProcessor != null
+                && trailer.hasKey(JsonConstants.UIDL_KEY_EXECUTE)) {
+            executeProcessor
+                    .accept(trailer.getArray(JsonConstants.UIDL_KEY_EXECUTE));
+        }
+        out.putAll(trailer);
+        out.end();
+    }
+
+    private void populateHeader(UI ui, boolean async, boolean resync,
+            JsonObject response) {
         UIInternals uiInternals = ui.getInternals();
 
         VaadinSession session = ui.getSession();
@@ -164,21 +281,28 @@ public class UidlWriter implements Serializable {
         if (meta.keys().length > 0) {
             response.put("meta", meta);
         }
+    }
 
-        JsonArray stateChanges = Json.createArray();
-
-        encodeChanges(ui, stateChanges);
+    /**
+     * Adds the dependencies and constants collected while encoding the state
+     * changes. Must be called after the changes have been encoded.
+     */
+    private void populateResources(UI ui, JsonObject response) {
+        UIInternals uiInternals = ui.getInternals();
+        VaadinSession session = ui.getSession();
 
         populateDependencies(response, uiInternals.getDependencyList(),
-                new ResolveContext(service, session.getBrowser()));
+                new ResolveContext(session.getService(), session.getBrowser()));
 
         if (uiInternals.getConstantPool().hasNewConstants()) {
             response.put("constants",
                     uiInternals.getConstantPool().dumpConstants());
         }
-        if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
-        }
+    }
+
+    private void populateTrailer(UI ui, JsonObject response) {
+        UIInternals uiInternals = ui.getInternals();
+        VaadinService service = ui.getSession().getService();
 
         List<PendingJavaScriptInvocation> executeJavaScriptList = uiInternals
                 .dumpPendingJavaScriptInvocations();
@@ -198,7 +322,6 @@ public class UidlWriter implements Serializable {
                 : -1;
         response.put(ApplicationConstants.SERVER_SYNC_ID, syncId);
         uiInternals.incrementServerId();
-        return response;
     }
 
     /**
@@ -384,10 +507,10 @@ public class UidlWriter implements Serializable {
      * @param ui
      *            the UI
      * @param stateChanges
-     *            a JSON array to put state changes into
+     *            a consumer receiving each state change to encode
      * @see StateTree#runExecutionsBeforeClientResponse()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges) {
+    private void encodeChanges(UI ui, Consumer<NodeChange> stateChanges) {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
@@ -402,8 +525,7 @@ public class UidlWriter implements Serializable {
             }
 
             // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+            stateChanges.accept(change);
         };
         // A collectChanges round may add additional changes that needs to be
         // collected.
@@ -424,6 +546,11 @@ public class UidlWriter implements Serializable {
                 .forEach(uiInternals::addComponentDependencies);
     }
 
+    private static boolean isCompactStateChanges(UI ui) {
+        return ui.getSession().getService().getDeploymentConfiguration()
+                .isCompactStateChanges();
+    }
+
     private static boolean attachesComponent(NodeChange change) {
         return change instanceof NodeAttachChange
                 && change.getNode().hasFeature(ComponentMapping.class);
@@ -450,6 +577,65 @@ public class UidlWriter implements Serializable {
         return timings;
     }
 
+    /**
+     * Writes the members of a single JSON object to a writer as they become
+     * available, without building the complete object in memory.
+     */
+    private static class StreamingObjectWriter implements Serializable {
+        private final transient Writer writer;
+        private boolean hasMembers;
+        private String openArray;
+        private boolean arrayHasElements;
+
+        private StreamingObjectWriter(Writer writer) throws IOException {
+            this.writer = Objects.requireNonNull(writer);
+            writer.write('{');
+        }
+
+        private void putAll(JsonObject object) throws IOException {
+            for (String key : object.keys()) {
+                writeKey(key);
+                writer.write(object.get(key).toJson());
+            }
+        }
+
+        /**
+         * Prepares the writer for the next element of the array member with
+         * the given key, which the caller then writes directly to the writer.
+         */
+        private void nextArrayElement(String key) throws IOException {
+            if (openArray == null) {
+                writeKey(key);
+                writer.write('[');
+                openArray = key;
+            } else if (arrayHasElements) {
+                writer.write(',');
+            }
+            arrayHasElements = true;
+        }
+
+        private void endArray() throws IOException {
+            if (openArray != null) {
+                writer.write(']');
+                openArray = null;
+                arrayHasElements = false;
+            }
+        }
+
+        private void end() throws IOException {
+            writer.write('}');
+        }
+
+        private void writeKey(String key) throws IOException {
+            if (hasMembers) {
+                writer.write(',');
+            }
+            writer.write(JsonUtil.quote(key));
+            writer.write(':');
+            hasMembers = true;
+        }
+    }
+
     private static final Logger getLogger() {
         return LoggerFactory.getLogger(UidlWriter.class.getName());
     }
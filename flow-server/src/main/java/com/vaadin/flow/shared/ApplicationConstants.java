@@ -199,6 +199,11 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String REQUEST_TYPE_TRANSLATION_FILE = "i18n";
 
+    /**
+     * Request type parameter value indicating a session memory profile request.
+     */
+    public static final String REQUEST_TYPE_MEMORY_PROFILE = "memory-profile";
+
     /**
      * Attribute name for marking internal router link anchors.
      */
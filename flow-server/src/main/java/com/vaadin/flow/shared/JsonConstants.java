@@ -124,6 +124,76 @@ public class JsonConstants implements Serializable {
      */
     public static final String CHANGE_PUT_NODE_VALUE = "nodeValue";
 
+    /**
+     * Index of the node id in a change encoded as a compact JSON array. The
+     * change type is always at {@link #COMPACT_CHANGE_TYPE} and the feature id
+     * of feature changes at {@link #COMPACT_CHANGE_FEATURE}. The meaning of the
+     * remaining items depends on the change type.
+     */
+    public static final int COMPACT_CHANGE_NODE = 0;
+
+    /**
+     * Index of the change type in a change encoded as a compact JSON array.
+     */
+    public static final int COMPACT_CHANGE_TYPE = 1;
+
+    /**
+     * Index of the feature id in a feature change encoded as a compact JSON
+     * array.
+     */
+    public static final int COMPACT_CHANGE_FEATURE = 2;
+
+    /**
+     * Compact change type for attaching a node: {@code [node, type]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_ATTACH = 0;
+
+    /**
+     * Compact change type for detaching a node: {@code [node, type]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_DETACH = 1;
+
+    /**
+     * Compact change type for populating a feature:
+     * {@code [node, type, feature, isList]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_NOOP = 2;
+
+    /**
+     * Compact change type for putting a value into a map:
+     * {@code [node, type, feature, key, value]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_PUT = 3;
+
+    /**
+     * Compact change type for putting a node into a map:
+     * {@code [node, type, feature, key, nodeId]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_PUT_NODE = 4;
+
+    /**
+     * Compact change type for removing a value from a map:
+     * {@code [node, type, feature, key]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_REMOVE = 5;
+
+    /**
+     * Compact change type for clearing a list: {@code [node, type, feature]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_CLEAR = 6;
+
+    /**
+     * Compact change type for a list splice with values:
+     * {@code [node, type, feature, index, remove, add?]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_SPLICE = 7;
+
+    /**
+     * Compact change type for a list splice with nodes:
+     * {@code [node, type, feature, index, remove, addNodes]}.
+     */
+    public static final int COMPACT_CHANGE_TYPE_SPLICE_NODES = 8;
+
     /**
      * Key holding the type in of messages sent from the client.
      */
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GzipUtilTest {
+
+    @Test
+    public void gzip_canBeDecompressed() throws IOException {
+        byte[] data = "{\"node\":1,\"type\":\"put\",\"key\":\"foo\"}"
+                .repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = GzipUtil.gzip(data);
+
+        Assert.assertTrue(compressed.length < data.length);
+        Assert.assertArrayEquals(data, gunzip(compressed));
+    }
+
+    @Test
+    public void gzip_repeatedInvocations_deflaterIsReset() throws IOException {
+        byte[] first = "first".repeat(50).getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertArrayEquals(first, gunzip(GzipUtil.gzip(first)));
+            Assert.assertArrayEquals(second, gunzip(GzipUtil.gzip(second)));
+        }
+    }
+
+    @Test
+    public void gzip_range_onlyRangeCompressed() throws IOException {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = GzipUtil.gzip(data, 2, 5);
+
+        Assert.assertEquals("23456",
+                new String(gunzip(compressed), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void gzip_emptyData() throws IOException {
+        Assert.assertArrayEquals(new byte[0],
+                gunzip(GzipUtil.gzip(new byte[0])));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NodeIdMapTest {
+
+    private final NodeIdMap map = new NodeIdMap();
+
+    @Test
+    public void putGetRemove() {
+        StateNode node = new StateNode();
+
+        Assert.assertNull(map.put(1, node));
+        Assert.assertSame(node, map.get(1));
+        Assert.assertTrue(map.containsKey(1));
+        Assert.assertFalse(map.containsKey(2));
+        Assert.assertNull(map.get(0));
+        Assert.assertNull(map.get(-1));
+
+        Assert.assertSame(node, map.remove(1));
+        Assert.assertNull(map.get(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertEquals(0, map.size());
+    }
+
+    @Test
+    public void put_existingId_previousNodeReplaced() {
+        StateNode first = new StateNode();
+        StateNode second = new StateNode();
+        map.put(5, first);
+
+        Assert.assertSame(first, map.put(5, second));
+        Assert.assertSame(second, map.get(5));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void randomOperations_sameContentAsHashMap() {
+        Map<Integer, StateNode> expected = new HashMap<>();
+        Random random = new Random(42);
+        int nextId = 1;
+
+        for (int i = 0; i < 20000; i++) {
+            if (random.nextInt(3) == 0 || expected.isEmpty()) {
+                StateNode node = new StateNode();
+                int id = nextId++;
+                expected.put(id, node);
+                map.put(id, node);
+            } else {
+                int id = 1 + random.nextInt(nextId);
+                Assert.assertSame(expected.remove(id), map.remove(id));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (int id = 0; id <= nextId; id++) {
+            Assert.assertSame(expected.get(id), map.get(id));
+        }
+    }
+}
@@ -18,13 +18,17 @@ package com.vaadin.flow.internal;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,10 +39,14 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.catalina.connector.RequestFacade;
+import org.apache.catalina.connector.ResponseFacade;
 import org.apache.commons.fileupload2.core.MultipartInput;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
@@ -89,6 +97,9 @@ public class ResponseWriterTest {
                 FAULTY_CLASS_PATH_GZ, fileJsGzippedContents));
     }
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private ServletContext servletContext;
     private HttpServletRequest request;
     private HttpServletResponse response;
@@ -152,13 +163,20 @@ public class ResponseWriterTest {
         responseWriter = new OverrideableResponseWriter(
                 deploymentConfiguration);
         servletContext = Mockito.mock(ServletContext.class);
-        request = Mockito.mock(HttpServletRequest.class);
+        mockRequestAndResponse(HttpServletRequest.class,
+                HttpServletResponse.class);
+    }
+
+    private void mockRequestAndResponse(
+            Class<? extends HttpServletRequest> requestType,
+            Class<? extends HttpServletResponse> responseType) {
+        request = Mockito.mock(requestType);
         Mockito.when(request.getServletContext()).thenReturn(servletContext);
         // No header == getDateHeader returns -1 (Mockito default is 0)
         Mockito.when(request.getDateHeader(ArgumentMatchers.anyString()))
                 .thenReturn(-1L);
 
-        response = Mockito.mock(HttpServletResponse.class);
+        response = Mockito.mock(responseType);
         responseContentLength = new AtomicLong(-1L);
         Mockito.doAnswer(invocation -> {
             responseContentLength.set((long) invocation.getArguments()[0]);
@@ -530,6 +548,126 @@ public class ResponseWriterTest {
         assertStatus(206);
     }
 
+    @Test
+    public void writeDataFromFile() throws IOException {
+        URL url = createFile(fileJsContents);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        responseWriter.writeResponseContents(PATH_JS, url, request, response);
+
+        Assert.assertArrayEquals(fileJsContents, out.getOutput());
+        Assert.assertEquals(fileJsContents.length,
+                responseContentLength.get());
+    }
+
+    @Test
+    public void writeByteRangeFromFile() throws IOException {
+        URL url = createFile(fileJsContents);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        mockRequestHeaders(new Pair<>("Range", "bytes=10-"));
+
+        responseWriter.writeResponseContents(PATH_JS, url, request, response);
+
+        // "File.js contents"
+        // ^0123456789ABCDEF^
+        Assert.assertArrayEquals("ntents".getBytes(), out.getOutput());
+        Assert.assertEquals(6L, responseContentLength.get());
+        assertResponseHeaders(
+                new Pair<>("Content-Range", "bytes 10-15/16"));
+        assertStatus(206);
+    }
+
+    @Test
+    public void writeByteRangeMultiPartNonSequentialFromFile()
+            throws IOException {
+        URL url = createFile(fileJsContents);
+        mockRequestHeaders(new Pair<>("Range", "bytes=10-12, 1-4, 5-"));
+        // "File.js contents"
+        // ^0123456789ABCDEF^
+        assertMultipartResponse(PATH_JS, url, Arrays.asList(
+                new Pair<>(new String[] { "Content-Range: bytes 10-12/16" },
+                        "nte".getBytes()),
+                new Pair<>(new String[] { "Content-Range: bytes 1-4/16" },
+                        "ile.".getBytes()),
+                new Pair<>(new String[] { "Content-Range: bytes 5-15/16" },
+                        "js contents".getBytes())));
+        assertStatus(206);
+    }
+
+    @Test
+    public void writeDataFromFile_sendfileSupported_fileLeftToContainer()
+            throws IOException {
+        mockRequestAndResponse(RequestFacade.class, ResponseFacade.class);
+        byte[] contents = new byte[64 * 1024];
+        Arrays.fill(contents, (byte) 'a');
+        URL url = createFile(contents);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(
+                request.getAttribute("org.apache.tomcat.sendfile.support"))
+                .thenReturn(Boolean.TRUE);
+
+        responseWriter.writeResponseContents(PATH_JS, url, request, response);
+
+        Assert.assertEquals(0, out.getOutput().length);
+        Assert.assertEquals(contents.length, responseContentLength.get());
+        Mockito.verify(request).setAttribute(
+                "org.apache.tomcat.sendfile.filename",
+                Paths.get(URI.create(url.toString())).toAbsolutePath()
+                        .toString());
+        Mockito.verify(request)
+                .setAttribute("org.apache.tomcat.sendfile.start", 0L);
+        Mockito.verify(request).setAttribute("org.apache.tomcat.sendfile.end",
+                (long) contents.length);
+    }
+
+    @Test
+    public void writeDataFromFile_sendfileSupported_smallFileWritten()
+            throws IOException {
+        mockRequestAndResponse(RequestFacade.class, ResponseFacade.class);
+        URL url = createFile(fileJsContents);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(
+                request.getAttribute("org.apache.tomcat.sendfile.support"))
+                .thenReturn(Boolean.TRUE);
+
+        responseWriter.writeResponseContents(PATH_JS, url, request, response);
+
+        Assert.assertArrayEquals(fileJsContents, out.getOutput());
+        Mockito.verify(request, Mockito.never()).setAttribute(
+                ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void writeDataFromFile_sendfileSupported_wrappedResponse_fileWritten()
+            throws IOException {
+        // E.g. a filter that compresses or hashes the response body
+        mockRequestAndResponse(RequestFacade.class, HttpServletResponse.class);
+        byte[] contents = new byte[64 * 1024];
+        Arrays.fill(contents, (byte) 'a');
+        URL url = createFile(contents);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(
+                request.getAttribute("org.apache.tomcat.sendfile.support"))
+                .thenReturn(Boolean.TRUE);
+
+        responseWriter.writeResponseContents(PATH_JS, url, request, response);
+
+        Assert.assertArrayEquals(contents, out.getOutput());
+        Mockito.verify(request, Mockito.never()).setAttribute(
+                ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    private URL createFile(byte[] contents) throws IOException {
+        File file = temporaryFolder.newFile("file.js");
+        Files.write(file.toPath(), contents);
+        return file.toURI().toURL();
+    }
+
     private void assertResponse(byte[] expectedResponse) throws IOException {
         assertResponse(PATH_JS, expectedResponse);
     }
@@ -549,6 +687,13 @@ public class ResponseWriterTest {
     private void assertMultipartResponse(String path,
             List<Pair<String[], byte[]>> expectedHeadersAndBytes)
             throws IOException {
+        assertMultipartResponse(path, pathToUrl.get(path),
+                expectedHeadersAndBytes);
+    }
+
+    private void assertMultipartResponse(String path, URL url,
+            List<Pair<String[], byte[]>> expectedHeadersAndBytes)
+            throws IOException {
         CapturingServletOutputStream out = new CapturingServletOutputStream();
         Mockito.when(response.getOutputStream()).thenReturn(out);
 
@@ -558,8 +703,7 @@ public class ResponseWriterTest {
             return null;
         }).when(response).setContentType(ArgumentMatchers.anyString());
 
-        responseWriter.writeResponseContents(path, pathToUrl.get(path), request,
-                response);
+        responseWriter.writeResponseContents(path, url, request, response);
         final byte[] output = out.getOutput();
 
         Assert.assertNotNull(contentType.get());
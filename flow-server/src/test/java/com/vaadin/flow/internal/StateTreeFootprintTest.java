@@ -0,0 +1,56 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.nodefeature.ElementAttributeMap;
+
+public class StateTreeFootprintTest {
+
+    @Test
+    public void of_elementsAdded_footprintGrows() {
+        UI ui = new UI();
+        StateTree tree = ui.getInternals().getStateTree();
+        StateTreeFootprint initial = StateTreeFootprint.of(tree);
+
+        for (int i = 0; i < 10; i++) {
+            Element div = new Element("div");
+            div.setAttribute("title", "Item " + i);
+            ui.getElement().appendChild(div);
+        }
+        StateTreeFootprint footprint = StateTreeFootprint.of(tree);
+
+        Assert.assertEquals(initial.getNodeCount() + 10,
+                footprint.getNodeCount());
+        Assert.assertTrue(footprint.getTotalSize() > initial.getTotalSize()
+                + 10 * StateTreeFootprint.NODE_SIZE);
+        Assert.assertTrue(
+                footprint.getFeatureSizes().get(ElementAttributeMap.class) > 0);
+    }
+
+    @Test
+    public void estimateValueSize() {
+        Assert.assertEquals(0, StateTreeFootprint.estimateValueSize(null));
+        Assert.assertEquals(0,
+                StateTreeFootprint.estimateValueSize(new StateNode()));
+        Assert.assertEquals(48, StateTreeFootprint.estimateValueSize("foo"));
+        Assert.assertEquals(16, StateTreeFootprint.estimateValueSize(42));
+    }
+}
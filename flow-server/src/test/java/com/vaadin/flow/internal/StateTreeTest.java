@@ -19,6 +19,7 @@ package com.vaadin.flow.internal;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -291,6 +292,63 @@ public class StateTreeTest {
                 tree.collectDirtyNodes().toArray());
     }
 
+    @Test
+    public void markAsDirty_nodeMarkedTwice_collectedOnce() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+        tree.collectChanges(change -> {
+        });
+
+        node.markAsDirty();
+        node.markAsDirty();
+
+        Assert.assertEquals(Collections.singleton(node),
+                tree.collectDirtyNodes());
+        tree.collectChanges(change -> {
+        });
+        Assert.assertFalse(tree.hasDirtyNodes());
+
+        node.markAsDirty();
+        Assert.assertTrue(tree.hasDirtyNodes());
+    }
+
+    @Test
+    public void collectChanges_repeatedly_changesCollectedEachTime() {
+        ElementPropertyMap properties = tree.getRootNode()
+                .getFeature(ElementPropertyMap.class);
+        tree.collectChanges(change -> {
+        });
+
+        for (int i = 0; i < 3; i++) {
+            properties.setProperty("foo", "bar" + i);
+            List<NodeChange> changes = new ArrayList<>();
+            tree.collectChanges(changes::add);
+
+            Assert.assertEquals(1, changes.size());
+            Assert.assertEquals("bar" + i,
+                    ((MapPutChange) changes.get(0)).getValue());
+            Assert.assertFalse(tree.hasDirtyNodes());
+        }
+    }
+
+    @Test
+    public void markAsDirty_nodeMovedToAnotherTree_dirtyInBothTrees() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+        tree.collectChanges(change -> {
+        });
+
+        node.markAsDirty();
+        StateNodeTest.setParent(node, null);
+        node.removeFromTree();
+
+        StateTree anotherTree = new UI().getInternals().getStateTree();
+        StateNodeTest.setParent(node, anotherTree.getRootNode());
+
+        Assert.assertTrue(tree.collectDirtyNodes().contains(node));
+        Assert.assertTrue(anotherTree.collectDirtyNodes().contains(node));
+    }
+
     @Test
     public void testDetachInChanges() {
         StateNode node1 = tree.getRootNode();
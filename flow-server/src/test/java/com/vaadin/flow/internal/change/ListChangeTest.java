@@ -16,6 +16,7 @@
 
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import org.junit.Assert;
@@ -25,6 +26,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateNodeTest;
 import com.vaadin.flow.internal.nodefeature.AbstractNodeFeatureTest;
 import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+import com.vaadin.flow.internal.nodefeature.ElementClassList;
 import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
@@ -62,6 +64,72 @@ public class ListChangeTest {
         Assert.assertEquals(child2.getId(), (int) addNodes.getNumber(1));
     }
 
+    @Test
+    public void testBasicCompactJson() {
+        StateNode child1 = StateNodeTest.createEmptyNode("child1");
+        StateNode child2 = StateNodeTest.createEmptyNode("child2");
+        ListAddChange<StateNode> change = new ListAddChange<>(feature, true, 0,
+                Arrays.asList(child1, child2));
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(change.getNode().getId(),
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_NODE));
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_TYPE_SPLICE_NODES,
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_TYPE));
+        Assert.assertEquals(NodeFeatureRegistry.getId(feature.getClass()),
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_FEATURE));
+        // index and remove count
+        Assert.assertEquals(0, (int) json.getNumber(3));
+        Assert.assertEquals(0, (int) json.getNumber(4));
+
+        JsonArray addNodes = json.getArray(5);
+        Assert.assertEquals(2, addNodes.length());
+        Assert.assertEquals(child1.getId(), (int) addNodes.getNumber(0));
+        Assert.assertEquals(child2.getId(), (int) addNodes.getNumber(1));
+    }
+
+    @Test
+    public void testRemoveCompactJson() {
+        StateNode child = StateNodeTest.createEmptyNode("child");
+        ListRemoveChange<StateNode> change = new ListRemoveChange<>(feature, 2,
+                child);
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_TYPE_SPLICE,
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_TYPE));
+        Assert.assertEquals(2, (int) json.getNumber(3));
+        Assert.assertEquals(1, (int) json.getNumber(4));
+    }
+
+    @Test
+    public void writeJson_sameAsToJson() throws IOException {
+        StateNode child1 = StateNodeTest.createEmptyNode("child1");
+        StateNode child2 = StateNodeTest.createEmptyNode("child2");
+        NodeList<String> valueList = AbstractNodeFeatureTest
+                .createFeature(ElementClassList.class);
+
+        for (NodeChange change : Arrays.asList(
+                new ListAddChange<>(feature, true, 1,
+                        Arrays.asList(child1, child2)),
+                new ListAddChange<>(valueList, false, 0,
+                        Arrays.asList("foo", "b\"ar")),
+                new ListAddChange<>(feature, true, 0, Arrays.asList()),
+                new ListRemoveChange<>(feature, 2, child1),
+                new ListClearChange<>(feature), new EmptyChange(feature))) {
+            StringBuilder json = new StringBuilder();
+            change.writeJson(json, null);
+            Assert.assertEquals(change.toJson(null).toJson(), json.toString());
+
+            StringBuilder compactJson = new StringBuilder();
+            change.writeCompactJson(compactJson, null);
+            Assert.assertEquals(change.toCompactJson(null).toJson(),
+                    compactJson.toString());
+        }
+    }
+
     @Test
     public void testZeroRemoveNotInJson() {
         ListAddChange<StateNode> change = new ListAddChange<>(feature, false, 1,
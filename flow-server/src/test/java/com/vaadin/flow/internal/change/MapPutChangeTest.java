@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.change;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,6 +31,7 @@ import com.vaadin.flow.internal.nodefeature.NodeMap;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonType;
 import elemental.json.JsonValue;
@@ -87,6 +91,57 @@ public class MapPutChangeTest {
         Assert.assertEquals(value.getId(), (int) nodeValue.asNumber());
     }
 
+    @Test
+    public void testCompactJson() {
+        MapPutChange change = new MapPutChange(feature, "some", "string");
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(change.getNode().getId(),
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_NODE));
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_TYPE_PUT,
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_TYPE));
+        Assert.assertEquals(NodeFeatureRegistry.getId(feature.getClass()),
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_FEATURE));
+        Assert.assertEquals("some", json.getString(3));
+        Assert.assertEquals("string", json.getString(4));
+    }
+
+    @Test
+    public void testCompactNodeValueType() {
+        StateNode value = StateNodeTest.createEmptyNode("value");
+        MapPutChange change = new MapPutChange(feature, "myKey", value);
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_TYPE_PUT_NODE,
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_TYPE));
+        Assert.assertEquals("myKey", json.getString(3));
+        Assert.assertEquals(value.getId(), (int) json.getNumber(4));
+    }
+
+    @Test
+    public void writeJson_sameAsToJson() throws IOException {
+        StateNode node = StateNodeTest.createEmptyNode("value");
+        JsonObject object = Json.createObject();
+        object.put("foo", "b\"ar");
+        for (Object value : Arrays.asList("a \"quoted\"\nstring",
+                Integer.valueOf(-3), Boolean.FALSE, Double.valueOf(1.5), null,
+                object, node)) {
+            MapPutChange change = new MapPutChange(feature, "my\tKey", value);
+
+            StringBuilder json = new StringBuilder();
+            change.writeJson(json, null);
+            Assert.assertEquals(change.toJson(null).toJson(), json.toString());
+
+            StringBuilder compactJson = new StringBuilder();
+            change.writeCompactJson(compactJson, null);
+            Assert.assertEquals(change.toCompactJson(null).toJson(),
+                    compactJson.toString());
+        }
+    }
+
     private JsonValue getValue(Object input) {
         MapPutChange change = new MapPutChange(feature, "myKey", input);
         JsonObject json = change.toJson(null);
@@ -19,12 +19,14 @@ package com.vaadin.flow.internal.change;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.AbstractNodeFeatureTest;
 import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
 import com.vaadin.flow.internal.nodefeature.NodeMap;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class MapRemoveChangeTest {
@@ -47,4 +49,32 @@ public class MapRemoveChangeTest {
                 json.getString(JsonConstants.CHANGE_MAP_KEY));
     }
 
+    @Test
+    public void testCompactJson() {
+        MapRemoveChange change = new MapRemoveChange(feature, "some");
+
+        Assert.assertTrue(change.hasCompactJson());
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(4, json.length());
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_TYPE_REMOVE,
+                (int) json.getNumber(JsonConstants.COMPACT_CHANGE_TYPE));
+        Assert.assertEquals("some", json.getString(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void compactJson_changeWithoutCompactForm_throws() {
+        NodeFeatureChange change = new NodeFeatureChange(feature) {
+            @Override
+            protected void populateJson(JsonObject json,
+                    ConstantPool constantPool) {
+                json.put(JsonConstants.CHANGE_TYPE, "custom");
+                super.populateJson(json, constantPool);
+            }
+        };
+
+        Assert.assertFalse(change.hasCompactJson());
+        change.toCompactJson(null);
+    }
+
 }
@@ -18,6 +18,7 @@ package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -392,6 +393,83 @@ public class NodeMapTest
         Assert.assertTrue(nodeMap.usesSingleMap());
     }
 
+    @Test
+    public void put_fewKeys_useArrayUntilFull() {
+        for (int i = 0; i < 8; i++) {
+            nodeMap.put("key" + i, "value" + i);
+        }
+        Assert.assertTrue(nodeMap.usesArrayMap());
+        Assert.assertEquals("value5", nodeMap.get("key5"));
+
+        nodeMap.remove("key3");
+        Assert.assertFalse(nodeMap.contains("key3"));
+        Assert.assertEquals(7, nodeMap.keySet().size());
+        Assert.assertEquals("value7", nodeMap.get("key7"));
+
+        nodeMap.put("key3", "value3");
+        nodeMap.put("key8", "value8");
+        Assert.assertFalse(nodeMap.usesArrayMap());
+        for (int i = 0; i <= 8; i++) {
+            Assert.assertEquals("value" + i, nodeMap.get("key" + i));
+        }
+    }
+
+    @Test
+    public void keySet_arrayKeys_sameOrderAsHashMap() {
+        Map<String, Serializable> hashMap = new HashMap<>(1);
+        for (String key : new String[] { "foo", "pin", "style", "data-a",
+                "class", "id", "title", "data-b" }) {
+            nodeMap.put(key, "value");
+            hashMap.put(key, "value");
+            Assert.assertEquals(new ArrayList<>(hashMap.keySet()),
+                    new ArrayList<>(nodeMap.keySet()));
+        }
+        Assert.assertTrue(nodeMap.usesArrayMap());
+
+        nodeMap.remove("pin");
+        hashMap.remove("pin");
+        nodeMap.put("pin", "value");
+        hashMap.put("pin", "value");
+        Assert.assertEquals(new ArrayList<>(hashMap.keySet()),
+                new ArrayList<>(nodeMap.keySet()));
+    }
+
+    @Test
+    public void remove_allArrayKeys_noValuesLeft() {
+        nodeMap.put("foo", "bar");
+        nodeMap.put("baz", "qux");
+        Assert.assertTrue(nodeMap.usesArrayMap());
+
+        nodeMap.remove("foo");
+        nodeMap.remove("baz");
+
+        Assert.assertFalse(nodeMap.usesArrayMap());
+        Assert.assertTrue(nodeMap.keySet().isEmpty());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void keySet_arrayKeysRemovedWhileIterating_throws() {
+        nodeMap.put("foo", "bar");
+        nodeMap.put("baz", "qux");
+        nodeMap.put("bar", "foo");
+        Assert.assertTrue(nodeMap.usesArrayMap());
+
+        for (String key : nodeMap.keySet()) {
+            nodeMap.remove(key);
+        }
+    }
+
+    @Test
+    public void getApproximateSize_growsWithValues() {
+        long emptySize = nodeMap.getApproximateSize();
+        nodeMap.put("foo", "bar");
+        long singleSize = nodeMap.getApproximateSize();
+        nodeMap.put("baz", "qux");
+
+        Assert.assertTrue(emptySize < singleSize);
+        Assert.assertTrue(singleSize < nodeMap.getApproximateSize());
+    }
+
     @Test
     public void streamSingleNullValue() {
         nodeMap.put("foo", null);
@@ -42,6 +42,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +56,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -71,6 +73,7 @@ import org.mockito.Mockito;
 import com.vaadin.flow.WarURLStreamHandlerFactory;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.tests.util.TestUtil;
 
@@ -782,6 +785,41 @@ public class StaticFileServerTest implements Serializable {
         Assert.assertTrue(headers.get("Cache-Control").contains("max-age=12"));
     }
 
+    @Test
+    public void writeCacheHeadersHashedBundleFile_immutable() {
+        fileServer.writeCacheHeaders("/VAADIN/build/indexhtml-DwZdQ4m1.js",
+                response);
+        Assert.assertEquals("max-age=31536000, immutable",
+                headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/VAADIN/build/indexhtml.js", response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/static/indexhtml-DwZdQ4m1.js",
+                response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void writeCacheHeadersBundleFileWithoutHash_notImmutable() {
+        fileServer.writeCacheHeaders("/VAADIN/build/vaadin-settings.js",
+                response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/VAADIN/build/my-elements.js", response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/VAADIN/build/my-components.js",
+                response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void getCacheTimeHashedBundleFile_defaultCacheTime() {
+        Assert.assertEquals(3600, fileServer
+                .getCacheTime("/VAADIN/build/indexhtml-DwZdQ4m1.js"));
+    }
+
     @Test
     public void nonProductionMode_writeCacheHeadersCacheResource_noCache() {
         Mockito.when(configuration.isProductionMode()).thenReturn(false);
@@ -1257,6 +1295,196 @@ public class StaticFileServerTest implements Serializable {
         Assert.assertFalse(fileServer.serveStaticResource(request, response));
     }
 
+    @Test
+    public void serveStaticResource_productionMode_resourceResolvedOnce()
+            throws IOException {
+        setupRequestURI("", "/static", "/file.js");
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        "function() {}", 1000));
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(createFileURLWithDataAndLength(
+                        "/static/file.js.gz", "gzipped", 1000));
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("gzipped", out.getOutputString());
+        out.baos.reset();
+        headers.clear();
+        dateHeaders.clear();
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("gzipped", out.getOutputString());
+        Assert.assertEquals("gzip", headers.get("Content-Encoding"));
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+        Assert.assertEquals(1000L, (long) dateHeaders.get("Last-Modified"));
+
+        Mockito.verify(servletService, Mockito.times(1))
+                .getStaticResource("/static/file.js");
+        Mockito.verify(servletContext, Mockito.times(1))
+                .getResource("/static/file.js.gz");
+    }
+
+    @Test
+    public void serveStaticResource_productionMode_matchingETag_notModified()
+            throws IOException {
+        setupRequestURI("", "/static", "/file.js");
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        "function() {}", 1000));
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("function() {}", out.getOutputString());
+        String eTag = headers.get("ETag");
+        Assert.assertNotNull(eTag);
+
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"other\", " + eTag);
+        out.baos.reset();
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(304, responseCode.get());
+        Assert.assertEquals("", out.getOutputString());
+
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"other\"");
+        responseCode.set(-1);
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(-1, responseCode.get());
+        Assert.assertEquals("function() {}", out.getOutputString());
+    }
+
+    @Test
+    public void serveStaticResource_productionMode_contentHashETagPerVariant()
+            throws IOException {
+        setupRequestURI("", "/static", "/file.js");
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        "function() {}", 1000));
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(createFileURLWithDataAndLength(
+                        "/static/file.js.gz", "gzipped", 1000));
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        String eTag = headers.get("ETag");
+        Assert.assertEquals(
+                '"' + Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(MessageDigestUtil.sha256(
+                                "function() {}", StandardCharsets.UTF_8))
+                        + '"',
+                eTag);
+        Assert.assertEquals("Accept-Encoding", headers.get("Vary"));
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        String gzippedETag = headers.get("ETag");
+        Assert.assertNotEquals(eTag, gzippedETag);
+        Assert.assertFalse(gzippedETag.startsWith("W/"));
+
+        // The tag of the uncompressed variant does not match the gzipped one
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(eTag);
+        out.baos.reset();
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(-1, responseCode.get());
+        Assert.assertEquals("gzipped", out.getOutputString());
+
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn(gzippedETag);
+        out.baos.reset();
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(304, responseCode.get());
+        Assert.assertEquals("", out.getOutputString());
+    }
+
+    @Test
+    public void serveStaticResource_productionMode_noGzippedVariant_compressedOnTheFly()
+            throws IOException {
+        String contents = "function() {}\n".repeat(200);
+        setupRequestURI("", "/static", "/file.js");
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Mockito.when(servletContext.getMimeType("/static/file.js"))
+                .thenReturn("application/javascript");
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        contents, 1000));
+
+        for (int i = 0; i < 2; i++) {
+            out.baos.reset();
+            responseContentLength.set(-1L);
+            Assert.assertTrue(
+                    fileServer.serveStaticResource(request, response));
+
+            byte[] compressed = out.getOutput();
+            Assert.assertTrue(compressed.length < contents.length());
+            Assert.assertEquals(compressed.length,
+                    responseContentLength.get());
+            try (GZIPInputStream stream = new GZIPInputStream(
+                    new ByteArrayInputStream(compressed))) {
+                Assert.assertEquals(contents, new String(
+                        stream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            Assert.assertEquals("gzip", headers.get("Content-Encoding"));
+            Assert.assertEquals("Accept-Encoding", headers.get("Vary"));
+            Assert.assertTrue(headers.get("ETag").endsWith("-gzip\""));
+        }
+
+        // Ranges are served from the uncompressed resource
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=0-7");
+        headers.clear();
+        out.baos.reset();
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("function", out.getOutputString());
+        Assert.assertNull(headers.get("Content-Encoding"));
+        Assert.assertFalse(headers.get("ETag").endsWith("-gzip\""));
+    }
+
+    @Test
+    public void serveStaticResource_productionMode_smallOrBinaryResource_notCompressed()
+            throws IOException {
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Mockito.when(servletContext.getMimeType("/static/file.js"))
+                .thenReturn("application/javascript");
+        Mockito.when(servletContext.getMimeType("/static/file.png"))
+                .thenReturn("image/png");
+        String contents = "function() {}\n".repeat(200);
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        "function() {}", 1000));
+        Mockito.when(servletService.getStaticResource("/static/file.png"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.png",
+                        contents, 1000));
+
+        setupRequestURI("", "/static", "/file.js");
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("function() {}", out.getOutputString());
+
+        out.baos.reset();
+        setupRequestURI("", "/static", "/file.png");
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(contents, out.getOutputString());
+        Assert.assertNull(headers.get("Content-Encoding"));
+        Assert.assertNull(headers.get("Vary"));
+    }
+
+    @Test
+    public void serveStaticResource_developmentMode_resourceResolvedEachTime()
+            throws IOException {
+        Mockito.when(configuration.isProductionMode()).thenReturn(false);
+        Mockito.when(configuration.getProjectFolder())
+                .thenReturn(temporaryFolder.newFolder());
+        Mockito.when(configuration.getBuildFolder()).thenReturn("target");
+        setupRequestURI("", "/static", "/file.js");
+        Mockito.when(servletService.getStaticResource("/static/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/static/file.js",
+                        "function() {}", 1000));
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+
+        Mockito.verify(servletService, Mockito.times(2))
+                .getStaticResource("/static/file.js");
+        Assert.assertNull(headers.get("ETag"));
+    }
+
     private static class CapturingServletOutputStream
             extends ServletOutputStream {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -1329,6 +1557,24 @@ public class StaticFileServerTest implements Serializable {
                                     HttpServletRequest request,
                                     HttpServletResponse response) {
                             }
+
+                            @Override
+                            public void writeResponseContents(
+                                    String filenameWithPath, URL resourceUrl,
+                                    URL brotliResourceUrl,
+                                    URL gzippedResourceUrl,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) {
+                            }
+
+                            @Override
+                            public void writeResponseContents(
+                                    String filenameWithPath,
+                                    byte[] compressedContents,
+                                    String contentEncoding,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) {
+                            }
                         };
                         Field f = StaticFileServer.class
                                 .getDeclaredField("responseWriter");
@@ -18,17 +18,31 @@ package com.vaadin.flow.server;
 import jakarta.servlet.ServletContext;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import com.vaadin.flow.function.ContentTypeResolver;
 
 public class StreamResourceTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void getDefaultContentTypeResolver() {
         StreamResource resource = new StreamResource("foo",
@@ -76,6 +90,98 @@ public class StreamResourceTest {
         Assert.assertEquals("bar", headers.get("foo"));
     }
 
+    @Test
+    public void inputStreamFactoryRequiresLock_largeData_fewLockCycles()
+            throws IOException {
+        byte[] data = createData(1024 * 1024);
+        StreamResource resource = new StreamResource("foo",
+                () -> new ByteArrayInputStream(data));
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        resource.getWriter().accept(out, session);
+
+        Assert.assertArrayEquals(data, out.toByteArray());
+        // One cycle for creating the stream and at most 64 kB per read
+        Mockito.verify(session, Mockito.atMost(25)).lock();
+    }
+
+    @Test
+    public void inputStreamFactoryRequiresLock_shortReads_lockedPerRead()
+            throws IOException {
+        byte[] data = createData(1000);
+        // Returns at most 100 bytes per read like a slow producer
+        StreamResource resource = new StreamResource("foo",
+                () -> new FilterInputStream(new ByteArrayInputStream(data)) {
+                    @Override
+                    public int read(byte[] b, int off, int len)
+                            throws IOException {
+                        return super.read(b, off, Math.min(len, 100));
+                    }
+                });
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        resource.getWriter().accept(out, session);
+
+        Assert.assertArrayEquals(data, out.toByteArray());
+        // Creating the stream, ten reads and the end of the stream
+        Mockito.verify(session, Mockito.times(12)).lock();
+    }
+
+    @Test
+    public void snapshotInputStreamFactory_lockedOnlyForCreatingStream()
+            throws IOException {
+        byte[] data = createData(100 * 1024);
+        StreamResource resource = new StreamResource("foo", InputStreamFactory
+                .snapshot(() -> new ByteArrayInputStream(data)));
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        resource.getWriter().accept(out, session);
+
+        Assert.assertArrayEquals(data, out.toByteArray());
+        Mockito.verify(session, Mockito.times(1)).lock();
+        Mockito.verify(session, Mockito.times(1)).unlock();
+    }
+
+    @Test
+    public void inputStreamFactoryWithoutLock_fileInputStream_dataWritten()
+            throws IOException {
+        byte[] data = createData(100 * 1024);
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), data);
+        StreamResource resource = new StreamResource("foo",
+                new InputStreamFactory() {
+                    @Override
+                    public InputStream createInputStream() {
+                        try {
+                            return new FileInputStream(file);
+                        } catch (FileNotFoundException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public boolean requiresLock() {
+                        return false;
+                    }
+                });
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        resource.getWriter().accept(out, session);
+
+        Assert.assertArrayEquals(data, out.toByteArray());
+        Mockito.verify(session, Mockito.times(1)).lock();
+    }
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
     private void assertContentType(StreamResource resource,
             ContentTypeResolver resolver) {
         ServletContext context = Mockito.mock(ServletContext.class);
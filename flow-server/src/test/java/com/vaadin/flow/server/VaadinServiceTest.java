@@ -25,10 +25,20 @@ import jakarta.servlet.http.HttpSessionBindingEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import org.junit.Assert;
@@ -303,6 +313,140 @@ public class VaadinServiceTest {
         Assert.assertEquals(availableRoutes.get(0).getTemplate(), "test");
     }
 
+    @Test
+    public void lockSession_defaultConfiguration_unfairLockWithoutMetrics() {
+        MockVaadinServletService service = new MockVaadinServletService(
+                new MockDeploymentConfiguration());
+        WrappedSession wrappedSession = createWrappedSession();
+
+        Lock lock = service.lockSession(wrappedSession);
+        service.unlockSession(wrappedSession, lock);
+
+        Assert.assertFalse(((ReentrantLock) lock).isFair());
+        Assert.assertTrue(
+                service.getSessionLockMetrics().getStatistics().isEmpty());
+    }
+
+    @Test
+    public void lockSession_fairLockAndMetricsEnabled_outermostLockRecorded() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_SESSION_LOCK_FAIR, "true");
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_SESSION_LOCK_METRICS, "true");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        WrappedSession wrappedSession = createWrappedSession();
+
+        Lock lock = service.lockSession(wrappedSession);
+        lock.lock();
+        lock.unlock();
+        service.unlockSession(wrappedSession, lock);
+
+        Assert.assertTrue(((ReentrantLock) lock).isFair());
+        SessionLockMetrics.LockStatistics statistics = service
+                .getSessionLockMetrics().getStatistics()
+                .get(SessionLockMetrics.BACKGROUND);
+        Assert.assertEquals(1, statistics.getAcquisitions());
+        Assert.assertTrue(statistics.getTotalHoldNanos() >= 0);
+        Assert.assertTrue(
+                statistics.getMaxWaitNanos() <= statistics.getTotalWaitNanos());
+    }
+
+    @Test
+    public void accessSession_coalescingWindow_tasksRunTogetherAfterWindow()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_COALESCING_WINDOW,
+                "200");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        MockVaadinSession session = new MockVaadinSession(service);
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Future<Void> first = service.accessSession(session,
+                () -> threads.add(Thread.currentThread()));
+        Future<Void> second = service.accessSession(session,
+                () -> threads.add(Thread.currentThread()));
+
+        Assert.assertFalse(first.isDone());
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, threads.size());
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+        Assert.assertFalse(session.getAccessQueuePurgeScheduled().get());
+    }
+
+    @Test
+    public void accessSession_coalescingWindow_executorRejects_tasksRun()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_ACCESS_COALESCING_WINDOW,
+                "50");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        MockVaadinSession session = new MockVaadinSession(service);
+        ((ExecutorService) service.getExecutor()).shutdown();
+
+        Future<Void> first = service.accessSession(session, () -> {
+        });
+        first.get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(session.getAccessQueuePurgeScheduled().get());
+
+        // A new purge can be scheduled after the rejected one
+        Future<Void> second = service.accessSession(session, () -> {
+        });
+        second.get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(session.getAccessQueuePurgeScheduled().get());
+    }
+
+    @Test
+    public void dispatchAccessQueuePurge_tasksRunByExecutor()
+            throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+        MockVaadinSession session = new MockVaadinSession(service);
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        session.lock();
+        Future<Void> future = service.accessSession(session,
+                () -> threads.add(Thread.currentThread()));
+        // Release without running the task, like a racing unlock
+        session.getLockInstance().unlock();
+        Assert.assertFalse(future.isDone());
+
+        service.dispatchAccessQueuePurge(session);
+
+        future.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, threads.size());
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void getExecutor_sameInstanceRunsTasks() throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+
+        Executor executor = service.getExecutor();
+        Assert.assertSame(executor, service.getExecutor());
+
+        CompletableFuture<Thread> thread = CompletableFuture
+                .supplyAsync(Thread::currentThread, executor);
+        Assert.assertNotSame(Thread.currentThread(),
+                thread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void destroy_executorIsShutDown() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        ExecutorService executor = (ExecutorService) service.getExecutor();
+
+        service.destroy();
+
+        Assert.assertTrue(executor.isShutdown());
+    }
+
     @Test
     public void dependencyFilterOrder_bundeFiltersAfterApplicationFilters() {
         DependencyFilter applicationFilter = (dependencies,
@@ -473,6 +617,17 @@ public class VaadinServiceTest {
         return factory;
     }
 
+    private static WrappedSession createWrappedSession() {
+        Map<String, Object> attributes = new HashMap<>();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getAttribute(Mockito.anyString()))
+                .then(invocation -> attributes.get(invocation.getArgument(0)));
+        Mockito.doAnswer(invocation -> attributes.put(invocation.getArgument(0),
+                invocation.getArgument(1))).when(wrappedSession)
+                .setAttribute(Mockito.anyString(), Mockito.any());
+        return wrappedSession;
+    }
+
     private static VaadinService createService() throws ServiceException {
         VaadinService service = new MockVaadinServletService();
         return service;
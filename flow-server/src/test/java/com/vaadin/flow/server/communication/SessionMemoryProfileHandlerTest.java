@@ -0,0 +1,202 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.nodefeature.ElementAttributeMap;
+import com.vaadin.flow.server.HttpStatusCode;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.tests.util.MockUI;
+
+import elemental.json.JsonObject;
+
+public class SessionMemoryProfileHandlerTest {
+
+    private final SessionMemoryProfileHandler handler = new SessionMemoryProfileHandler();
+
+    private final DeploymentConfiguration configuration = Mockito
+            .mock(DeploymentConfiguration.class);
+
+    private MockVaadinSession session;
+
+    private MockUI ui;
+
+    private Runnable unlockListener = () -> {
+    };
+
+    @Before
+    public void setUp() {
+        session = new MockVaadinSession() {
+            @Override
+            public void unlock() {
+                super.unlock();
+                unlockListener.run();
+            }
+        };
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui = new MockUI(session);
+            ui.doInit(null, 1);
+            session.addUI(ui);
+            for (int i = 0; i < 10; i++) {
+                Element div = new Element("div");
+                div.setAttribute("title", "Item " + i);
+                ui.getElement().appendChild(div);
+            }
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void createProfile_sizesPerUiComponentAndFeature() {
+        JsonObject profile = handler.createProfile(session, 1);
+
+        Assert.assertEquals(1, profile.getArray("uis").length());
+        JsonObject uiProfile = profile.getArray("uis").getObject(0);
+        Assert.assertEquals(1, (int) uiProfile.getNumber("id"));
+        Assert.assertEquals("", uiProfile.getString("route"));
+        Assert.assertTrue(uiProfile.getNumber("nodes") > 10);
+        Assert.assertEquals(profile.getNumber("bytes"),
+                uiProfile.getNumber("bytes"), 0);
+        Assert.assertEquals(profile.getNumber("bytes"),
+                profile.getObject("routes").getNumber(""), 0);
+        Assert.assertEquals(profile.getNumber("bytes"),
+                profile.getObject("components")
+                        .getNumber(MockUI.class.getName()),
+                0);
+        Assert.assertTrue(profile.getObject("features")
+                .getNumber(ElementAttributeMap.class.getName()) > 0);
+    }
+
+    @Test
+    public void createProfile_sampled_allNodesVisited() {
+        JsonObject full = handler.createProfile(session, 1);
+        JsonObject sampled = handler.createProfile(session, 3);
+
+        Assert.assertEquals(3, (int) sampled.getNumber("sample"));
+        Assert.assertEquals(
+                full.getArray("uis").getObject(0).getNumber("nodes"),
+                sampled.getArray("uis").getObject(0).getNumber("nodes"), 0);
+        Assert.assertTrue(sampled.getNumber("bytes") > 0);
+    }
+
+    @Test
+    public void createProfile_fewNodesPerLock_sessionUnlockedInBetween() {
+        JsonObject full = handler.createProfile(session, 1);
+        AtomicInteger unlocks = new AtomicInteger();
+        unlockListener = unlocks::incrementAndGet;
+
+        JsonObject profile = new SessionMemoryProfileHandler(2)
+                .createProfile(session, 1);
+
+        double nodes = full.getArray("uis").getObject(0).getNumber("nodes");
+        Assert.assertEquals(nodes,
+                profile.getArray("uis").getObject(0).getNumber("nodes"), 0);
+        Assert.assertEquals(full.getNumber("bytes"),
+                profile.getNumber("bytes"), 0);
+        Assert.assertTrue(unlocks.get() > nodes / 2);
+    }
+
+    @Test
+    public void createProfile_nodesDetachedWhileUnlocked_notVisited() {
+        JsonObject full = handler.createProfile(session, 1);
+        AtomicInteger unlocks = new AtomicInteger();
+        unlockListener = () -> {
+            // The first unlock is after listing the UIs
+            if (unlocks.incrementAndGet() == 2) {
+                session.lock();
+                try {
+                    ui.getElement().removeAllChildren();
+                } finally {
+                    session.unlock();
+                }
+            }
+        };
+
+        JsonObject profile = new SessionMemoryProfileHandler(2)
+                .createProfile(session, 1);
+
+        Assert.assertTrue(
+                profile.getArray("uis").getObject(0).getNumber("nodes") < full
+                        .getArray("uis").getObject(0).getNumber("nodes") - 5);
+    }
+
+    @Test
+    public void handleRequest_otherRequestType_notHandled()
+            throws IOException {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        Mockito.when(configuration.isMemoryProfilerEnabled()).thenReturn(true);
+
+        Assert.assertFalse(handler.handleRequest(session, request, response));
+        Mockito.verifyNoInteractions(response);
+    }
+
+    @Test
+    public void handleRequest_profilerDisabled_notFound() throws IOException {
+        VaadinRequest request = createProfileRequest();
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+        Mockito.verify(response).sendError(
+                Mockito.eq(HttpStatusCode.NOT_FOUND.getCode()),
+                Mockito.anyString());
+    }
+
+    @Test
+    public void handleRequest_invalidSample_badRequest() throws IOException {
+        VaadinRequest request = createProfileRequest();
+        Mockito.when(request
+                .getParameter(SessionMemoryProfileHandler.SAMPLE_PARAMETER))
+                .thenReturn("0");
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        Mockito.when(configuration.isMemoryProfilerEnabled()).thenReturn(true);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+        Mockito.verify(response).sendError(
+                Mockito.eq(HttpStatusCode.BAD_REQUEST.getCode()),
+                Mockito.anyString());
+    }
+
+    private static VaadinRequest createProfileRequest() {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(ApplicationConstants.REQUEST_TYPE_MEMORY_PROFILE);
+        return request;
+    }
+}
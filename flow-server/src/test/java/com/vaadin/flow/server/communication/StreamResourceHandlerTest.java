@@ -18,8 +18,10 @@ package com.vaadin.flow.server.communication;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.Assert;
@@ -33,6 +35,7 @@ import com.vaadin.flow.server.MockVaadinServletService;
 import com.vaadin.flow.server.MockVaadinSession;
 import com.vaadin.flow.server.ServiceException;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceStatistics;
 import com.vaadin.flow.server.StreamResourceWriter;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinServletRequest;
@@ -145,4 +148,38 @@ public class StreamResourceHandlerTest {
 
         Mockito.verify(response).setHeader("foo", "bar");
     }
+
+    @Test
+    public void registeredResource_downloadStatisticsRecorded()
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream())
+                .thenReturn(new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        out.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+                });
+        StreamResource res = new StreamResource("readme.md",
+                () -> new ByteArrayInputStream(new byte[1000]));
+        session.getResourceRegistry().registerResource(res);
+
+        handler.handleRequest(session, request, response, res);
+        handler.handleRequest(session, request, response, res);
+
+        StreamResourceStatistics statistics = session.getResourceRegistry()
+                .getStatistics(res).get();
+        Assert.assertEquals(2, statistics.getDownloadCount());
+        Assert.assertEquals(2000, statistics.getBytesWritten());
+        Assert.assertEquals(2000, out.size());
+    }
 }
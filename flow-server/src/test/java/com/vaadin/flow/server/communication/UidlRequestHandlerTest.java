@@ -17,15 +17,19 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Properties;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import com.vaadin.flow.component.UI;
@@ -121,6 +125,38 @@ public class UidlRequestHandlerTest {
                 responseContent);
     }
 
+    @Test
+    public void commitCompressedJsonResponse_largeResponse_writtenGzipped()
+            throws IOException {
+        String json = "{\"changes\":[" + "{\"node\":1},".repeat(200)
+                + "{\"node\":1}]}";
+
+        UidlRequestHandler.commitCompressedJsonResponse(response, json);
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        ArgumentCaptor<byte[]> written = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(outputStream).write(written.capture());
+        Assert.assertTrue(written.getValue().length < json.length());
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(written.getValue()))) {
+            Assert.assertEquals(json,
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void commitCompressedJsonResponse_smallResponse_writtenAsIs()
+            throws IOException {
+        String json = "{\"syncId\":1}";
+
+        UidlRequestHandler.commitCompressedJsonResponse(response, json);
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        Assert.assertEquals(json,
+                CommunicationUtil.getStringWhenWriteString(outputStream));
+    }
+
     @Test
     public void should_modifyUidl_when_MPR() throws Exception {
         UI ui = mock(UI.class);
@@ -17,6 +17,7 @@ package com.vaadin.flow.server.communication;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -65,6 +66,7 @@ import com.vaadin.flow.shared.ui.LoadMode;
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.impl.JsonUtil;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
@@ -393,6 +395,42 @@ public class UidlWriterTest {
                 ui.getInternals().isDirty());
     }
 
+    @Test
+    public void writeUidl_streamedResponseMatchesCreatedUidl()
+            throws Exception {
+        UI createdUi = initializeUIForDependenciesTest(new TestUI());
+        createdUi.add(new ChildComponent());
+        JsonObject created = new UidlWriter().createUidl(createdUi, false,
+                true);
+
+        UI streamedUi = initializeUIForDependenciesTest(new TestUI());
+        streamedUi.add(new ChildComponent());
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(streamedUi, false, true, writer);
+        JsonObject streamed = JsonUtil.parse(writer.toString());
+
+        assertEquals(Set.of(created.keys()), Set.of(streamed.keys()));
+        assertEquals(created.getArray("changes").length(),
+                streamed.getArray("changes").length());
+        assertTrue(streamed.getBoolean(ApplicationConstants.RESYNCHRONIZE_ID));
+        assertFalse("UI is still dirty after writing UIDL",
+                streamedUi.getInternals().isDirty());
+    }
+
+    @Test
+    public void writeUidl_noChanges_changesKeyOmitted() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, false, writer);
+        JsonObject streamed = JsonUtil.parse(writer.toString());
+
+        assertFalse(streamed.hasKey("changes"));
+        assertTrue(streamed.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+    }
+
     private void assertInlineDependencies(List<JsonObject> inlineDependencies) {
         assertThat("Should have an inline dependency", inlineDependencies,
                 hasSize(1));